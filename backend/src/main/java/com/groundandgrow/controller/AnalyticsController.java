@@ -0,0 +1,76 @@
+package com.groundandgrow.controller;
+
+import com.groundandgrow.dto.AnalyticsReportDTO;
+import com.groundandgrow.service.AnalyticsService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+/**
+ * Admin controller for practice revenue and utilisation analytics
+ * Reports are answered from precomputed daily rollups
+ */
+@Slf4j
+@RestController
+@RequestMapping("/admin/analytics")
+@PreAuthorize("hasRole('ADMIN')")
+@RequiredArgsConstructor
+@Tag(name = "Analytics", description = "Revenue and utilisation reports (admin only)")
+public class AnalyticsController {
+
+    private final AnalyticsService analyticsService;
+
+    /**
+     * Get revenue and utilisation per month, psychologist and session type
+     *
+     * @param from First month (yyyy-MM), defaults to 11 months before the current one
+     * @param to Last month (yyyy-MM), defaults to the current month
+     * @param psychologistId Restrict the report to one psychologist
+     */
+    @GetMapping("/report")
+    @Operation(summary = "Analytics report", description = "Revenue and utilisation for a range of months (admin only)")
+    public ResponseEntity<AnalyticsReportDTO> getReport(
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth from,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth to,
+            @RequestParam(required = false) String psychologistId) {
+        YearMonth end = to != null ? to : YearMonth.now();
+        YearMonth start = from != null ? from : end.minusMonths(11);
+
+        log.info("GET /api/admin/analytics/report - from={}, to={}, psychologist={}", start, end, psychologistId);
+
+        try {
+            return ResponseEntity.ok(analyticsService.getReport(start, end, psychologistId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Start recomputing the rollups of a range of days from bookings and availability.
+     * Returns 202 while the recompute runs in the background, 409 if a requested one is still running.
+     */
+    @PostMapping("/reconcile")
+    @Operation(summary = "Reconcile analytics", description = "Recompute daily rollups for an inclusive date range in the background (admin only)")
+    public ResponseEntity<Void> reconcile(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        log.info("POST /api/admin/analytics/reconcile - from={}, to={}", from, to);
+
+        try {
+            return analyticsService.requestReconcile(from, to)
+                ? ResponseEntity.accepted().build()
+                : ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
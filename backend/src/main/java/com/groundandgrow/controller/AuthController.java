@@ -3,17 +3,25 @@ package com.groundandgrow.controller;
 import com.groundandgrow.dto.LoginRequest;
 import com.groundandgrow.dto.LoginResponse;
 import com.groundandgrow.dto.PsychologistDTO;
+import com.groundandgrow.dto.RefreshTokenRequest;
 import com.groundandgrow.dto.RegisterRequest;
+import com.groundandgrow.dto.UpdateAccessRequest;
 import com.groundandgrow.model.Psychologist;
 import com.groundandgrow.security.JwtTokenProvider;
+import com.groundandgrow.security.LoginThrottle;
+import com.groundandgrow.security.TokenRevocationList;
 import com.groundandgrow.service.AuthService;
+import io.jsonwebtoken.Claims;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.authentication.AuthenticationServiceException;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
@@ -24,12 +32,24 @@ public class AuthController {
 
     private final AuthService authService;
     private final JwtTokenProvider tokenProvider;
+    private final TokenRevocationList revocationList;
 
     @PostMapping("/login")
     @Operation(summary = "Login", description = "Authenticate psychologist and get JWT token")
-    public ResponseEntity<LoginResponse> login(@Valid @RequestBody LoginRequest request) {
-        LoginResponse response = authService.login(request);
-        return ResponseEntity.ok(response);
+    public ResponseEntity<?> login(@Valid @RequestBody LoginRequest request, HttpServletRequest httpRequest) {
+        try {
+            LoginResponse response = authService.login(request, httpRequest.getRemoteAddr());
+            return ResponseEntity.ok(response);
+        } catch (LoginThrottle.LoginThrottledException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .body(e.getMessage());
+        } catch (AuthenticationServiceException e) {
+            // Password hashing pool is saturated
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(e.getMessage());
+        }
     }
 
     @PostMapping("/register")
@@ -54,21 +74,60 @@ public class AuthController {
         return ResponseEntity.status(HttpStatus.CREATED).body(dto);
     }
 
+    @PutMapping("/psychologists/{id}/access")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Update access", description = "Change a psychologist's role or deactivate the account (admin only)")
+    public ResponseEntity<?> updateAccess(@PathVariable String id, @Valid @RequestBody UpdateAccessRequest request) {
+        try {
+            Psychologist psychologist = authService.updateAccess(id, request);
+            return ResponseEntity.ok(PsychologistDTO.builder()
+                    .id(psychologist.getId())
+                    .firstName(psychologist.getFirstName())
+                    .lastName(psychologist.getLastName())
+                    .email(psychologist.getEmail())
+                    .role(psychologist.getRole().name())
+                    .isActive(psychologist.getIsActive())
+                    .build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Unknown role: " + request.getRole());
+        }
+    }
+
     @PostMapping("/refresh")
-    @Operation(summary = "Refresh token", description = "Refresh JWT token")
-    public ResponseEntity<LoginResponse> refreshToken(@RequestHeader("Authorization") String authHeader) {
-        String token = authHeader.substring(7); // Remove "Bearer " prefix
-        String email = tokenProvider.getEmailFromToken(token);
+    @Operation(summary = "Refresh token", description = "Exchange a refresh token for a new access token and refresh token")
+    public ResponseEntity<?> refreshToken(@Valid @RequestBody RefreshTokenRequest request) {
+        try {
+            LoginResponse response = authService.refreshToken(request.getRefreshToken());
+            return ResponseEntity.ok(response);
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(e.getMessage());
+        }
+    }
+
+    @PostMapping("/logout")
+    @Operation(summary = "Logout", description = "Revoke the session's refresh token and access tokens")
+    public ResponseEntity<Void> logout(@RequestBody(required = false) RefreshTokenRequest request,
+                                       @RequestHeader(value = "Authorization", required = false) String authHeader) {
+        String sessionId = null;
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            Claims claims = tokenProvider.parseClaims(authHeader.substring(7));
+            if (claims != null) {
+                sessionId = claims.get(JwtTokenProvider.CLAIM_SESSION_ID, String.class);
+            }
+        }
 
-        LoginResponse response = authService.refreshToken(email);
-        return ResponseEntity.ok(response);
+        authService.logout(request != null ? request.getRefreshToken() : null, sessionId);
+        return ResponseEntity.noContent().build();
     }
 
     @GetMapping("/validate")
     @Operation(summary = "Validate token", description = "Validate JWT token")
     public ResponseEntity<String> validateToken(@RequestHeader("Authorization") String authHeader) {
         String token = authHeader.substring(7); // Remove "Bearer " prefix
-        boolean isValid = tokenProvider.validateToken(token);
+        Claims claims = tokenProvider.parseClaims(token);
+        // Tokens of a logged out or revoked session stay signed until they expire
+        boolean isValid = claims != null
+                && !revocationList.isRevoked(claims.get(JwtTokenProvider.CLAIM_SESSION_ID, String.class));
 
         if (isValid) {
             return ResponseEntity.ok("Token is valid");
@@ -1,8 +1,10 @@
 package com.groundandgrow.controller;
 
 import com.groundandgrow.dto.AppointmentDTO;
+import com.groundandgrow.dto.ClientSearchResultDTO;
 import com.groundandgrow.dto.ClientSummaryDTO;
 import com.groundandgrow.dto.MessageDTO;
+import com.groundandgrow.dto.PageDTO;
 import com.groundandgrow.service.ClientManagementService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -30,18 +32,42 @@ public class ClientController {
     private final ClientManagementService clientManagementService;
 
     /**
-     * Get all clients who have had appointments with this psychologist
-     * Returns a summary of each client including appointment counts and history
+     * Get clients who have had appointments with this psychologist
+     * Returns a summary of each client including appointment counts and history.
+     * Returns one page (default 50 clients, at most 200); the total number of clients is returned in X-Total-Count.
      */
     @GetMapping
-    @Operation(summary = "Get all clients", description = "Get all clients who have had appointments with the psychologist")
-    public ResponseEntity<List<ClientSummaryDTO>> getMyClients(Authentication authentication) {
+    @Operation(summary = "Get all clients", description = "Get clients who have had appointments with the psychologist, paginated and optionally sorted")
+    public ResponseEntity<List<ClientSummaryDTO>> getMyClients(
+        @RequestParam(required = false) String sort,
+        @RequestParam(required = false) String direction,
+        @RequestParam(required = false) Integer page,
+        @RequestParam(required = false) Integer size,
+        Authentication authentication
+    ) {
         String psychologistId = authentication.getName();
 
         log.info("GET /api/psychologist/clients - Psychologist: {}", psychologistId);
 
-        List<ClientSummaryDTO> clients = clientManagementService.getClients(psychologistId);
-        return ResponseEntity.ok(clients);
+        PageDTO<ClientSummaryDTO> clients = clientManagementService.getClients(psychologistId, sort, direction, page, size);
+        return ResponseEntity.ok()
+            .header("X-Total-Count", String.valueOf(clients.getTotal()))
+            .body(clients.getItems());
+    }
+
+    /**
+     * Search clients by partial name, email or phone (autocomplete)
+     */
+    @GetMapping("/search")
+    @Operation(summary = "Search clients", description = "Search the psychologist's clients by partial name, email or phone, best matches first")
+    public ResponseEntity<List<ClientSearchResultDTO>> searchClients(
+        @RequestParam String q,
+        @RequestParam(required = false) Integer limit,
+        Authentication authentication
+    ) {
+        String psychologistId = authentication.getName();
+
+        return ResponseEntity.ok(clientManagementService.searchClients(psychologistId, q, limit));
     }
 
     /**
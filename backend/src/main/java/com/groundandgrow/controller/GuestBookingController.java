@@ -1,18 +1,27 @@
 package com.groundandgrow.controller;
 
-import com.groundandgrow.dto.CancellationResponse;
 import com.groundandgrow.dto.CheckoutSessionResponse;
 import com.groundandgrow.dto.GuestBookingDTO;
 import com.groundandgrow.dto.GuestBookingRequest;
 import com.groundandgrow.dto.RescheduleRequest;
+import com.groundandgrow.dto.WaitingRoomTicketDTO;
 import com.groundandgrow.service.GuestBookingService;
+import com.groundandgrow.service.IdempotencyService;
+import com.groundandgrow.service.StripeService;
+import com.groundandgrow.service.WaitingRoomService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
 
 import jakarta.validation.Valid;
+import java.util.Optional;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Controller for guest booking management (no authentication required)
@@ -25,15 +34,62 @@ import jakarta.validation.Valid;
 public class GuestBookingController {
 
     private final GuestBookingService guestBookingService;
+    private final WaitingRoomService waitingRoomService;
+
+    @Value("${stripe.call-timeout-ms:30000}")
+    private long stripeCallTimeoutMs;
 
     /**
-     * Create a new guest booking and return Stripe checkout URL
+     * Create a new guest booking and return Stripe checkout URL.
+     * During a surge the request is queued instead: the response is 429 with a waiting room ticket
+     * to poll and send back in the X-Queue-Ticket header once admitted.
+     * Retries carrying the same Idempotency-Key return the original response.
      */
     @PostMapping
-    public ResponseEntity<CheckoutSessionResponse> createBooking(@Valid @RequestBody GuestBookingRequest request) {
+    public DeferredResult<ResponseEntity<?>> createBooking(
+            @Valid @RequestBody GuestBookingRequest request,
+            @RequestHeader(value = "X-Queue-Ticket", required = false) String queueTicket,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        DeferredResult<ResponseEntity<?>> result = new DeferredResult<>(paymentTimeoutMs());
+        // A retry of a booking that already went through is replayed without taking a waiting room place
+        Optional<CheckoutSessionResponse> replay = guestBookingService.findCompletedBooking(request, idempotencyKey);
+        if (replay.isPresent()) {
+            result.setResult(ResponseEntity.status(HttpStatus.CREATED).body(replay.get()));
+            return result;
+        }
+
+        WaitingRoomService.Admission admission = waitingRoomService.admit(queueTicket);
+        if (!admission.isAdmitted()) {
+            WaitingRoomTicketDTO ticket = admission.getTicket();
+            result.setResult(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, Math.min(ticket.getEstimatedWaitSeconds(), 10))))
+                    .body(ticket));
+            return result;
+        }
+
         log.info("Creating guest booking for: {} {}", request.getFirstName(), request.getLastName());
-        CheckoutSessionResponse response = guestBookingService.createBooking(request);
-        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        // The request thread is released while Stripe is called; the response is written when it answers
+        guestBookingService.createBooking(request, idempotencyKey).whenComplete((response, error) -> {
+            if (error == null) {
+                result.setResult(ResponseEntity.status(HttpStatus.CREATED).body(response));
+                return;
+            }
+
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            if (cause instanceof IdempotencyService.KeyReusedException) {
+                result.setResult(ResponseEntity.unprocessableEntity().body(cause.getMessage()));
+            } else if (cause instanceof IdempotencyService.RequestInProgressException) {
+                result.setResult(ResponseEntity.status(HttpStatus.CONFLICT).body(cause.getMessage()));
+            } else if (cause instanceof IllegalArgumentException) {
+                result.setResult(ResponseEntity.badRequest().body(cause.getMessage()));
+            } else if (cause instanceof GuestBookingService.CheckoutPendingException) {
+                // The booking is kept; retrying with the same Idempotency-Key resumes it
+                result.setResult(ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).body(cause.getMessage()));
+            } else {
+                setFailure(result, cause);
+            }
+        });
+        return result;
     }
 
     /**
@@ -50,10 +106,17 @@ public class GuestBookingController {
      * Cancel a booking by confirmation token
      */
     @PutMapping("/{token}/cancel")
-    public ResponseEntity<CancellationResponse> cancelBooking(@PathVariable String token) {
+    public DeferredResult<ResponseEntity<?>> cancelBooking(@PathVariable String token) {
         log.info("Cancelling booking with token: {}", token);
-        CancellationResponse response = guestBookingService.cancelBooking(token);
-        return ResponseEntity.ok(response);
+        DeferredResult<ResponseEntity<?>> result = new DeferredResult<>(paymentTimeoutMs());
+        guestBookingService.cancelBooking(token).whenComplete((response, error) -> {
+            if (error == null) {
+                result.setResult(ResponseEntity.ok(response));
+            } else {
+                setFailure(result, error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+            }
+        });
+        return result;
     }
 
     /**
@@ -77,4 +140,27 @@ public class GuestBookingController {
         var bookings = guestBookingService.getBookingsByEmail(email);
         return ResponseEntity.ok(bookings);
     }
+
+    /**
+     * Async timeout for requests waiting on Stripe; outlasts the call timeout so its 504 is sent, not the container's
+     */
+    private long paymentTimeoutMs() {
+        return stripeCallTimeoutMs + 5000;
+    }
+
+    /**
+     * 503 when the Stripe bulkhead is full, 504 when Stripe did not answer in time; anything else
+     * goes to the default error handling
+     */
+    private void setFailure(DeferredResult<ResponseEntity<?>> result, Throwable cause) {
+        if (cause instanceof StripeService.PaymentProviderBusyException) {
+            result.setResult(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "5")
+                    .body(cause.getMessage()));
+        } else if (cause instanceof TimeoutException) {
+            result.setResult(ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).body("Payment provider did not respond in time"));
+        } else {
+            result.setErrorResult(cause);
+        }
+    }
 }
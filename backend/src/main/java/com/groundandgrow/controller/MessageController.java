@@ -1,20 +1,35 @@
 package com.groundandgrow.controller;
 
+import com.groundandgrow.dto.CursorPageDTO;
+import com.groundandgrow.dto.InboxThreadDTO;
 import com.groundandgrow.dto.MessageDTO;
 import com.groundandgrow.dto.MessageRequest;
+import com.groundandgrow.dto.MessageSearchResultDTO;
 import com.groundandgrow.model.Message;
+import com.groundandgrow.model.MessageThread;
+import com.groundandgrow.service.MessageAttachmentService;
 import com.groundandgrow.service.MessageService;
+import com.groundandgrow.util.TextHighlighter;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+import org.springframework.data.mongodb.gridfs.GridFsResource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -28,7 +43,10 @@ import java.util.stream.Collectors;
 @Tag(name = "Messages", description = "Secure messaging endpoints")
 public class MessageController {
 
+    private static final int SNIPPET_LENGTH = 160;
+
     private final MessageService messageService;
+    private final MessageAttachmentService messageAttachmentService;
 
     /**
      * Send a new message
@@ -72,6 +90,18 @@ public class MessageController {
         return ResponseEntity.ok(dtos);
     }
 
+    /**
+     * Get a page of messages in a thread, newest first
+     */
+    @GetMapping("/thread/{threadId}/page")
+    @Operation(summary = "Page thread messages", description = "Page through a conversation thread, newest first")
+    public ResponseEntity<CursorPageDTO<MessageDTO>> getThreadMessagesPage(
+            @PathVariable String threadId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(convertPage(messageService.getThreadMessages(threadId, cursor, limit)));
+    }
+
     /**
      * Get unread messages for the authenticated user
      */
@@ -89,6 +119,20 @@ public class MessageController {
         return ResponseEntity.ok(dtos);
     }
 
+    /**
+     * Get a page of unread messages for the authenticated user
+     */
+    @GetMapping("/unread/page")
+    @Operation(summary = "Page unread messages", description = "Page through unread messages for the authenticated user, newest first")
+    public ResponseEntity<CursorPageDTO<MessageDTO>> getUnreadMessagesPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String userId = authentication.getName();
+
+        return ResponseEntity.ok(convertPage(messageService.getUnreadMessages(userId, cursor, limit)));
+    }
+
     /**
      * Get all messages for the authenticated user
      */
@@ -106,6 +150,113 @@ public class MessageController {
         return ResponseEntity.ok(dtos);
     }
 
+    /**
+     * Get a page of messages for the authenticated user
+     */
+    @GetMapping("/page")
+    @Operation(summary = "Page user messages", description = "Page through messages sent or received by the authenticated user, newest first")
+    public ResponseEntity<CursorPageDTO<MessageDTO>> getUserMessagesPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String userId = authentication.getName();
+
+        return ResponseEntity.ok(convertPage(messageService.getUserMessages(userId, cursor, limit)));
+    }
+
+    /**
+     * Upload an attachment for a message (raw request body, streamed to storage)
+     */
+    @PutMapping("/{id}/attachment")
+    @Operation(summary = "Upload attachment", description = "Attach a file to a message sent by the authenticated user. Send the file as the raw request body with its Content-Type.")
+    public ResponseEntity<?> uploadAttachment(
+            @PathVariable String id,
+            @RequestParam String filename,
+            HttpServletRequest request) throws IOException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String userId = authentication.getName();
+
+        String contentType = request.getContentType() != null
+            ? request.getContentType()
+            : MediaType.APPLICATION_OCTET_STREAM_VALUE;
+
+        try {
+            Message message = messageAttachmentService.upload(
+                id, userId, filename, contentType, request.getContentLengthLong(), request.getInputStream());
+            return ResponseEntity.ok(convertToDTO(message));
+        } catch (MessageAttachmentService.AttachmentTooLargeException e) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(e.getMessage());
+        }
+    }
+
+    /**
+     * Download a message attachment; Range requests are answered with 206 Partial Content
+     */
+    @GetMapping("/{id}/attachment")
+    @Operation(summary = "Download attachment", description = "Stream a message attachment, supporting HTTP Range requests")
+    public ResponseEntity<Resource> downloadAttachment(@PathVariable String id) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String userId = authentication.getName();
+
+        GridFsResource attachment = messageAttachmentService.download(id, userId);
+
+        return ResponseEntity.ok()
+            .contentType(MessageAttachmentService.mediaTypeOf(attachment.getContentType()))
+            .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(attachment.getFilename(), StandardCharsets.UTF_8)
+                .build()
+                .toString())
+            .body(attachment);
+    }
+
+    /**
+     * Search the authenticated user's messages
+     */
+    @GetMapping("/search")
+    @Operation(summary = "Search messages", description = "Full-text search over the subject and content of the authenticated user's messages, newest first")
+    public ResponseEntity<CursorPageDTO<MessageSearchResultDTO>> searchMessages(
+            @RequestParam String q,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String userId = authentication.getName();
+
+        CursorPageDTO<Message> page = messageService.searchMessages(userId, q, cursor, limit);
+        List<String> terms = TextHighlighter.terms(q);
+
+        return ResponseEntity.ok(CursorPageDTO.<MessageSearchResultDTO>builder()
+            .items(page.getItems().stream()
+                .map(message -> convertToSearchResult(message, terms))
+                .collect(Collectors.toList()))
+            .nextCursor(page.getNextCursor())
+            .hasMore(page.isHasMore())
+            .limit(page.getLimit())
+            .build());
+    }
+
+    /**
+     * Get a page of the authenticated user's conversations
+     */
+    @GetMapping("/inbox")
+    @Operation(summary = "Page inbox", description = "Page through the authenticated user's conversations, most recently active first")
+    public ResponseEntity<CursorPageDTO<InboxThreadDTO>> getInbox(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String userId = authentication.getName();
+
+        CursorPageDTO<MessageThread> page = messageService.getInbox(userId, cursor, limit);
+
+        return ResponseEntity.ok(CursorPageDTO.<InboxThreadDTO>builder()
+            .items(page.getItems().stream()
+                .map(thread -> convertToInboxDTO(thread, userId))
+                .collect(Collectors.toList()))
+            .nextCursor(page.getNextCursor())
+            .hasMore(page.isHasMore())
+            .limit(page.getLimit())
+            .build());
+    }
+
     /**
      * Get messages for a specific appointment
      */
@@ -120,18 +271,59 @@ public class MessageController {
         return ResponseEntity.ok(dtos);
     }
 
+    /**
+     * Get a page of messages for a specific appointment, newest first
+     */
+    @GetMapping("/appointment/{appointmentId}/page")
+    @Operation(summary = "Page appointment messages", description = "Page through messages related to a specific appointment, newest first")
+    public ResponseEntity<CursorPageDTO<MessageDTO>> getAppointmentMessagesPage(
+            @PathVariable String appointmentId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(convertPage(messageService.getAppointmentMessages(appointmentId, cursor, limit)));
+    }
+
     /**
      * Mark a message as read
      */
     @PutMapping("/{id}/read")
-    @Operation(summary = "Mark message as read", description = "Mark a specific message as read")
+    @Operation(summary = "Mark message as read", description = "Mark a message, and everything before it in its thread, as read")
     public ResponseEntity<MessageDTO> markAsRead(@PathVariable String id) {
-        Message message = messageService.markAsRead(id);
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String userId = authentication.getName();
+
+        Message message = messageService.markAsRead(id, userId);
         MessageDTO dto = convertToDTO(message);
 
         return ResponseEntity.ok(dto);
     }
 
+    /**
+     * Mark a whole thread as read
+     */
+    @PutMapping("/thread/{threadId}/read")
+    @Operation(summary = "Mark thread as read", description = "Mark every message in a thread as read for the authenticated user")
+    public ResponseEntity<Void> markThreadAsRead(@PathVariable String threadId) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String userId = authentication.getName();
+
+        messageService.markThreadAsRead(threadId, userId);
+
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Stream new messages and unread count changes
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream message events", description = "Server-Sent Events stream of new messages and unread count changes for the authenticated user")
+    public SseEmitter streamMessageEvents() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String userId = authentication.getName();
+
+        return messageService.subscribe(userId);
+    }
+
     /**
      * Get unread message count
      */
@@ -157,6 +349,79 @@ public class MessageController {
         return ResponseEntity.noContent().build();
     }
 
+    /**
+     * Convert a page of Message entities to a page of MessageDTOs
+     */
+    private CursorPageDTO<MessageDTO> convertPage(CursorPageDTO<Message> page) {
+        return CursorPageDTO.<MessageDTO>builder()
+            .items(page.getItems().stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList()))
+            .nextCursor(page.getNextCursor())
+            .hasMore(page.isHasMore())
+            .limit(page.getLimit())
+            .build();
+    }
+
+    /**
+     * Convert a search hit to a result with a highlighted snippet of its content
+     */
+    private MessageSearchResultDTO convertToSearchResult(Message message, List<String> terms) {
+        TextHighlighter.Snippet snippet = TextHighlighter.snippet(message.getContent(), terms, SNIPPET_LENGTH);
+
+        return MessageSearchResultDTO.builder()
+            .id(message.getId())
+            .threadId(message.getThreadId())
+            .appointmentId(message.getAppointmentId())
+            .senderId(message.getSenderId())
+            .receiverId(message.getReceiverId())
+            .senderType(message.getSenderType())
+            .subject(message.getSubject())
+            .subjectHighlights(convertHighlights(TextHighlighter.find(message.getSubject(), terms)))
+            .snippet(snippet.getText())
+            .snippetHighlights(convertHighlights(snippet.getHighlights()))
+            .isRead(message.getIsRead())
+            .createdAt(message.getCreatedAt())
+            .build();
+    }
+
+    private List<MessageSearchResultDTO.Highlight> convertHighlights(List<TextHighlighter.Highlight> highlights) {
+        return highlights.stream()
+            .map(highlight -> MessageSearchResultDTO.Highlight.builder()
+                .start(highlight.getStart())
+                .length(highlight.getLength())
+                .build())
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Convert a thread summary to an inbox entry from the point of view of a user
+     */
+    private InboxThreadDTO convertToInboxDTO(MessageThread thread, String userId) {
+        MessageThread.Participant self = thread.getParticipant(userId);
+        MessageThread.LastMessage lastMessage = thread.getLastMessage();
+
+        InboxThreadDTO.InboxThreadDTOBuilder builder = InboxThreadDTO.builder()
+            .threadId(thread.getId())
+            .appointmentId(thread.getAppointmentId())
+            .participants(thread.getParticipants().stream()
+                .map(participant -> InboxThreadDTO.Participant.builder()
+                    .userId(participant.getUserId())
+                    .userType(participant.getUserType())
+                    .build())
+                .collect(Collectors.toList()))
+            .lastMessageAt(thread.getLastMessageAt())
+            .unreadCount(self != null && self.getUnreadCount() != null ? self.getUnreadCount() : 0);
+
+        if (lastMessage != null) {
+            builder.lastMessageId(lastMessage.getMessageId())
+                .lastMessageSenderId(lastMessage.getSenderId())
+                .lastMessageSubject(lastMessage.getSubject())
+                .lastMessagePreview(lastMessage.getPreview());
+        }
+        return builder.build();
+    }
+
     /**
      * Convert Message entity to MessageDTO
      */
@@ -174,6 +439,10 @@ public class MessageController {
             .isRead(message.getIsRead())
             .readAt(message.getReadAt())
             .createdAt(message.getCreatedAt())
+            .attachmentUrl(message.getAttachmentUrl())
+            .attachmentType(message.getAttachmentType())
+            .attachmentName(message.getAttachmentName())
+            .attachmentSize(message.getAttachmentSize())
             .build();
     }
 }
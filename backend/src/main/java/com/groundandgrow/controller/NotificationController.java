@@ -1,9 +1,16 @@
 package com.groundandgrow.controller;
 
+import com.groundandgrow.dto.BroadcastNotificationRequest;
+import com.groundandgrow.dto.BroadcastNotificationResponse;
+import com.groundandgrow.dto.CursorPageDTO;
 import com.groundandgrow.dto.NotificationDTO;
 import com.groundandgrow.dto.NotificationRequest;
+import com.groundandgrow.dto.NotificationSummaryDTO;
 import com.groundandgrow.model.Notification;
 import com.groundandgrow.repository.NotificationRepository;
+import com.groundandgrow.service.BroadcastNotificationService;
+import com.groundandgrow.service.NotificationArchiveService;
+import com.groundandgrow.service.NotificationQueryService;
 import com.groundandgrow.service.NotificationSchedulerService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -31,6 +38,9 @@ public class NotificationController {
 
     private final NotificationSchedulerService notificationSchedulerService;
     private final NotificationRepository notificationRepository;
+    private final NotificationArchiveService notificationArchiveService;
+    private final NotificationQueryService notificationQueryService;
+    private final BroadcastNotificationService broadcastNotificationService;
 
     /**
      * Schedule a notification to be sent
@@ -69,6 +79,19 @@ public class NotificationController {
         return ResponseEntity.status(HttpStatus.CREATED).body(dto);
     }
 
+    /**
+     * Broadcast a notice to every client of a psychologist, or of the whole clinic.
+     * Responds once every recipient's notification is queued; delivery follows through the scheduler.
+     */
+    @PostMapping("/broadcast")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Broadcast notification", description = "Queue a notice for every client of a psychologist, or every client of the clinic (admin only)")
+    public ResponseEntity<BroadcastNotificationResponse> broadcastNotification(
+            @Valid @RequestBody BroadcastNotificationRequest request) {
+        BroadcastNotificationResponse response = broadcastNotificationService.broadcast(request);
+        return ResponseEntity.ok(response);
+    }
+
     /**
      * Get notification by ID
      */
@@ -76,7 +99,7 @@ public class NotificationController {
     @PreAuthorize("hasRole('PSYCHOLOGIST') or hasRole('ADMIN')")
     @Operation(summary = "Get notification", description = "Retrieve notification status by ID")
     public ResponseEntity<NotificationDTO> getNotificationStatus(@PathVariable String id) {
-        Notification notification = notificationRepository.findById(id)
+        Notification notification = notificationArchiveService.findById(id)
             .orElseThrow(() -> new RuntimeException("Notification not found"));
 
         NotificationDTO dto = convertToDTO(notification);
@@ -89,9 +112,9 @@ public class NotificationController {
      */
     @GetMapping("/guest-booking/{bookingId}")
     @PreAuthorize("hasRole('PSYCHOLOGIST') or hasRole('ADMIN')")
-    @Operation(summary = "Get booking notifications", description = "Retrieve all notifications for a specific guest booking")
+    @Operation(summary = "Get booking notifications", description = "Retrieve the newest notifications for a specific guest booking, live and archived")
     public ResponseEntity<List<NotificationDTO>> getBookingNotifications(@PathVariable String bookingId) {
-        List<Notification> notifications = notificationRepository.findByGuestBookingId(bookingId);
+        List<Notification> notifications = notificationArchiveService.findByGuestBookingId(bookingId);
         List<NotificationDTO> dtos = notifications.stream()
             .map(this::convertToDTO)
             .collect(Collectors.toList());
@@ -100,33 +123,53 @@ public class NotificationController {
     }
 
     /**
-     * Get all pending notifications
+     * Get a page of pending notifications, newest first (keyset pagination)
      */
     @GetMapping("/pending")
     @PreAuthorize("hasRole('ADMIN')")
-    @Operation(summary = "Get pending notifications", description = "Retrieve all pending notifications (admin only)")
-    public ResponseEntity<List<NotificationDTO>> getPendingNotifications() {
-        List<Notification> notifications = notificationRepository.findByStatus("PENDING");
-        List<NotificationDTO> dtos = notifications.stream()
-            .map(this::convertToDTO)
-            .collect(Collectors.toList());
-
-        return ResponseEntity.ok(dtos);
+    @Operation(summary = "Get pending notifications", description = "Page through pending notifications, newest first; pass nextCursor back as cursor for the next page (admin only)")
+    public ResponseEntity<CursorPageDTO<NotificationDTO>> getPendingNotifications(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        CursorPageDTO<Notification> page = notificationQueryService.getByStatus("PENDING", cursor, limit);
+        return ResponseEntity.ok(convertPage(page));
     }
 
     /**
-     * Get all failed notifications
+     * Get a page of failed notifications, newest first (keyset pagination)
      */
     @GetMapping("/failed")
     @PreAuthorize("hasRole('ADMIN')")
-    @Operation(summary = "Get failed notifications", description = "Retrieve all failed notifications (admin only)")
-    public ResponseEntity<List<NotificationDTO>> getFailedNotifications() {
-        List<Notification> notifications = notificationRepository.findByStatus("FAILED");
-        List<NotificationDTO> dtos = notifications.stream()
-            .map(this::convertToDTO)
-            .collect(Collectors.toList());
+    @Operation(summary = "Get failed notifications", description = "Page through failed notifications, newest first; pass nextCursor back as cursor for the next page (admin only)")
+    public ResponseEntity<CursorPageDTO<NotificationDTO>> getFailedNotifications(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        CursorPageDTO<Notification> page = notificationQueryService.getByStatus("FAILED", cursor, limit);
+        return ResponseEntity.ok(convertPage(page));
+    }
 
-        return ResponseEntity.ok(dtos);
+    /**
+     * Get a page of notifications in a given status (keyset pagination)
+     */
+    @GetMapping("/queue")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Browse notification queue", description = "Page through notifications by status, newest first, without message bodies (admin only)")
+    public ResponseEntity<CursorPageDTO<NotificationDTO>> getNotificationQueue(
+            @RequestParam(defaultValue = "PENDING") String status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        CursorPageDTO<Notification> page = notificationQueryService.getByStatus(status, cursor, limit);
+        return ResponseEntity.ok(convertPage(page));
+    }
+
+    /**
+     * Get notification counts per status, type and provider
+     */
+    @GetMapping("/summary")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Notification queue summary", description = "Counts per status, type and provider (admin only)")
+    public ResponseEntity<NotificationSummaryDTO> getNotificationSummary() {
+        return ResponseEntity.ok(notificationQueryService.getSummary());
     }
 
     /**
@@ -176,13 +219,13 @@ public class NotificationController {
     }
 
     /**
-     * Get all notifications for a specific recipient
+     * Get the newest notifications for a specific recipient (see the paged lookup for older ones)
      */
     @GetMapping("/recipient/{recipientId}")
     @PreAuthorize("hasRole('PSYCHOLOGIST') or hasRole('ADMIN')")
-    @Operation(summary = "Get recipient notifications", description = "Retrieve all notifications for a specific recipient")
+    @Operation(summary = "Get recipient notifications", description = "Retrieve the newest notifications for a specific recipient, live and archived; page through older ones with /page")
     public ResponseEntity<List<NotificationDTO>> getRecipientNotifications(@PathVariable String recipientId) {
-        List<Notification> notifications = notificationRepository.findByRecipientId(recipientId);
+        List<Notification> notifications = notificationArchiveService.findByRecipientId(recipientId);
         List<NotificationDTO> dtos = notifications.stream()
             .map(this::convertToDTO)
             .collect(Collectors.toList());
@@ -190,6 +233,34 @@ public class NotificationController {
         return ResponseEntity.ok(dtos);
     }
 
+    /**
+     * Get a page of notifications for a specific recipient (keyset pagination)
+     */
+    @GetMapping("/recipient/{recipientId}/page")
+    @PreAuthorize("hasRole('PSYCHOLOGIST') or hasRole('ADMIN')")
+    @Operation(summary = "Page recipient notifications", description = "Page through notifications for a recipient, newest first, without message bodies")
+    public ResponseEntity<CursorPageDTO<NotificationDTO>> getRecipientNotificationsPage(
+            @PathVariable String recipientId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        CursorPageDTO<Notification> page = notificationQueryService.getByRecipient(recipientId, cursor, limit);
+        return ResponseEntity.ok(convertPage(page));
+    }
+
+    /**
+     * Convert a page of Notification entities to a page of NotificationDTOs
+     */
+    private CursorPageDTO<NotificationDTO> convertPage(CursorPageDTO<Notification> page) {
+        return CursorPageDTO.<NotificationDTO>builder()
+            .items(page.getItems().stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList()))
+            .nextCursor(page.getNextCursor())
+            .hasMore(page.isHasMore())
+            .limit(page.getLimit())
+            .build();
+    }
+
     /**
      * Convert Notification entity to NotificationDTO
      */
@@ -1,17 +1,24 @@
 package com.groundandgrow.controller;
 
 import com.groundandgrow.dto.*;
+import com.groundandgrow.service.AppointmentExportService;
 import com.groundandgrow.service.PsychologistService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -29,6 +36,10 @@ import java.util.List;
 public class PsychologistController {
 
     private final PsychologistService psychologistService;
+    private final AppointmentExportService appointmentExportService;
+
+    @Value("${app.export.timeout-ms:600000}")
+    private long exportTimeoutMs;
 
     /**
      * Get authenticated psychologist's profile
@@ -97,6 +108,90 @@ public class PsychologistController {
         return ResponseEntity.ok(appointments);
     }
 
+    /**
+     * Get a page of appointments ordered by appointment time, filtered in the database
+     *
+     * @param status Booking statuses to include (repeat or comma-separate for several)
+     * @param modality Filter by modality (online, in_person, phone)
+     * @param direction asc (default) or desc by appointment time
+     * @param includeNotes Whether to load notes, psychologist notes and cancellation reason
+     */
+    @GetMapping("/appointments/page")
+    @Operation(summary = "Page appointments", description = "Page through appointments by appointment time with optional filters")
+    public ResponseEntity<CursorPageDTO<AppointmentDTO>> getAppointmentsPage(
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+        @RequestParam(required = false) List<String> status,
+        @RequestParam(required = false) String modality,
+        @RequestParam(defaultValue = "asc") String direction,
+        @RequestParam(defaultValue = "false") boolean includeNotes,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(required = false) Integer limit,
+        Authentication authentication
+    ) {
+        String psychologistId = authentication.getName();
+
+        log.info("GET /api/psychologist/appointments/page - Psychologist: {}, Filters: startDate={}, endDate={}, status={}, modality={}",
+            psychologistId, startDate, endDate, status, modality);
+
+        AppointmentFilter filter = AppointmentFilter.builder()
+            .startDate(startDate)
+            .endDate(endDate)
+            .statuses(status)
+            .modality(modality)
+            .descending("desc".equalsIgnoreCase(direction))
+            .includeNotes(includeNotes)
+            .build();
+
+        return ResponseEntity.ok(psychologistService.getAppointmentsPage(psychologistId, filter, cursor, limit));
+    }
+
+    /**
+     * Export appointments as CSV or NDJSON, streamed in appointment order.
+     * Runs as an async task with its own timeout, as large exports can take minutes.
+     *
+     * @param format csv (default) or ndjson
+     */
+    @GetMapping("/appointments/export")
+    @Operation(summary = "Export appointments", description = "Stream appointments as CSV or NDJSON with optional filters")
+    public WebAsyncTask<Void> exportAppointments(
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+        @RequestParam(required = false) List<String> status,
+        @RequestParam(required = false) String modality,
+        @RequestParam(defaultValue = "csv") String format,
+        @RequestParam(defaultValue = "false") boolean includeNotes,
+        Authentication authentication,
+        HttpServletResponse response
+    ) {
+        String psychologistId = authentication.getName();
+
+        log.info("GET /api/psychologist/appointments/export - Psychologist: {}, Format: {}, Filters: startDate={}, endDate={}, status={}, modality={}",
+            psychologistId, format, startDate, endDate, status, modality);
+
+        AppointmentExportService.Format exportFormat = AppointmentExportService.Format.parse(format);
+
+        AppointmentFilter filter = AppointmentFilter.builder()
+            .startDate(startDate)
+            .endDate(endDate)
+            .statuses(status)
+            .modality(modality)
+            .includeNotes(includeNotes)
+            .build();
+
+        StreamingResponseBody body = appointmentExportService.export(psychologistId, filter, exportFormat);
+        String filename = "appointments-" + LocalDate.now() + "." + exportFormat.getExtension();
+
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString());
+        response.setContentType(exportFormat.getContentType() + ";charset=UTF-8");
+
+        return new WebAsyncTask<>(exportTimeoutMs, () -> {
+            body.writeTo(response.getOutputStream());
+            response.flushBuffer();
+            return null;
+        });
+    }
+
     /**
      * Get specific appointment details
      */
@@ -105,7 +105,7 @@ public class StripeWebhookController {
             log.info("Processing payment success for booking: {}", bookingId);
 
             // Update booking and send confirmations
-            guestBookingService.handlePaymentSuccess(session.getId());
+            guestBookingService.handlePaymentSuccess(session.getId(), bookingId);
 
         } catch (Exception e) {
             log.error("Error handling checkout.session.completed", e);
@@ -131,7 +131,8 @@ public class StripeWebhookController {
             log.info("Checkout session expired: {}", session.getId());
 
             // Mark booking as failed
-            guestBookingService.handlePaymentFailure(session.getId());
+            guestBookingService.handlePaymentFailure(session.getId(),
+                    session.getMetadata() != null ? session.getMetadata().get("booking_id") : null);
 
         } catch (Exception e) {
             log.error("Error handling checkout.session.expired", e);
@@ -0,0 +1,40 @@
+package com.groundandgrow.controller;
+
+import com.groundandgrow.dto.WaitingRoomTicketDTO;
+import com.groundandgrow.service.WaitingRoomService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Booking waiting room: join the queue and poll the queue position (no authentication required)
+ */
+@RestController
+@RequestMapping("/public/waiting-room")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class WaitingRoomController {
+
+    private final WaitingRoomService waitingRoomService;
+
+    /**
+     * Join the queue for creating a booking
+     */
+    @PostMapping("/tickets")
+    public ResponseEntity<WaitingRoomTicketDTO> enter() {
+        return ResponseEntity.status(HttpStatus.CREATED).body(waitingRoomService.enter());
+    }
+
+    /**
+     * Current queue position of a ticket
+     */
+    @GetMapping("/tickets/{ticket}")
+    public ResponseEntity<?> status(@PathVariable String ticket) {
+        WaitingRoomTicketDTO status = waitingRoomService.status(ticket);
+        if (status == null) {
+            return ResponseEntity.status(HttpStatus.GONE).body("Ticket is invalid or expired, join the queue again");
+        }
+        return ResponseEntity.ok(status);
+    }
+}
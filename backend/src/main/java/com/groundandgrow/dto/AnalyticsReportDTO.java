@@ -0,0 +1,40 @@
+package com.groundandgrow.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * DTO for a revenue and utilisation report over a range of months
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnalyticsReportDTO {
+
+    private LocalDate from;
+    private LocalDate to;
+    private Figures totals;
+    private List<Figures> months; // key: yyyy-MM
+    private List<Figures> psychologists; // key: psychologist ID
+    private List<Figures> sessionTypes; // key: session type ID (no availability figures)
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Figures {
+        private String key;
+        private String name;
+        private Double revenue; // AUD
+        private Long sessions;
+        private Long bookedMinutes;
+        private Long availableMinutes;
+        private Double utilisation; // bookedMinutes / availableMinutes, null when nothing was available
+    }
+}
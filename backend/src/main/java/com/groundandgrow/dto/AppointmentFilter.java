@@ -0,0 +1,25 @@
+package com.groundandgrow.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Filters for querying a psychologist's appointments; null fields are not applied
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AppointmentFilter {
+    private List<String> statuses; // Booking statuses, matched case-insensitively
+    private LocalDate startDate; // Inclusive
+    private LocalDate endDate; // Inclusive
+    private String modality; // online, in_person, phone
+    private boolean descending; // Sort by appointment time, newest first
+    private boolean includeNotes; // Include notes, psychologist notes and cancellation reason
+}
@@ -0,0 +1,30 @@
+package com.groundandgrow.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+
+/**
+ * DTO for broadcasting a notice to all clients of a psychologist, or of the whole clinic
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BroadcastNotificationRequest {
+
+    private String psychologistId; // Leave empty to broadcast to every client of the clinic
+
+    @NotBlank(message = "Subject is required")
+    private String subject;
+
+    @NotBlank(message = "Message is required")
+    private String message;
+
+    @Pattern(regexp = "EMAIL|SMS|BOTH", message = "Delivery method must be EMAIL, SMS or BOTH")
+    private String deliveryMethod; // Defaults to EMAIL
+}
@@ -0,0 +1,20 @@
+package com.groundandgrow.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Response DTO for an admin broadcast
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BroadcastNotificationResponse {
+
+    private String broadcastId;
+    private String psychologistId;
+    private long recipientCount;
+}
@@ -0,0 +1,24 @@
+package com.groundandgrow.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for a keyset-paginated result page.
+ * Pass nextCursor back as the cursor parameter to fetch the following page.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageDTO<T> {
+
+    private List<T> items;
+    private String nextCursor; // null when there are no more results
+    private boolean hasMore;
+    private Integer limit;
+}
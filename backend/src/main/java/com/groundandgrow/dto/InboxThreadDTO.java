@@ -0,0 +1,40 @@
+package com.groundandgrow.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * DTO for a conversation in a user's inbox
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InboxThreadDTO {
+
+    private String threadId;
+    private String appointmentId;
+    private List<Participant> participants;
+
+    private String lastMessageId;
+    private String lastMessageSenderId;
+    private String lastMessageSubject;
+    private String lastMessagePreview;
+    private LocalDateTime lastMessageAt;
+
+    private Integer unreadCount; // For the requesting user
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Participant {
+        private String userId;
+        private String userType;
+    }
+}
@@ -18,6 +18,8 @@ public class LoginResponse {
     private String firstName;
     private String lastName;
     private String role;
+    private String refreshToken;
+    private Long expiresIn; // Access token lifetime in seconds
 
     public LoginResponse(String token, String psychologistId, String email, String firstName, String lastName, String role) {
         this.token = token;
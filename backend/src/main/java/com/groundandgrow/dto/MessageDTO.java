@@ -29,6 +29,12 @@ public class MessageDTO {
     private LocalDateTime readAt;
     private LocalDateTime createdAt;
 
+    // Attachment (optional)
+    private String attachmentUrl;
+    private String attachmentType;
+    private String attachmentName;
+    private Long attachmentSize;
+
     // Additional fields for display
     private String senderName;
     private String receiverName;
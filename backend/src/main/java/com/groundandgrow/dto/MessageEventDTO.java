@@ -0,0 +1,27 @@
+package com.groundandgrow.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO pushed to connected clients when a message arrives or unread counts change
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MessageEventDTO {
+
+    private String type; // MESSAGE, UNREAD_COUNT, RESYNC
+    private String messageId;
+    private String threadId;
+    private String senderId;
+    private String senderType;
+    private String subject;
+    private LocalDateTime createdAt;
+    private Long unreadCount;
+}
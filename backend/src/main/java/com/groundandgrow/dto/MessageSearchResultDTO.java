@@ -0,0 +1,42 @@
+package com.groundandgrow.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * DTO for a message search hit with a highlighted snippet.
+ * Highlights are character offsets into subject and snippet respectively.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MessageSearchResultDTO {
+
+    private String id;
+    private String threadId;
+    private String appointmentId;
+    private String senderId;
+    private String receiverId;
+    private String senderType;
+    private String subject;
+    private List<Highlight> subjectHighlights;
+    private String snippet;
+    private List<Highlight> snippetHighlights;
+    private Boolean isRead;
+    private LocalDateTime createdAt;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Highlight {
+        private Integer start;
+        private Integer length;
+    }
+}
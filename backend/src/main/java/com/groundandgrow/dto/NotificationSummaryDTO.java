@@ -0,0 +1,23 @@
+package com.groundandgrow.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * DTO for notification queue depth, broken down by status, type and provider
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationSummaryDTO {
+
+    private Long total;
+    private Map<String, Long> byStatus;
+    private Map<String, Long> byType;
+    private Map<String, Long> byProvider;
+}
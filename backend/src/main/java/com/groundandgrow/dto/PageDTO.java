@@ -0,0 +1,23 @@
+package com.groundandgrow.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for an offset-paginated result page with the total number of matching items
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PageDTO<T> {
+
+    private List<T> items;
+    private Integer page;
+    private Integer size;
+    private long total;
+}
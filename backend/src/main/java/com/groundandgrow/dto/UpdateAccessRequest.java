@@ -0,0 +1,16 @@
+package com.groundandgrow.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UpdateAccessRequest {
+    private String role; // PSYCHOLOGIST, ADMIN; unchanged when null
+
+    private Boolean isActive; // unchanged when null
+}
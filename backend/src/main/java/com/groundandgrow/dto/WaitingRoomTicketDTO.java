@@ -0,0 +1,21 @@
+package com.groundandgrow.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A place in the booking waiting room
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WaitingRoomTicketDTO {
+
+    private String ticket; // Send back in the X-Queue-Ticket header
+    private long position; // Tickets ahead of this one; 0 once admitted
+    private boolean admitted;
+    private long estimatedWaitSeconds;
+}
@@ -0,0 +1,28 @@
+package com.groundandgrow.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Attachment bytes counted against one user's quota, including space reserved by uploads in progress
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "attachment_usage")
+public class AttachmentUsage {
+
+    @Id
+    private String id; // User ID
+
+    private Long usedBytes;
+
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,58 @@
+package com.groundandgrow.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Precomputed summary of a client as seen by one psychologist.
+ * Maintained incrementally from guest booking changes; keyed by psychologist and normalised email.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "client_directory")
+@CompoundIndexes({
+    @CompoundIndex(name = "psychologist_last_idx", def = "{'psychologistId': 1, 'lastAppointmentDate': -1, '_id': -1}"),
+    @CompoundIndex(name = "psychologist_next_idx", def = "{'psychologistId': 1, 'nextAppointmentDate': 1, '_id': 1}"),
+    @CompoundIndex(name = "psychologist_name_idx", def = "{'psychologistId': 1, 'lastName': 1, 'firstName': 1, '_id': 1}"),
+    @CompoundIndex(name = "psychologist_updated_idx", def = "{'psychologistId': 1, 'updatedAt': 1}")
+})
+public class ClientDirectoryEntry {
+
+    @Id
+    private String id; // "{psychologistId}:{email}"
+
+    private String psychologistId;
+
+    private String email; // Normalised (trimmed, lower case)
+
+    private String firstName;
+    private String lastName;
+    private String phone;
+
+    private Integer totalAppointments;
+    private Integer completedAppointments;
+    private Integer cancelledAppointments;
+
+    private LocalDateTime lastAppointmentDate; // Latest completed appointment
+    private LocalDateTime nextAppointmentDate; // Earliest upcoming confirmed appointment
+
+    private List<String> bookingIds;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    public static String idFor(String psychologistId, String email) {
+        return psychologistId + ":" + email;
+    }
+}
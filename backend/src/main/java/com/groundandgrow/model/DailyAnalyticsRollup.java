@@ -0,0 +1,63 @@
+package com.groundandgrow.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Revenue and utilisation figures of one psychologist for one calendar day (by appointment date).
+ * Booking figures are adjusted incrementally on booking changes; available minutes come from
+ * the psychologist's availability and are filled in by the nightly reconciliation.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "analytics_daily")
+@CompoundIndexes({
+    @CompoundIndex(name = "psychologist_date_idx", def = "{'psychologistId': 1, 'date': 1}")
+})
+public class DailyAnalyticsRollup {
+
+    @Id
+    private String id; // "{psychologistId}:{date}"
+
+    private String psychologistId;
+
+    @Indexed
+    private String date; // ISO date (yyyy-MM-dd), so ranges and months compare as strings
+
+    private Long revenueCents; // Paid, non-refunded bookings
+    private Long sessions; // Confirmed, completed and no-show bookings
+    private Long bookedMinutes;
+    private Long availableMinutes;
+
+    private Map<String, SessionTypeFigures> bySessionType; // Keyed by session type ID
+
+    private Long revision; // Bumped by every incremental change, so a recompute can tell the day changed under it
+
+    private LocalDateTime updatedAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class SessionTypeFigures {
+        private Long revenueCents;
+        private Long sessions;
+        private Long bookedMinutes;
+    }
+
+    public static String idFor(String psychologistId, LocalDate date) {
+        return psychologistId + ":" + date;
+    }
+}
@@ -0,0 +1,64 @@
+package com.groundandgrow.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.time.temporal.IsoFields;
+import java.util.Map;
+
+/**
+ * Booking counters of one psychologist for one period: all time, an ISO week or a calendar month.
+ * Bookings are bucketed by creation date; counters are adjusted with $inc on every booking change.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "dashboard_rollups")
+public class DashboardRollup {
+
+    public static final String ALL_TIME = "all";
+    public static final String TOTAL = "total";
+
+    @Id
+    private String id; // "{psychologistId}:{period}"
+
+    @Indexed
+    private String psychologistId;
+
+    private String period; // "all", "2026-W42" or "2026-10"
+
+    private Map<String, Long> counts; // "total" plus one counter per lower-case booking status
+
+    private LocalDateTime updatedAt;
+
+    public long count(String key) {
+        Long value = counts != null ? counts.get(key) : null;
+        return value != null ? value : 0L;
+    }
+
+    public static String idFor(String psychologistId, String period) {
+        return psychologistId + ":" + period;
+    }
+
+    /**
+     * ISO week period, matching MongoDB's "%G-W%V" date format
+     */
+    public static String weekOf(LocalDateTime dateTime) {
+        return String.format("%d-W%02d", dateTime.get(IsoFields.WEEK_BASED_YEAR),
+            dateTime.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR));
+    }
+
+    /**
+     * Calendar month period, matching MongoDB's "%Y-%m" date format
+     */
+    public static String monthOf(LocalDateTime dateTime) {
+        return String.format("%d-%02d", dateTime.getYear(), dateTime.getMonthValue());
+    }
+}
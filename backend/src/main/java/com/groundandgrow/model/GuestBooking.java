@@ -8,6 +8,8 @@ import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.index.Indexed;
 
 import java.time.LocalDateTime;
@@ -20,6 +22,13 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "guest_bookings")
+@CompoundIndexes({
+    @CompoundIndex(name = "psychologist_email_idx", def = "{'psychologistId': 1, 'email': 1}"), // Client lookups and broadcasts
+    @CompoundIndex(name = "psychologist_appointment_idx", def = "{'psychologistId': 1, 'appointmentDateTime': 1, '_id': 1}"), // Schedules and appointment pages
+    @CompoundIndex(name = "psychologist_status_appointment_idx", def = "{'psychologistId': 1, 'bookingStatus': 1, 'appointmentDateTime': 1, '_id': 1}"), // Status-filtered appointment pages
+    @CompoundIndex(name = "payment_status_refund_attempt_idx", def = "{'paymentStatus': 1, 'nextRefundAttemptAt': 1}"), // Pending refund retries
+    @CompoundIndex(name = "status_checkout_created_idx", def = "{'bookingStatus': 1, 'stripeCheckoutSessionId': 1, 'createdAt': 1}") // Checkout recovery
+})
 public class GuestBooking {
 
     @Id
@@ -46,7 +55,9 @@ public class GuestBooking {
     private String stripePaymentIntentId;
     private String stripeCheckoutSessionId;
     private Double amount;
-    private String paymentStatus; // pending, completed, failed, refunded
+    private String paymentStatus; // pending, completed, failed, refund_pending, refund_failed, refunded
+    private Integer refundAttempts; // Refund calls made for a cancelled booking
+    private LocalDateTime nextRefundAttemptAt; // When a pending refund may be tried again; pushed back while an attempt is in flight
 
     // Booking Status
     private String bookingStatus; // pending_payment, confirmed, cancelled, completed, no_show
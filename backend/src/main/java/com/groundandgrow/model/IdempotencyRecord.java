@@ -0,0 +1,43 @@
+package com.groundandgrow.model;
+
+import com.groundandgrow.dto.CheckoutSessionResponse;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Outcome of a request made with an Idempotency-Key, replayed when the same key is sent again
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "idempotency_keys")
+public class IdempotencyRecord {
+
+    public static final String IN_PROGRESS = "IN_PROGRESS";
+    public static final String COMPLETED = "COMPLETED";
+
+    @Id
+    private String id; // scope:key
+
+    private String requestHash; // Fingerprint of the request the key was first used with
+    private String status; // IN_PROGRESS, COMPLETED
+
+    private CheckoutSessionResponse response;
+
+    private String leaseId; // Identifies the request currently processing an IN_PROGRESS key
+    private LocalDateTime leaseExpiresAt; // After this an IN_PROGRESS key is presumed abandoned and can be taken over
+    private String resourceId; // What an unfinished request created (e.g. a booking), resumed by the request taking the key over
+
+    private LocalDateTime createdAt;
+
+    @Indexed(expireAfterSeconds = 0)
+    private LocalDateTime expiresAt;
+}
@@ -7,6 +7,8 @@ import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.index.Indexed;
 
 import java.time.LocalDateTime;
@@ -19,6 +21,17 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "messages")
+@CompoundIndexes({
+    // Keyset pagination over live (not soft-deleted) messages
+    @CompoundIndex(name = "thread_page_idx", def = "{'threadId': 1, 'createdAt': -1, '_id': -1}",
+        partialFilter = "{'deleted': false}"),
+    @CompoundIndex(name = "sender_page_idx", def = "{'senderId': 1, 'createdAt': -1, '_id': -1}",
+        partialFilter = "{'deleted': false}"),
+    @CompoundIndex(name = "receiver_page_idx", def = "{'receiverId': 1, 'createdAt': -1, '_id': -1}",
+        partialFilter = "{'deleted': false}"),
+    @CompoundIndex(name = "appointment_page_idx", def = "{'appointmentId': 1, 'createdAt': -1, '_id': -1}",
+        partialFilter = "{'deleted': false}")
+})
 public class Message {
 
     @Id
@@ -34,21 +47,25 @@ public class Message {
     private String senderType; // CLIENT, PSYCHOLOGIST, SYSTEM
     private String receiverType; // CLIENT, PSYCHOLOGIST
 
-    // Message Content
+    // Message Content (searchable through MessageSearchEntry)
     private String subject;
+
     private String content;
 
     // Related Appointment (optional)
     @Indexed
     private String appointmentId;
 
-    // Status
+    // Status (derived from the thread's read watermark, see MessageThread)
     private Boolean isRead;
     private LocalDateTime readAt;
 
-    // Attachments (optional, for future)
+    // Attachment (optional, stored in GridFS)
+    private String attachmentId; // GridFS file ID
     private String attachmentUrl;
     private String attachmentType;
+    private String attachmentName;
+    private Long attachmentSize;
 
     // Thread/Conversation grouping
     @Indexed
@@ -0,0 +1,42 @@
+package com.groundandgrow.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Searchable copy of a message for one of its participants.
+ * A text index can only be prefixed by scalar fields, so each message is stored once per participant
+ * and searches use the {ownerId, text} index (created by MessageSearchService) with an equality on ownerId.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "message_search")
+public class MessageSearchEntry {
+
+    @Id
+    private String id; // "{messageId}:{ownerId}"
+
+    @Indexed
+    private String messageId;
+
+    private String ownerId; // Sender or receiver
+
+    private String subject;
+
+    private String content;
+
+    private LocalDateTime createdAt;
+
+    public static String idFor(String messageId, String ownerId) {
+        return messageId + ":" + ownerId;
+    }
+}
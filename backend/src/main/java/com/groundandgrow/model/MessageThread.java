@@ -0,0 +1,76 @@
+package com.groundandgrow.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Summary of a conversation thread, holding per-participant read state and a preview of the latest message.
+ * A message is read by a participant once its createdAt is at or before that participant's lastReadAt.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "message_threads")
+@CompoundIndex(name = "inbox_idx", def = "{'participants.userId': 1, 'lastMessageAt': -1, '_id': -1}")
+public class MessageThread {
+
+    @Id
+    private String id; // Same value as Message.threadId
+
+    @Indexed
+    private String appointmentId;
+
+    private List<Participant> participants;
+
+    private LocalDateTime lastMessageAt;
+
+    private LastMessage lastMessage;
+
+    private LocalDateTime createdAt;
+
+    /**
+     * Find the participant entry for a user, or null if the user is not part of the thread
+     */
+    public Participant getParticipant(String userId) {
+        if (participants == null) {
+            return null;
+        }
+        return participants.stream()
+            .filter(participant -> participant.getUserId().equals(userId))
+            .findFirst()
+            .orElse(null);
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Participant {
+        private String userId;
+        private String userType; // CLIENT, PSYCHOLOGIST
+        private Integer unreadCount;
+        private LocalDateTime lastReadAt; // Read watermark
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class LastMessage {
+        private String messageId;
+        private String senderId;
+        private String subject;
+        private String preview; // Truncated content
+        private LocalDateTime createdAt;
+    }
+}
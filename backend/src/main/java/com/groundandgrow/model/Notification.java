@@ -7,6 +7,8 @@ import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.index.Indexed;
 
 import java.time.LocalDateTime;
@@ -19,6 +21,12 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "notifications")
+@CompoundIndexes({
+    @CompoundIndex(name = "status_created_idx", def = "{'status': 1, 'createdAt': 1}"), // Archiver scans
+    @CompoundIndex(name = "status_id_idx", def = "{'status': 1, '_id': -1}"), // Admin queue pages
+    @CompoundIndex(name = "status_scheduled_idx", def = "{'status': 1, 'scheduledFor': 1}"), // Scheduler batches
+    @CompoundIndex(name = "recipient_id_idx", def = "{'recipientId': 1, '_id': -1}") // Recipient history pages
+})
 public class Notification {
 
     @Id
@@ -70,6 +78,8 @@ public class Notification {
     @Indexed
     private String appointmentId;
 
+    private String broadcastId; // Set when created by an admin broadcast
+
     @CreatedDate
     private LocalDateTime createdAt;
 }
@@ -0,0 +1,114 @@
+package com.groundandgrow.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
+
+import java.time.LocalDateTime;
+
+/**
+ * Compact audit record of a settled (SENT or CANCELLED) notification.
+ * Message bodies and template data are dropped when a notification is archived.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "notifications_archive")
+@CompoundIndexes({
+    @CompoundIndex(name = "status_id_idx", def = "{'status': 1, '_id': -1}"), // Admin queue pages
+    @CompoundIndex(name = "recipient_id_idx", def = "{'recipientId': 1, '_id': -1}") // Recipient history pages
+})
+public class NotificationArchive {
+
+    @Id
+    private String id; // Same ID as the original notification
+
+    // Recipient Information
+    @Indexed
+    private String recipientId;
+
+    private String recipientType;
+    private String recipientEmail;
+    private String recipientPhone;
+
+    @Indexed
+    private String guestBookingId;
+
+    private String appointmentId;
+
+    // Notification Details
+    private String notificationType;
+    private String deliveryMethod;
+
+    // Delivery audit
+    private LocalDateTime scheduledFor;
+    private LocalDateTime sentAt;
+    private String status; // SENT, CANCELLED
+    private String errorMessage;
+    private Integer retryCount;
+    private String externalId;
+    private String externalProvider;
+
+    private LocalDateTime createdAt;
+
+    @Indexed
+    private LocalDateTime archivedAt;
+
+    /**
+     * Build an archive record from a live notification, keeping only audit fields
+     */
+    public static NotificationArchive from(Notification notification, LocalDateTime archivedAt) {
+        return NotificationArchive.builder()
+            .id(notification.getId())
+            .recipientId(notification.getRecipientId())
+            .recipientType(notification.getRecipientType())
+            .recipientEmail(notification.getRecipientEmail())
+            .recipientPhone(notification.getRecipientPhone())
+            .guestBookingId(notification.getGuestBookingId())
+            .appointmentId(notification.getAppointmentId())
+            .notificationType(notification.getNotificationType())
+            .deliveryMethod(notification.getDeliveryMethod())
+            .scheduledFor(notification.getScheduledFor())
+            .sentAt(notification.getSentAt())
+            .status(notification.getStatus())
+            .errorMessage(notification.getErrorMessage())
+            .retryCount(notification.getRetryCount())
+            .externalId(notification.getExternalId())
+            .externalProvider(notification.getExternalProvider())
+            .createdAt(notification.getCreatedAt())
+            .archivedAt(archivedAt)
+            .build();
+    }
+
+    /**
+     * Rehydrate this record as a notification (message body is not retained)
+     */
+    public Notification toNotification() {
+        return Notification.builder()
+            .id(id)
+            .recipientId(recipientId)
+            .recipientType(recipientType)
+            .recipientEmail(recipientEmail)
+            .recipientPhone(recipientPhone)
+            .guestBookingId(guestBookingId)
+            .appointmentId(appointmentId)
+            .notificationType(notificationType)
+            .deliveryMethod(deliveryMethod)
+            .scheduledFor(scheduledFor)
+            .sentAt(sentAt)
+            .status(status)
+            .errorMessage(errorMessage)
+            .retryCount(retryCount)
+            .externalId(externalId)
+            .externalProvider(externalProvider)
+            .createdAt(createdAt)
+            .build();
+    }
+}
@@ -0,0 +1,43 @@
+package com.groundandgrow.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * A single-use refresh token. Only a SHA-256 hash of the token is stored.
+ * Every refresh consumes the token and issues a new one in the same session, so presenting
+ * a consumed token again means it was copied and the whole session is revoked.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "refresh_tokens")
+public class RefreshToken {
+
+    @Id
+    private String id;
+
+    @Indexed(unique = true)
+    private String tokenHash;
+
+    @Indexed
+    private String sessionId;
+
+    private String psychologistId;
+    private String email;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime usedAt;
+    private LocalDateTime revokedAt;
+
+    @Indexed(expireAfterSeconds = 0)
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,34 @@
+package com.groundandgrow.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * A revoked login session. Access tokens carrying this session ID are rejected until
+ * the last of them has expired, after which MongoDB removes the record.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "revoked_tokens")
+public class RevokedToken {
+
+    @Id
+    private String id; // Session ID (the "sid" claim)
+
+    private String reason; // LOGOUT, REFRESH_REUSE, ACCOUNT_DISABLED
+
+    @Indexed
+    private LocalDateTime revokedAt;
+
+    @Indexed(expireAfterSeconds = 0)
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,28 @@
+package com.groundandgrow.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Atomically maintained count of unread messages across all threads for one user
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "message_unread_counters")
+public class UnreadMessageCounter {
+
+    @Id
+    private String id; // User ID
+
+    private Long unreadCount;
+
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,34 @@
+package com.groundandgrow.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * A waiting room ticket the admission frontier has reached, claimable for one booking within the claim window
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "waiting_room_admissions")
+@CompoundIndex(name = "open_admitted_idx", def = "{'claimed': 1, 'lapsed': 1, 'admittedAtMs': 1}") // Lapsed admission sweep
+public class WaitingRoomAdmission {
+
+    @Id
+    private Long sequence;
+
+    private long admittedAtMs;
+    private boolean claimed; // Used for a booking
+    private boolean lapsed; // Not used within the claim window; its place went to the next ticket
+
+    @Indexed(expireAfterSeconds = 0)
+    private LocalDateTime expiresAt;
+}
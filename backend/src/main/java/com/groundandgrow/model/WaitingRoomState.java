@@ -0,0 +1,27 @@
+package com.groundandgrow.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Booking waiting room queue shared by all nodes: tickets issued and how far admission has got
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "waiting_room")
+public class WaitingRoomState {
+
+    @Id
+    private String id;
+
+    private long issued; // Last sequence number handed out
+    private double admittedUpTo; // Admission frontier; tickets up to its floor are admitted
+    private long lastAdvanceMs; // When the frontier was last moved forward
+    private long reachedUpTo; // Highest issued sequence the frontier has reached
+}
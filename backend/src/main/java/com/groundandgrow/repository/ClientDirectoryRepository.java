@@ -0,0 +1,17 @@
+package com.groundandgrow.repository;
+
+import com.groundandgrow.model.ClientDirectoryEntry;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository for the per-psychologist client directory
+ */
+@Repository
+public interface ClientDirectoryRepository extends MongoRepository<ClientDirectoryEntry, String> {
+
+    /**
+     * Count the clients of a psychologist
+     */
+    long countByPsychologistId(String psychologistId);
+}
@@ -0,0 +1,12 @@
+package com.groundandgrow.repository;
+
+import com.groundandgrow.model.DailyAnalyticsRollup;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository for daily revenue and utilisation rollups
+ */
+@Repository
+public interface DailyAnalyticsRollupRepository extends MongoRepository<DailyAnalyticsRollup, String> {
+}
@@ -0,0 +1,12 @@
+package com.groundandgrow.repository;
+
+import com.groundandgrow.model.DashboardRollup;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository for per-psychologist dashboard counters
+ */
+@Repository
+public interface DashboardRollupRepository extends MongoRepository<DashboardRollup, String> {
+}
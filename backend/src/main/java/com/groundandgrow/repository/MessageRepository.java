@@ -4,6 +4,7 @@ import com.groundandgrow.model.Message;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -27,6 +28,11 @@ public interface MessageRepository extends MongoRepository<Message, String> {
      */
     List<Message> findByAppointmentIdOrderByCreatedAtAsc(String appointmentId);
 
+    /**
+     * Find all messages for any of several appointments
+     */
+    List<Message> findByAppointmentIdInOrderByCreatedAtAsc(Collection<String> appointmentIds);
+
     /**
      * Find all messages where user is sender or receiver
      */
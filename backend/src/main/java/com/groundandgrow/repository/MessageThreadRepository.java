@@ -0,0 +1,12 @@
+package com.groundandgrow.repository;
+
+import com.groundandgrow.model.MessageThread;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository for MessageThread summaries
+ */
+@Repository
+public interface MessageThreadRepository extends MongoRepository<MessageThread, String> {
+}
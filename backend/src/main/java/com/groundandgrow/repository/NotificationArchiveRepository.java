@@ -0,0 +1,25 @@
+package com.groundandgrow.repository;
+
+import com.groundandgrow.model.NotificationArchive;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository for archived notifications
+ */
+@Repository
+public interface NotificationArchiveRepository extends MongoRepository<NotificationArchive, String> {
+
+    /**
+     * Find a page of archived notifications for a specific guest booking
+     */
+    List<NotificationArchive> findByGuestBookingId(String guestBookingId, Pageable pageable);
+
+    /**
+     * Find a page of archived notifications by recipient ID
+     */
+    List<NotificationArchive> findByRecipientId(String recipientId, Pageable pageable);
+}
@@ -1,10 +1,12 @@
 package com.groundandgrow.repository;
 
 import com.groundandgrow.model.Notification;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -19,9 +21,14 @@ public interface NotificationRepository extends MongoRepository<Notification, St
     List<Notification> findByStatusAndScheduledForBefore(String status, LocalDateTime time);
 
     /**
-     * Find all notifications for a specific guest booking
+     * Find a batch of notifications that are pending and scheduled before a given time
      */
-    List<Notification> findByGuestBookingId(String guestBookingId);
+    List<Notification> findByStatusAndScheduledForBefore(String status, LocalDateTime time, Pageable pageable);
+
+    /**
+     * Find a page of notifications for a specific guest booking
+     */
+    List<Notification> findByGuestBookingId(String guestBookingId, Pageable pageable);
 
     /**
      * Find notifications by recipient ID and status
@@ -34,12 +41,12 @@ public interface NotificationRepository extends MongoRepository<Notification, St
     List<Notification> findByRecipientIdOrderByCreatedAtDesc(String recipientId);
 
     /**
-     * Find all notifications by status
+     * Find a page of notifications by recipient ID
      */
-    List<Notification> findByStatus(String status);
+    List<Notification> findByRecipientId(String recipientId, Pageable pageable);
 
     /**
-     * Find all notifications by recipient ID
+     * Find a batch of notifications in the given statuses created before a cutoff (used by the archiver)
      */
-    List<Notification> findByRecipientId(String recipientId);
+    List<Notification> findByStatusInAndCreatedAtBefore(Collection<String> statuses, LocalDateTime cutoff, Pageable pageable);
 }
@@ -0,0 +1,16 @@
+package com.groundandgrow.repository;
+
+import com.groundandgrow.model.RefreshToken;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * Repository for hashed refresh tokens
+ */
+@Repository
+public interface RefreshTokenRepository extends MongoRepository<RefreshToken, String> {
+
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
+}
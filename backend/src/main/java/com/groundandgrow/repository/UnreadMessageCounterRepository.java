@@ -0,0 +1,12 @@
+package com.groundandgrow.repository;
+
+import com.groundandgrow.model.UnreadMessageCounter;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository for per-user unread message counters
+ */
+@Repository
+public interface UnreadMessageCounterRepository extends MongoRepository<UnreadMessageCounter, String> {
+}
@@ -12,20 +12,45 @@ import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
 import java.util.Date;
 
+/**
+ * Issues and verifies JWTs. The signing key and parser are built once and shared by all requests.
+ */
 @Slf4j
 @Component
 public class JwtTokenProvider {
 
+    public static final String CLAIM_PSYCHOLOGIST_ID = "pid";
+    public static final String CLAIM_ROLE = "role";
+    public static final String CLAIM_SESSION_ID = "sid";
+
     @Value("${jwt.secret}")
     private String jwtSecret;
 
-    @Value("${jwt.expiration:86400000}") // Default 24 hours in milliseconds
+    @Value("${jwt.expiration:900000}") // Default 15 minutes in milliseconds
     private long jwtExpiration;
 
+    private volatile SecretKey signingKey;
+    private volatile JwtParser parser;
+
     private SecretKey getSigningKey() {
-        // Ensure the key is at least 256 bits for HS256
-        byte[] keyBytes = jwtSecret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+        SecretKey key = signingKey;
+        if (key == null) {
+            // Ensure the key is at least 256 bits for HS256
+            key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+            signingKey = key;
+        }
+        return key;
+    }
+
+    private JwtParser getParser() {
+        JwtParser current = parser;
+        if (current == null) {
+            current = Jwts.parser()
+                    .verifyWith(getSigningKey())
+                    .build();
+            parser = current;
+        }
+        return current;
     }
 
     /**
@@ -33,47 +58,62 @@ public class JwtTokenProvider {
      */
     public String generateToken(Authentication authentication) {
         UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
-        return generateTokenFromEmail(userPrincipal.getEmail());
+        return generateTokenFromEmail(userPrincipal.getEmail(), userPrincipal.getId(), userPrincipal.getRole());
     }
 
     /**
      * Generate JWT token from email
      */
     public String generateTokenFromEmail(String email) {
+        return generateTokenFromEmail(email, null, null);
+    }
+
+    /**
+     * Generate JWT token from email, carrying the psychologist ID and role so requests need no user lookup
+     */
+    public String generateTokenFromEmail(String email, String psychologistId, String role) {
+        return generateTokenFromEmail(email, psychologistId, role, null);
+    }
+
+    /**
+     * Generate an access token for a login session; revoking the session rejects the token
+     */
+    public String generateTokenFromEmail(String email, String psychologistId, String role, String sessionId) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + jwtExpiration);
 
-        return Jwts.builder()
+        JwtBuilder builder = Jwts.builder()
                 .subject(email)
                 .issuedAt(now)
-                .expiration(expiryDate)
+                .expiration(expiryDate);
+        if (psychologistId != null) {
+            builder.claim(CLAIM_PSYCHOLOGIST_ID, psychologistId);
+        }
+        if (role != null) {
+            builder.claim(CLAIM_ROLE, role);
+        }
+        if (sessionId != null) {
+            builder.claim(CLAIM_SESSION_ID, sessionId);
+        }
+
+        return builder
                 .signWith(getSigningKey())
                 .compact();
     }
 
     /**
-     * Get email from JWT token
+     * Lifetime of access tokens in milliseconds
      */
-    public String getEmailFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-
-        return claims.getSubject();
+    public long getExpirationMs() {
+        return jwtExpiration;
     }
 
     /**
-     * Validate JWT token
+     * Verify a token and return its claims, or null if it is invalid or expired
      */
-    public boolean validateToken(String token) {
+    public Claims parseClaims(String token) {
         try {
-            Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token);
-            return true;
+            return verify(token);
         } catch (SignatureException ex) {
             log.error("Invalid JWT signature: {}", ex.getMessage());
         } catch (MalformedJwtException ex) {
@@ -84,7 +124,33 @@ public class JwtTokenProvider {
             log.error("Unsupported JWT token: {}", ex.getMessage());
         } catch (IllegalArgumentException ex) {
             log.error("JWT claims string is empty: {}", ex.getMessage());
+        } catch (JwtException ex) {
+            log.error("Invalid JWT token: {}", ex.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Get email from JWT token
+     */
+    public String getEmailFromToken(String token) {
+        return verify(token).getSubject();
+    }
+
+    /**
+     * Validate JWT token
+     */
+    public boolean validateToken(String token) {
+        return parseClaims(token) != null;
+    }
+
+    /**
+     * Verified claims of a token. Not cached: the HMAC check is about as cheap as any cache key would be.
+     */
+    private Claims verify(String token) {
+        if (token == null || token.isEmpty()) {
+            throw new IllegalArgumentException("JWT string is empty");
         }
-        return false;
+        return getParser().parseSignedClaims(token).getPayload();
     }
 }
@@ -0,0 +1,88 @@
+package com.groundandgrow.security;
+
+import com.groundandgrow.util.StripedRateLimiter;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+
+/**
+ * Per-IP and per-account token buckets for login attempts.
+ * The IP limit slows a single source spraying many accounts and is charged for every attempt;
+ * the account limit slows many sources guessing one account's password and is only charged for
+ * failed attempts, so signing in successfully never uses it up. Both are checked before any
+ * password is hashed.
+ */
+@Slf4j
+@Component
+public class LoginThrottle {
+
+    @Value("${app.security.login.limiter-stripes:65536}")
+    private int stripes;
+
+    @Value("${app.security.login.ip-burst:20}")
+    private int ipBurst;
+
+    @Value("${app.security.login.ip-refill-ms:3000}")
+    private long ipRefillMs;
+
+    @Value("${app.security.login.account-burst:5}")
+    private int accountBurst;
+
+    @Value("${app.security.login.account-refill-ms:60000}")
+    private long accountRefillMs;
+
+    private StripedRateLimiter ipLimiter;
+    private StripedRateLimiter accountLimiter;
+
+    /**
+     * Thrown when a login attempt exceeds a limit
+     */
+    public static class LoginThrottledException extends RuntimeException {
+        private final long retryAfterSeconds;
+
+        public LoginThrottledException(long retryAfterSeconds) {
+            super("Too many sign-in attempts, try again in " + retryAfterSeconds + " seconds");
+            this.retryAfterSeconds = retryAfterSeconds;
+        }
+
+        public long getRetryAfterSeconds() {
+            return retryAfterSeconds;
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        ipLimiter = new StripedRateLimiter(stripes, ipBurst, ipRefillMs);
+        accountLimiter = new StripedRateLimiter(stripes, accountBurst, accountRefillMs);
+    }
+
+    /**
+     * Take an IP permit for a login attempt, or throw if the IP or the account is over its limit
+     */
+    public void check(String clientIp, String email) {
+        long waitMs = ipLimiter.tryAcquire(clientIp != null ? clientIp : "unknown");
+        if (waitMs == 0 && email != null) {
+            waitMs = accountLimiter.waitTime(accountKey(email));
+        }
+        if (waitMs > 0) {
+            log.warn("Login throttled for {} / {}", clientIp, email);
+            throw new LoginThrottledException(Math.max(1, (waitMs + 999) / 1000));
+        }
+    }
+
+    /**
+     * Charge the account for a failed attempt (wrong password or unknown account)
+     */
+    public void recordFailure(String email) {
+        if (email != null) {
+            accountLimiter.tryAcquire(accountKey(email));
+        }
+    }
+
+    private String accountKey(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,132 @@
+package com.groundandgrow.security;
+
+import com.groundandgrow.model.Psychologist;
+import com.groundandgrow.repository.PsychologistRepository;
+import io.jsonwebtoken.Claims;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Builds the authenticated principal from verified token claims.
+ * Whether the account is still active (and still has the role in the token) is checked against a
+ * short-lived per-email cache, so a request normally makes no database call; the cache entry is
+ * dropped as soon as an account is deactivated or its role changes.
+ * The cache is read on every authenticated request, so lookups take no lock: entries carry their own
+ * expiry, and beyond the size limit expired entries, then arbitrary ones, are evicted.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PrincipalCache {
+
+    private final PsychologistRepository psychologistRepository;
+
+    @Value("${app.security.principal-cache-ttl-ms:60000}")
+    private long ttlMs;
+
+    @Value("${app.security.principal-cache-size:10000}")
+    private int maxSize;
+
+    private final Map<String, AccessState> accessStates = new ConcurrentHashMap<>();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+
+    /**
+     * The principal for verified claims, or null if the account is unknown, inactive or its role changed
+     */
+    public UserPrincipal resolve(Claims claims) {
+        String email = claims.getSubject();
+        if (email == null) {
+            return null;
+        }
+
+        long now = System.currentTimeMillis();
+        AccessState state = accessStates.get(email);
+        if (state == null || state.expiresAt <= now) {
+            state = load(email, now + ttlMs);
+            accessStates.put(email, state);
+            if (accessStates.size() > maxSize) {
+                evict(now);
+            }
+        }
+
+        if (!state.active) {
+            log.debug("Rejected token for inactive or unknown account: {}", email);
+            return null;
+        }
+
+        String tokenRole = claims.get(JwtTokenProvider.CLAIM_ROLE, String.class);
+        if (tokenRole != null && !tokenRole.equals(state.role)) {
+            log.debug("Rejected token issued for role {} of {} (now {})", tokenRole, email, state.role);
+            return null;
+        }
+
+        String id = claims.get(JwtTokenProvider.CLAIM_PSYCHOLOGIST_ID, String.class);
+        return new UserPrincipal(
+                id != null ? id : state.id,
+                email,
+                null,
+                Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + state.role))
+        );
+    }
+
+    /**
+     * Forget the cached state of an account (after deactivation or a role change)
+     */
+    public void invalidate(String email) {
+        accessStates.remove(email);
+    }
+
+    /**
+     * Bring the cache back under its size limit; one thread at a time, others carry on meanwhile
+     */
+    private void evict(long now) {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            accessStates.values().removeIf(state -> state.expiresAt <= now);
+            Iterator<String> emails = accessStates.keySet().iterator();
+            while (accessStates.size() > maxSize && emails.hasNext()) {
+                emails.next();
+                emails.remove();
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    private AccessState load(String email, long expiresAt) {
+        return psychologistRepository.findByEmail(email)
+                .map(psychologist -> new AccessState(psychologist.getId(), roleOf(psychologist),
+                        Boolean.TRUE.equals(psychologist.getIsActive()), expiresAt))
+                .orElse(new AccessState(null, null, false, expiresAt));
+    }
+
+    private String roleOf(Psychologist psychologist) {
+        return psychologist.getRole() != null ? psychologist.getRole().name() : null;
+    }
+
+    private static final class AccessState {
+
+        private final String id;
+        private final String role;
+        private final boolean active;
+        private final long expiresAt;
+
+        private AccessState(String id, String role, boolean active, long expiresAt) {
+            this.id = id;
+            this.role = role;
+            this.active = active;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.groundandgrow.security;
+
+import com.groundandgrow.util.StripedRateLimiter;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Per-IP rate limits on the unauthenticated /public/** routes, with a separate budget per route class
+ * so browsing session types cannot use up the allowance for booking. Buckets live in fixed-size
+ * striped arrays, so memory does not grow with the number of distinct clients.
+ * Rejected requests get 429 with a Retry-After header before reaching any controller.
+ */
+@Slf4j
+@Component
+public class PublicRateLimitFilter extends OncePerRequestFilter {
+
+    private static final String PUBLIC_PREFIX = "/public/";
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    @Value("${app.security.public-rate-limit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.security.public-rate-limit.stripes:65536}")
+    private int stripes;
+
+    @Value("${app.security.public-rate-limit.booking-burst:5}")
+    private int bookingBurst;
+
+    @Value("${app.security.public-rate-limit.booking-refill-ms:12000}")
+    private long bookingRefillMs;
+
+    @Value("${app.security.public-rate-limit.lookup-burst:10}")
+    private int lookupBurst;
+
+    @Value("${app.security.public-rate-limit.lookup-refill-ms:6000}")
+    private long lookupRefillMs;
+
+    @Value("${app.security.public-rate-limit.availability-burst:30}")
+    private int availabilityBurst;
+
+    @Value("${app.security.public-rate-limit.availability-refill-ms:1000}")
+    private long availabilityRefillMs;
+
+    @Value("${app.security.public-rate-limit.default-burst:60}")
+    private int defaultBurst;
+
+    @Value("${app.security.public-rate-limit.default-refill-ms:500}")
+    private long defaultRefillMs;
+
+    private final Map<RouteClass, StripedRateLimiter> limiters = new EnumMap<>(RouteClass.class);
+
+    /**
+     * Groups of public routes sharing a budget, from most to least expensive
+     */
+    enum RouteClass {
+        BOOKING,      // Creating, cancelling or rescheduling a booking, or joining the waiting room for one
+        LOOKUP,       // Booking lookups by token or email
+        AVAILABILITY, // Slot computation
+        DEFAULT       // Profiles and session types
+    }
+
+    @PostConstruct
+    public void init() {
+        limiters.put(RouteClass.BOOKING, new StripedRateLimiter(stripes, bookingBurst, bookingRefillMs));
+        limiters.put(RouteClass.LOOKUP, new StripedRateLimiter(stripes, lookupBurst, lookupRefillMs));
+        limiters.put(RouteClass.AVAILABILITY, new StripedRateLimiter(stripes, availabilityBurst, availabilityRefillMs));
+        limiters.put(RouteClass.DEFAULT, new StripedRateLimiter(stripes, defaultBurst, defaultRefillMs));
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled
+                || "OPTIONS".equals(request.getMethod())
+                || !path(request).startsWith(PUBLIC_PREFIX);
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain
+    ) throws ServletException, IOException {
+        RouteClass routeClass = classify(request.getMethod(), path(request));
+        long waitMs = limiters.get(routeClass).tryAcquire(request.getRemoteAddr());
+
+        if (waitMs > 0) {
+            long retryAfterSeconds = Math.max(1, (waitMs + 999) / 1000);
+            log.debug("Rate limited {} on {} {} ({})", request.getRemoteAddr(), request.getMethod(),
+                    path(request), routeClass);
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+            response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+            response.getWriter().write("Too many requests, try again in " + retryAfterSeconds + " seconds");
+            return;
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    RouteClass classify(String method, String path) {
+        if (pathMatcher.match("/public/bookings/by-email/**", path)
+                || ("GET".equals(method) && pathMatcher.match("/public/bookings/*", path))) {
+            return RouteClass.LOOKUP;
+        }
+        if (pathMatcher.match("/public/bookings/**", path) || pathMatcher.match("/public/bookings", path)
+                || ("POST".equals(method) && pathMatcher.match("/public/waiting-room/tickets", path))) {
+            return RouteClass.BOOKING;
+        }
+        if (pathMatcher.match("/public/psychologists/*/availability/**", path)
+                || pathMatcher.match("/public/psychologists/*/availability", path)) {
+            return RouteClass.AVAILABILITY;
+        }
+        return RouteClass.DEFAULT;
+    }
+
+    /**
+     * Request path without the servlet context path
+     */
+    private String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+}
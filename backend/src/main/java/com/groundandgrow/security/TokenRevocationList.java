@@ -0,0 +1,127 @@
+package com.groundandgrow.security;
+
+import com.groundandgrow.model.RevokedToken;
+import com.groundandgrow.util.BloomFilter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory list of revoked sessions, checked on every authenticated request without a database call.
+ * Lookups go through a Bloom filter first, so the common (not revoked) case is a few bit tests;
+ * possible hits are confirmed against the exact set. Revocations are written to MongoDB and every
+ * node polls for new ones, so a logout on one node takes effect on the others within one poll interval.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TokenRevocationList {
+
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+    private static final long POLL_OVERLAP_SECONDS = 60;
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${app.security.revocation-filter-capacity:10000}")
+    private int filterCapacity;
+
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+    private volatile BloomFilter filter;
+    private volatile LocalDateTime lastRevokedAt;
+
+    /**
+     * Whether a session has been revoked
+     */
+    public boolean isRevoked(String sessionId) {
+        if (sessionId == null) {
+            return false;
+        }
+        BloomFilter current = filter;
+        if (current != null && !current.mightContain(sessionId)) {
+            return false;
+        }
+        Long expiresAt = revoked.get(sessionId);
+        return expiresAt != null && expiresAt > System.currentTimeMillis();
+    }
+
+    /**
+     * Revoke a session until the given time (when its last access token expires)
+     */
+    public void revoke(String sessionId, LocalDateTime expiresAt, String reason) {
+        RevokedToken record = RevokedToken.builder()
+                .id(sessionId)
+                .reason(reason)
+                .revokedAt(LocalDateTime.now())
+                .expiresAt(expiresAt)
+                .build();
+        mongoTemplate.save(record);
+        add(record);
+        log.info("Revoked session {} ({})", sessionId, reason);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        List<RevokedToken> records = mongoTemplate.find(
+                new Query(Criteria.where("expiresAt").gt(LocalDateTime.now())), RevokedToken.class);
+        records.forEach(this::add);
+        rebuildFilter();
+        log.info("Loaded {} revoked sessions", revoked.size());
+    }
+
+    /**
+     * Pick up revocations made on other nodes and drop expired entries
+     */
+    @Scheduled(fixedDelayString = "${app.security.revocation-poll-ms:5000}")
+    public void poll() {
+        LocalDateTime since = lastRevokedAt;
+        if (since == null || filter == null) {
+            return; // Not loaded yet
+        }
+
+        Query query = new Query(Criteria.where("revokedAt").gt(since.minusSeconds(POLL_OVERLAP_SECONDS)));
+        mongoTemplate.find(query, RevokedToken.class).forEach(this::add);
+
+        long now = System.currentTimeMillis();
+        if (revoked.values().removeIf(expiresAt -> expiresAt <= now) || revoked.size() > filter.getExpectedInsertions()) {
+            rebuildFilter();
+        }
+    }
+
+    private synchronized void add(RevokedToken record) {
+        if (record.getExpiresAt() == null) {
+            return;
+        }
+        revoked.put(record.getId(), record.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        if (filter != null) {
+            filter.add(record.getId());
+        }
+        if (record.getRevokedAt() != null && (lastRevokedAt == null || record.getRevokedAt().isAfter(lastRevokedAt))) {
+            lastRevokedAt = record.getRevokedAt();
+        }
+    }
+
+    /**
+     * Replace the filter with one holding only live entries, sized for at least twice the current count
+     */
+    private synchronized void rebuildFilter() {
+        BloomFilter rebuilt = new BloomFilter(Math.max(filterCapacity, revoked.size() * 2), FALSE_POSITIVE_RATE);
+        revoked.keySet().forEach(rebuilt::add);
+        filter = rebuilt;
+        if (lastRevokedAt == null) {
+            lastRevokedAt = LocalDateTime.now();
+        }
+    }
+}
@@ -3,15 +3,18 @@ package com.groundandgrow.security;
 import com.groundandgrow.model.Psychologist;
 import com.groundandgrow.repository.PsychologistRepository;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
 
     private final PsychologistRepository psychologistRepository;
 
@@ -32,6 +35,26 @@ public class UserDetailsServiceImpl implements UserDetailsService {
         return UserPrincipal.create(psychologist);
     }
 
+    /**
+     * Store a password rehashed at the current BCrypt cost after a successful login
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        UserPrincipal principal = (UserPrincipal) user;
+        Psychologist psychologist = principal.getPsychologist() != null
+                ? principal.getPsychologist()
+                : psychologistRepository.findByEmail(principal.getEmail())
+                        .orElseThrow(() -> new UsernameNotFoundException(
+                                "Psychologist not found with email: " + principal.getEmail()
+                        ));
+
+        psychologist.setPassword(newPassword);
+        psychologist = psychologistRepository.save(psychologist);
+        log.info("Rehashed password at current cost for {}", psychologist.getEmail());
+
+        return UserPrincipal.create(psychologist);
+    }
+
     @Transactional
     public UserDetails loadUserById(String id) {
         Psychologist psychologist = psychologistRepository.findById(id)
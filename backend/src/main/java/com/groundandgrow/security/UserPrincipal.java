@@ -3,12 +3,17 @@ package com.groundandgrow.security;
 import com.groundandgrow.model.Psychologist;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Optional;
 
 @Data
 @AllArgsConstructor
@@ -19,6 +24,15 @@ public class UserPrincipal implements UserDetails {
     private String password;
     private Collection<? extends GrantedAuthority> authorities;
 
+    // The account this principal was loaded from; only set on password authentication
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Psychologist psychologist;
+
+    public UserPrincipal(String id, String email, String password, Collection<? extends GrantedAuthority> authorities) {
+        this(id, email, password, authorities, null);
+    }
+
     public static UserPrincipal create(Psychologist psychologist) {
         Collection<GrantedAuthority> authorities = Collections.singletonList(
                 new SimpleGrantedAuthority("ROLE_" + psychologist.getRole().name())
@@ -28,10 +42,41 @@ public class UserPrincipal implements UserDetails {
                 psychologist.getId(),
                 psychologist.getEmail(),
                 psychologist.getPassword(),
-                authorities
+                authorities,
+                psychologist
         );
     }
 
+    /**
+     * The authenticated principal of the current request, if it is the psychologist with this email or ID
+     */
+    public static Optional<UserPrincipal> currentMatching(String emailOrId) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof UserPrincipal principal)) {
+            return Optional.empty();
+        }
+        if (principal.getId() == null || emailOrId == null
+                || !(emailOrId.equals(principal.getEmail()) || emailOrId.equals(principal.getId()))) {
+            return Optional.empty();
+        }
+        return Optional.of(principal);
+    }
+
+    /**
+     * Role name without the ROLE_ prefix, or null if there is none
+     */
+    public String getRole() {
+        if (authorities == null) {
+            return null;
+        }
+        return authorities.stream()
+                .map(GrantedAuthority::getAuthority)
+                .filter(authority -> authority.startsWith("ROLE_"))
+                .map(authority -> authority.substring("ROLE_".length()))
+                .findFirst()
+                .orElse(null);
+    }
+
     @Override
     public String getUsername() {
         return email;
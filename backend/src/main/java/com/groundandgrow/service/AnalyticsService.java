@@ -0,0 +1,550 @@
+package com.groundandgrow.service;
+
+import com.groundandgrow.dto.AnalyticsReportDTO;
+import com.groundandgrow.model.Availability;
+import com.groundandgrow.model.DailyAnalyticsRollup;
+import com.groundandgrow.model.GuestBooking;
+import com.groundandgrow.model.Psychologist;
+import com.groundandgrow.model.SessionType;
+import com.groundandgrow.model.TimeOff;
+import com.groundandgrow.repository.AvailabilityRepository;
+import com.groundandgrow.repository.DailyAnalyticsRollupRepository;
+import com.groundandgrow.repository.PsychologistRepository;
+import com.groundandgrow.repository.TimeOffRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationExpression;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Revenue and utilisation analytics backed by one rollup document per psychologist and day.
+ * Booking changes adjust the rollups incrementally with $inc; a nightly reconciliation recomputes
+ * a window of days from bookings and availability, so reports only read the rollups of their range.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AnalyticsService {
+
+    public static final int MAX_REPORT_MONTHS = 36;
+
+    private static final Set<String> BOOKED_STATUSES = Set.of("confirmed", "completed", "no_show");
+    private static final String PAID_STATUS = "completed";
+    private static final String UNKNOWN_SESSION_TYPE = "unknown";
+    private static final String ROLLUP_COLLECTION = "analytics_daily";
+    private static final int SWAP_BATCH_SIZE = 1000;
+
+    private final MongoTemplate mongoTemplate;
+    private final DailyAnalyticsRollupRepository dailyAnalyticsRollupRepository;
+    private final PsychologistRepository psychologistRepository;
+    private final AvailabilityRepository availabilityRepository;
+    private final TimeOffRepository timeOffRepository;
+    private final SessionTypeCache sessionTypeCache;
+    private final TaskExecutor taskExecutor;
+
+    @Value("${app.analytics.reconcile-days-back:35}")
+    private int reconcileDaysBack;
+
+    @Value("${app.analytics.reconcile-days-ahead:90}")
+    private int reconcileDaysAhead;
+
+    @Value("${app.analytics.max-reconcile-days:400}")
+    private int maxReconcileDays;
+
+    private final AtomicBoolean reconcileRequested = new AtomicBoolean();
+
+    @EventListener
+    public void onBookingChanged(BookingChangedEvent event) {
+        GuestBooking booking = event.getBooking();
+        if (booking.getPsychologistId() == null) {
+            return;
+        }
+
+        BookingFigures before = event.getType() == BookingChangedEvent.Type.CREATED
+            ? BookingFigures.NONE
+            : figures(booking, event.getPreviousStatus(), event.getPreviousPaymentStatus(), event.getPreviousAppointmentDateTime());
+        BookingFigures after = event.getType() == BookingChangedEvent.Type.DELETED
+            ? BookingFigures.NONE
+            : figures(booking, booking.getBookingStatus(), booking.getPaymentStatus(), booking.getAppointmentDateTime());
+
+        String sessionType = sessionTypeKey(booking.getSessionTypeId());
+        if (before.date != null && before.date.equals(after.date)) {
+            apply(booking.getPsychologistId(), sessionType, after.date,
+                after.revenueCents - before.revenueCents, after.sessions - before.sessions, after.minutes - before.minutes);
+        } else {
+            apply(booking.getPsychologistId(), sessionType, before.date, -before.revenueCents, -before.sessions, -before.minutes);
+            apply(booking.getPsychologistId(), sessionType, after.date, after.revenueCents, after.sessions, after.minutes);
+        }
+    }
+
+    /**
+     * Revenue and utilisation for a range of months, per month, psychologist and session type
+     *
+     * @param psychologistId restrict to one psychologist, or null for the whole practice
+     */
+    public AnalyticsReportDTO getReport(YearMonth from, YearMonth to, String psychologistId) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Report start must not be after its end");
+        }
+        if (from.plusMonths(MAX_REPORT_MONTHS).isBefore(to.plusMonths(1))) {
+            throw new IllegalArgumentException("Reports cover at most " + MAX_REPORT_MONTHS + " months");
+        }
+
+        LocalDate start = from.atDay(1);
+        LocalDate end = to.atEndOfMonth();
+
+        Criteria criteria = Criteria.where("date").gte(start.toString()).lte(end.toString());
+        if (psychologistId != null && !psychologistId.isEmpty()) {
+            criteria = Criteria.where("psychologistId").is(psychologistId).and("date").gte(start.toString()).lte(end.toString());
+        }
+        List<DailyAnalyticsRollup> days = mongoTemplate.find(new Query(criteria), DailyAnalyticsRollup.class);
+
+        Totals totals = new Totals();
+        Map<String, Totals> months = new TreeMap<>();
+        for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+            months.put(month.toString(), new Totals());
+        }
+        Map<String, Totals> psychologists = new TreeMap<>();
+        Map<String, Totals> sessionTypes = new TreeMap<>();
+
+        for (DailyAnalyticsRollup day : days) {
+            totals.add(day);
+            months.computeIfAbsent(day.getDate().substring(0, 7), key -> new Totals()).add(day);
+            psychologists.computeIfAbsent(day.getPsychologistId(), key -> new Totals()).add(day);
+            if (day.getBySessionType() != null) {
+                day.getBySessionType().forEach((sessionTypeId, figures) ->
+                    sessionTypes.computeIfAbsent(sessionTypeId, key -> new Totals()).add(figures));
+            }
+        }
+
+        Map<String, String> psychologistNames = new HashMap<>();
+        psychologistRepository.findAllById(psychologists.keySet()).forEach(psychologist ->
+            psychologistNames.put(psychologist.getId(), psychologist.getFirstName() + " " + psychologist.getLastName()));
+
+        return AnalyticsReportDTO.builder()
+            .from(start)
+            .to(end)
+            .totals(totals.toFigures(null, null))
+            .months(toFigures(months, key -> null))
+            .psychologists(toFigures(psychologists, psychologistNames::get))
+            .sessionTypes(toFigures(sessionTypes, key -> {
+                SessionType sessionType = sessionTypeCache.get(key);
+                return sessionType != null ? sessionType.getName() : null;
+            }))
+            .build();
+    }
+
+    /**
+     * Nightly: recompute recent and upcoming days to correct any drift and pick up availability changes
+     */
+    @Scheduled(cron = "${app.analytics.reconcile-cron:0 30 2 * * *}")
+    public void reconcileRecent() {
+        LocalDate today = LocalDate.now();
+        reconcile(today.minusDays(reconcileDaysBack), today.plusDays(reconcileDaysAhead));
+    }
+
+    /**
+     * Build the rollups from all existing bookings on first start
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        if (dailyAnalyticsRollupRepository.count() > 0) {
+            return;
+        }
+
+        Query earliestQuery = new Query(Criteria.where("appointmentDateTime").ne(null))
+            .with(Sort.by(Sort.Direction.ASC, "appointmentDateTime"))
+            .limit(1);
+        earliestQuery.fields().include("appointmentDateTime");
+        GuestBooking earliest = mongoTemplate.findOne(earliestQuery, GuestBooking.class);
+        if (earliest == null) {
+            return;
+        }
+
+        reconcile(earliest.getAppointmentDateTime().toLocalDate(), LocalDate.now().plusDays(reconcileDaysAhead));
+    }
+
+    /**
+     * Start recomputing an inclusive range of days in the background, at most one requested run at a time
+     *
+     * @return false if a requested reconciliation is still running
+     */
+    public boolean requestReconcile(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Reconciliation start must not be after its end");
+        }
+        if (from.plusDays(maxReconcileDays).isBefore(to.plusDays(1))) {
+            throw new IllegalArgumentException("Reconciliation covers at most " + maxReconcileDays + " days");
+        }
+        if (!reconcileRequested.compareAndSet(false, true)) {
+            return false;
+        }
+
+        try {
+            taskExecutor.execute(() -> {
+                try {
+                    reconcile(from, to);
+                } catch (RuntimeException e) {
+                    log.error("Failed to reconcile analytics rollups from {} to {}", from, to, e);
+                } finally {
+                    reconcileRequested.set(false);
+                }
+            });
+        } catch (RuntimeException e) {
+            reconcileRequested.set(false);
+            throw e;
+        }
+        return true;
+    }
+
+    /**
+     * Recompute the rollups of an inclusive range of days from bookings and availability
+     */
+    public void reconcile(LocalDate from, LocalDate to) {
+        long started = System.currentTimeMillis();
+        log.info("Reconciling analytics rollups from {} to {}", from, to);
+
+        recomputeBookingFigures(from, to);
+        int days = recomputeAvailableMinutes(from, to);
+
+        log.info("Analytics rollups reconciled from {} to {} ({} psychologist-days of availability) in {} ms",
+            from, to, days, System.currentTimeMillis() - started);
+    }
+
+    /**
+     * Recompute the booking figures of the range into a shadow collection, then copy them over the live
+     * rollups. Revisions are read first: a day changed by a booking in the meantime keeps its incremental
+     * figures (its change may or may not be in the recomputed sums) and is picked up by the next run.
+     */
+    private void recomputeBookingFigures(LocalDate from, LocalDate to) {
+        Map<String, Long> revisions = new HashMap<>();
+        Query rangeQuery = new Query(Criteria.where("date").gte(from.toString()).lte(to.toString()));
+        rangeQuery.fields().include("revision");
+        try (Stream<Document> days = mongoTemplate.stream(rangeQuery, Document.class, ROLLUP_COLLECTION)) {
+            days.forEach(day -> revisions.put(day.getString("_id"),
+                day.get("revision") instanceof Number revision ? revision.longValue() : null));
+        }
+
+        String shadowCollection = ROLLUP_COLLECTION + "_rebuild_" + UUID.randomUUID().toString().replace("-", "");
+        Aggregation aggregation = Aggregation.newAggregation(
+            Aggregation.match(Criteria.where("psychologistId").ne(null)
+                .and("appointmentDateTime").gte(from.atStartOfDay()).lt(to.plusDays(1).atStartOfDay())),
+            Aggregation.project("psychologistId")
+                .and(context -> new Document("$dateToString", new Document("format", "%Y-%m-%d")
+                    .append("date", "$appointmentDateTime")
+                    .append("timezone", ZoneId.systemDefault().getId()))).as("date")
+                .and(context -> new Document("$ifNull", List.of("$sessionTypeId", UNKNOWN_SESSION_TYPE))).as("sessionType")
+                .and(context -> new Document("$cond", List.of(
+                    new Document("$in", List.of(lower("$bookingStatus"), List.copyOf(BOOKED_STATUSES))), 1, 0))).as("booked")
+                .and(context -> new Document("$ifNull", List.of("$durationMinutes", 0))).as("duration")
+                .and(context -> new Document("$cond", List.of(
+                    new Document("$eq", List.of(lower("$paymentStatus"), PAID_STATUS)),
+                    new Document("$toLong", new Document("$round", List.of(new Document("$multiply", List.of(
+                        new Document("$ifNull", List.of("$amount", 0)), 100)), 0))),
+                    0))).as("revenueCents"),
+            Aggregation.group("psychologistId", "date", "sessionType")
+                .sum("revenueCents").as("revenueCents")
+                .sum("booked").as("sessions")
+                .sum(context -> new Document("$multiply", List.of("$booked", "$duration"))).as("bookedMinutes"),
+            Aggregation.group("psychologistId", "date")
+                .sum("revenueCents").as("revenueCents")
+                .sum("sessions").as("sessions")
+                .sum("bookedMinutes").as("bookedMinutes")
+                .push(new Document("k", "$_id.sessionType").append("v", new Document("revenueCents", "$revenueCents")
+                    .append("sessions", "$sessions")
+                    .append("bookedMinutes", "$bookedMinutes"))).as("sessionTypes"),
+            Aggregation.project("psychologistId", "date", "revenueCents", "sessions", "bookedMinutes")
+                .and(context -> new Document("$concat", List.of("$_id.psychologistId", ":", "$_id.date"))).as("_id")
+                .and(context -> new Document("$arrayToObject", "$sessionTypes")).as("bySessionType"),
+            Aggregation.out(shadowCollection)
+        ).withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+
+        try {
+            mongoTemplate.aggregate(aggregation, GuestBooking.class, Document.class);
+
+            SwapBatch batch = new SwapBatch();
+            try (Stream<Document> days = mongoTemplate.stream(new Query(), Document.class, shadowCollection)) {
+                days.forEach(day -> {
+                    String id = day.getString("_id");
+                    batch.add(id, revisions.remove(id), day.getString("psychologistId"), day.getString("date"), figures(day));
+                });
+            }
+            // Days left over no longer have any bookings
+            revisions.forEach((id, revision) -> batch.add(id, revision, null, null, figures(new Document())));
+            batch.flush();
+
+            log.info("Replaced booking figures of {} days; skipped {} changed during the recompute",
+                batch.replaced, batch.skipped);
+        } finally {
+            mongoTemplate.dropCollection(shadowCollection);
+        }
+    }
+
+    private Update figures(Document day) {
+        Object bySessionType = day.get("bySessionType");
+        return new Update()
+            .set("revenueCents", toLong(day.get("revenueCents")))
+            .set("sessions", toLong(day.get("sessions")))
+            .set("bookedMinutes", toLong(day.get("bookedMinutes")))
+            .set("bySessionType", bySessionType != null ? bySessionType : new Document())
+            .set("updatedAt", LocalDateTime.now())
+            .inc("revision", 1);
+    }
+
+    private static long toLong(Object value) {
+        return value instanceof Number number ? number.longValue() : 0L;
+    }
+
+    /**
+     * Set the available minutes of every psychologist for every day of the range (one bulk write each)
+     */
+    private int recomputeAvailableMinutes(LocalDate from, LocalDate to) {
+        int written = 0;
+        LocalDateTime now = LocalDateTime.now();
+
+        for (Psychologist psychologist : psychologistRepository.findAll()) {
+            List<Availability> availability = availabilityRepository.findByPsychologistId(psychologist.getId());
+            List<TimeOff> timeOff = timeOffRepository.findByPsychologistId(psychologist.getId());
+            if (availability.isEmpty()) {
+                continue;
+            }
+
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, DailyAnalyticsRollup.class);
+            for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+                Update update = new Update()
+                    .set("availableMinutes", availableMinutes(availability, timeOff, date))
+                    .set("updatedAt", now)
+                    .setOnInsert("psychologistId", psychologist.getId())
+                    .setOnInsert("date", date.toString())
+                    .setOnInsert("revenueCents", 0L)
+                    .setOnInsert("sessions", 0L)
+                    .setOnInsert("bookedMinutes", 0L);
+                bulk.upsert(new Query(Criteria.where("_id").is(DailyAnalyticsRollup.idFor(psychologist.getId(), date))), update);
+                written++;
+            }
+            bulk.execute();
+        }
+        return written;
+    }
+
+    /**
+     * Minutes of effective availability on a date; days touched by time off count as unavailable,
+     * as they do when offering slots
+     */
+    private long availableMinutes(List<Availability> availability, List<TimeOff> timeOff, LocalDate date) {
+        for (TimeOff off : timeOff) {
+            if (off.getStartDateTime() != null && off.getEndDateTime() != null
+                    && !date.isBefore(off.getStartDateTime().toLocalDate())
+                    && !date.isAfter(off.getEndDateTime().toLocalDate())) {
+                return 0;
+            }
+        }
+
+        long minutes = 0;
+        for (Availability block : availability) {
+            if (block.getDayOfWeek() != date.getDayOfWeek() || block.getStartTime() == null || block.getEndTime() == null) {
+                continue;
+            }
+            if ((block.getEffectiveFrom() != null && date.isBefore(block.getEffectiveFrom()))
+                    || (block.getEffectiveUntil() != null && date.isAfter(block.getEffectiveUntil()))) {
+                continue;
+            }
+            minutes += Math.max(0, Duration.between(block.getStartTime(), block.getEndTime()).toMinutes());
+        }
+        return minutes;
+    }
+
+    /**
+     * Adjust one day's rollup, creating it if needed
+     */
+    private void apply(String psychologistId, String sessionType, LocalDate date,
+                       long revenueCents, long sessions, long minutes) {
+        if (date == null || (revenueCents == 0 && sessions == 0 && minutes == 0)) {
+            return;
+        }
+
+        String sessionTypePath = "bySessionType." + sessionType + ".";
+        Update update = new Update()
+            .setOnInsert("psychologistId", psychologistId)
+            .setOnInsert("date", date.toString())
+            .set("updatedAt", LocalDateTime.now())
+            .inc("revision", 1)
+            .inc("revenueCents", revenueCents)
+            .inc("sessions", sessions)
+            .inc("bookedMinutes", minutes)
+            .inc(sessionTypePath + "revenueCents", revenueCents)
+            .inc(sessionTypePath + "sessions", sessions)
+            .inc(sessionTypePath + "bookedMinutes", minutes);
+
+        mongoTemplate.upsert(new Query(Criteria.where("_id").is(DailyAnalyticsRollup.idFor(psychologistId, date))),
+            update, DailyAnalyticsRollup.class);
+    }
+
+    /**
+     * What a booking in the given state contributes to its appointment day
+     */
+    private BookingFigures figures(GuestBooking booking, String bookingStatus, String paymentStatus,
+                                   LocalDateTime appointmentDateTime) {
+        if (appointmentDateTime == null) {
+            return BookingFigures.NONE;
+        }
+
+        boolean booked = bookingStatus != null && BOOKED_STATUSES.contains(bookingStatus.toLowerCase(Locale.ROOT));
+        boolean paid = PAID_STATUS.equalsIgnoreCase(paymentStatus) && booking.getAmount() != null;
+        int duration = booking.getDurationMinutes() != null ? booking.getDurationMinutes() : 0;
+
+        return new BookingFigures(appointmentDateTime.toLocalDate(),
+            paid ? Math.round(booking.getAmount() * 100) : 0,
+            booked ? 1 : 0,
+            booked ? duration : 0);
+    }
+
+    private String sessionTypeKey(String sessionTypeId) {
+        // Session type IDs become field names, so anything that could not be one is grouped as unknown
+        return sessionTypeId != null && sessionTypeId.matches("[A-Za-z0-9_-]+") ? sessionTypeId : UNKNOWN_SESSION_TYPE;
+    }
+
+    private List<AnalyticsReportDTO.Figures> toFigures(Map<String, Totals> totals, Function<String, String> names) {
+        List<AnalyticsReportDTO.Figures> figures = new ArrayList<>(totals.size());
+        totals.forEach((key, value) -> figures.add(value.toFigures(key, names.apply(key))));
+        return figures;
+    }
+
+    private Document lower(String field) {
+        return new Document("$toLower", new Document("$ifNull", List.of(field, "")));
+    }
+
+    /**
+     * Conditional replacements of recomputed figures, written in unordered bulks
+     */
+    private final class SwapBatch {
+
+        private BulkOperations inserts;
+        private BulkOperations updates;
+        private int size;
+        private int insertCount;
+        private long replaced;
+        private long skipped;
+
+        private void add(String id, Long revision, String psychologistId, String date, Update figures) {
+            if (size == 0) {
+                inserts = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, DailyAnalyticsRollup.class);
+                updates = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, DailyAnalyticsRollup.class);
+            }
+            Query byId = new Query(Criteria.where("_id").is(id));
+            if (revision == null && psychologistId != null) {
+                // Make sure the day exists; one created meanwhile by a booking change already has a revision
+                inserts.upsert(byId, new Update()
+                    .setOnInsert("psychologistId", psychologistId)
+                    .setOnInsert("date", date));
+                insertCount++;
+            }
+            updates.updateOne(new Query(Criteria.where("_id").is(id).and("revision").is(revision)), figures);
+            if (++size >= SWAP_BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            if (size == 0) {
+                return;
+            }
+            if (insertCount > 0) {
+                inserts.execute();
+            }
+            long modified = updates.execute().getModifiedCount();
+            replaced += modified;
+            skipped += size - modified;
+            size = 0;
+            insertCount = 0;
+        }
+    }
+
+    private static final class BookingFigures {
+
+        private static final BookingFigures NONE = new BookingFigures(null, 0, 0, 0);
+
+        private final LocalDate date;
+        private final long revenueCents;
+        private final long sessions;
+        private final long minutes;
+
+        private BookingFigures(LocalDate date, long revenueCents, long sessions, long minutes) {
+            this.date = date;
+            this.revenueCents = revenueCents;
+            this.sessions = sessions;
+            this.minutes = minutes;
+        }
+    }
+
+    /**
+     * Running sums while building a report
+     */
+    private static final class Totals {
+
+        private long revenueCents;
+        private long sessions;
+        private long bookedMinutes;
+        private long availableMinutes;
+
+        private void add(DailyAnalyticsRollup day) {
+            revenueCents += valueOf(day.getRevenueCents());
+            sessions += valueOf(day.getSessions());
+            bookedMinutes += valueOf(day.getBookedMinutes());
+            availableMinutes += valueOf(day.getAvailableMinutes());
+        }
+
+        private void add(DailyAnalyticsRollup.SessionTypeFigures figures) {
+            revenueCents += valueOf(figures.getRevenueCents());
+            sessions += valueOf(figures.getSessions());
+            bookedMinutes += valueOf(figures.getBookedMinutes());
+        }
+
+        private AnalyticsReportDTO.Figures toFigures(String key, String name) {
+            return AnalyticsReportDTO.Figures.builder()
+                .key(key)
+                .name(name)
+                .revenue(revenueCents / 100.0)
+                .sessions(sessions)
+                .bookedMinutes(bookedMinutes)
+                .availableMinutes(availableMinutes)
+                .utilisation(availableMinutes > 0 ? (double) bookedMinutes / availableMinutes : null)
+                .build();
+        }
+
+        private static long valueOf(Long value) {
+            return value != null ? value : 0L;
+        }
+    }
+}
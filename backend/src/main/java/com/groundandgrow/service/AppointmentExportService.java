@@ -0,0 +1,158 @@
+package com.groundandgrow.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.groundandgrow.dto.AppointmentFilter;
+import com.groundandgrow.model.GuestBooking;
+import com.groundandgrow.model.SessionType;
+import com.groundandgrow.util.CsvWriter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Streams a psychologist's appointments as CSV or NDJSON straight from a MongoDB cursor.
+ * Rows are written as they are read, so memory use does not depend on the size of the export.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AppointmentExportService {
+
+    private static final String[] COLUMNS = {
+        "appointmentId", "appointmentDateTime", "durationMinutes", "firstName", "lastName", "email", "phone",
+        "modality", "sessionType", "sessionPrice", "amount", "paymentStatus", "bookingStatus", "createdAt"
+    };
+    private static final String[] NOTE_COLUMNS = { "notes", "psychologistNotes", "cancellationReason" };
+
+    public enum Format {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public static Format parse(String format) {
+            try {
+                return valueOf(format.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new UnknownFormatException(format);
+            }
+        }
+    }
+
+    @ResponseStatus(value = HttpStatus.BAD_REQUEST, reason = "Unknown export format")
+    public static class UnknownFormatException extends IllegalArgumentException {
+        UnknownFormatException(String format) {
+            super("Unknown export format: " + format);
+        }
+    }
+
+    private final PsychologistService psychologistService;
+    private final SessionTypeCache sessionTypeCache;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.export.cursor-batch-size:500}")
+    private int cursorBatchSize;
+
+    /**
+     * Prepare an export; the psychologist is resolved now, the cursor is opened when the body is written
+     */
+    public StreamingResponseBody export(String psychologistEmailOrId, AppointmentFilter filter, Format format) {
+        String psychologistId = psychologistService.getProfile(psychologistEmailOrId).getId();
+
+        return outputStream -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            long rows = 0;
+
+            try (Stream<GuestBooking> bookings = psychologistService.streamAppointments(psychologistId, filter, cursorBatchSize)) {
+                CsvWriter csv = format == Format.CSV ? new CsvWriter(writer) : null;
+                if (csv != null) {
+                    csv.writeRow(header(filter));
+                }
+
+                Iterator<GuestBooking> iterator = bookings.iterator();
+                while (iterator.hasNext()) {
+                    Map<String, Object> row = toRow(iterator.next(), filter);
+                    if (csv != null) {
+                        csv.writeRow(row.values().toArray());
+                    } else {
+                        writer.write(objectMapper.writeValueAsString(row));
+                        writer.write('\n');
+                    }
+                    rows++;
+                }
+            } finally {
+                writer.flush();
+            }
+
+            log.info("Exported {} appointments for psychologist {} as {}", rows, psychologistId, format);
+        };
+    }
+
+    private Object[] header(AppointmentFilter filter) {
+        if (!filter.isIncludeNotes()) {
+            return COLUMNS;
+        }
+        Object[] header = new Object[COLUMNS.length + NOTE_COLUMNS.length];
+        System.arraycopy(COLUMNS, 0, header, 0, COLUMNS.length);
+        System.arraycopy(NOTE_COLUMNS, 0, header, COLUMNS.length, NOTE_COLUMNS.length);
+        return header;
+    }
+
+    /**
+     * One export row, in column order
+     */
+    private Map<String, Object> toRow(GuestBooking booking, AppointmentFilter filter) {
+        SessionType sessionType = sessionTypeCache.get(booking.getSessionTypeId());
+
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("appointmentId", booking.getId());
+        row.put("appointmentDateTime", booking.getAppointmentDateTime());
+        row.put("durationMinutes", booking.getDurationMinutes());
+        row.put("firstName", booking.getFirstName());
+        row.put("lastName", booking.getLastName());
+        row.put("email", booking.getEmail());
+        row.put("phone", booking.getPhone());
+        row.put("modality", booking.getModality());
+        row.put("sessionType", sessionType != null ? sessionType.getName() : null);
+        row.put("sessionPrice", sessionType != null ? sessionType.getPrice() : null);
+        row.put("amount", booking.getAmount());
+        row.put("paymentStatus", booking.getPaymentStatus());
+        row.put("bookingStatus", booking.getBookingStatus());
+        row.put("createdAt", booking.getCreatedAt());
+        if (filter.isIncludeNotes()) {
+            row.put("notes", booking.getNotes());
+            row.put("psychologistNotes", booking.getPsychologistNotes());
+            row.put("cancellationReason", booking.getCancellationReason());
+        }
+        return row;
+    }
+}
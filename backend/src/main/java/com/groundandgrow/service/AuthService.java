@@ -3,18 +3,27 @@ package com.groundandgrow.service;
 import com.groundandgrow.dto.LoginRequest;
 import com.groundandgrow.dto.LoginResponse;
 import com.groundandgrow.dto.RegisterRequest;
+import com.groundandgrow.dto.UpdateAccessRequest;
 import com.groundandgrow.model.Psychologist;
+import com.groundandgrow.model.RefreshToken;
 import com.groundandgrow.repository.PsychologistRepository;
 import com.groundandgrow.security.JwtTokenProvider;
+import com.groundandgrow.security.LoginThrottle;
+import com.groundandgrow.security.PrincipalCache;
+import com.groundandgrow.security.UserPrincipal;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.util.Locale;
+import java.util.UUID;
+
 @Slf4j
 @Service
 @RequiredArgsConstructor
@@ -24,38 +33,39 @@ public class AuthService {
     private final PsychologistRepository psychologistRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtTokenProvider tokenProvider;
+    private final PrincipalCache principalCache;
+    private final RefreshTokenService refreshTokenService;
+    private final LoginThrottle loginThrottle;
 
     /**
      * Authenticate psychologist and return JWT token
      */
-    public LoginResponse login(LoginRequest request) {
-        // Authenticate user
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(
-                        request.getEmail(),
-                        request.getPassword()
-                )
-        );
+    public LoginResponse login(LoginRequest request, String clientIp) {
+        loginThrottle.check(clientIp, request.getEmail());
+
+        // Authenticate user (BCrypt runs on the bounded hashing pool)
+        Authentication authentication;
+        try {
+            authentication = authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(
+                            request.getEmail(),
+                            request.getPassword()
+                    )
+            );
+        } catch (BadCredentialsException e) {
+            loginThrottle.recordFailure(request.getEmail());
+            throw e;
+        }
 
         SecurityContextHolder.getContext().setAuthentication(authentication);
 
-        // Generate JWT token
-        String jwt = tokenProvider.generateToken(authentication);
-
-        // Get psychologist details
-        Psychologist psychologist = psychologistRepository.findByEmail(request.getEmail())
-                .orElseThrow(() -> new RuntimeException("Psychologist not found"));
+        // The principal carries the account it was authenticated against
+        Psychologist psychologist = ((UserPrincipal) authentication.getPrincipal()).getPsychologist();
 
         log.info("Psychologist logged in: {}", psychologist.getEmail());
 
-        return new LoginResponse(
-                jwt,
-                psychologist.getId(),
-                psychologist.getEmail(),
-                psychologist.getFirstName(),
-                psychologist.getLastName(),
-                psychologist.getRole().name()
-        );
+        String sessionId = UUID.randomUUID().toString();
+        return issueTokens(psychologist, sessionId, refreshTokenService.issue(psychologist, sessionId));
     }
 
     /**
@@ -91,21 +101,71 @@ public class AuthService {
     }
 
     /**
-     * Refresh JWT token
+     * Change a psychologist's role and/or active flag (admin only).
+     * Cached access state is dropped so existing tokens stop working on the next request.
      */
-    public LoginResponse refreshToken(String email) {
-        Psychologist psychologist = psychologistRepository.findByEmail(email)
+    public Psychologist updateAccess(String psychologistId, UpdateAccessRequest request) {
+        Psychologist psychologist = psychologistRepository.findById(psychologistId)
                 .orElseThrow(() -> new RuntimeException("Psychologist not found"));
 
-        String jwt = tokenProvider.generateTokenFromEmail(email);
+        if (request.getRole() != null) {
+            psychologist.setRole(Psychologist.Role.valueOf(request.getRole().toUpperCase(Locale.ROOT)));
+        }
+        if (request.getIsActive() != null) {
+            psychologist.setIsActive(request.getIsActive());
+        }
+
+        psychologist = psychologistRepository.save(psychologist);
+        principalCache.invalidate(psychologist.getEmail());
+
+        log.info("Access updated for psychologist {}: role={}, active={}",
+                psychologist.getEmail(), psychologist.getRole(), psychologist.getIsActive());
+
+        return psychologist;
+    }
+
+    /**
+     * Exchange a refresh token for a new access token and a new refresh token in the same session
+     */
+    public LoginResponse refreshToken(String refreshToken) {
+        RefreshToken consumed = refreshTokenService.consume(refreshToken);
+
+        Psychologist psychologist = psychologistRepository.findById(consumed.getPsychologistId())
+                .orElseThrow(() -> new RuntimeException("Psychologist not found"));
+        if (!Boolean.TRUE.equals(psychologist.getIsActive())) {
+            refreshTokenService.revokeSession(consumed.getSessionId(), "ACCOUNT_DISABLED");
+            throw new RuntimeException("Account is disabled");
+        }
+
+        return issueTokens(psychologist, consumed.getSessionId(),
+                refreshTokenService.issueSuccessor(refreshToken, psychologist, consumed.getSessionId()));
+    }
+
+    /**
+     * End a session, identified by its refresh token and/or the session claim of an access token
+     */
+    public void logout(String refreshToken, String sessionId) {
+        if (refreshToken != null && !refreshToken.isBlank()) {
+            refreshTokenService.revoke(refreshToken);
+        } else if (sessionId != null) {
+            refreshTokenService.revokeSession(sessionId, "LOGOUT");
+        }
+    }
+
+    private LoginResponse issueTokens(Psychologist psychologist, String sessionId, String refreshToken) {
+        String role = psychologist.getRole().name();
+        String jwt = tokenProvider.generateTokenFromEmail(psychologist.getEmail(), psychologist.getId(), role, sessionId);
 
-        return new LoginResponse(
+        LoginResponse response = new LoginResponse(
                 jwt,
                 psychologist.getId(),
                 psychologist.getEmail(),
                 psychologist.getFirstName(),
                 psychologist.getLastName(),
-                psychologist.getRole().name()
+                role
         );
+        response.setRefreshToken(refreshToken);
+        response.setExpiresIn(tokenProvider.getExpirationMs() / 1000);
+        return response;
     }
 }
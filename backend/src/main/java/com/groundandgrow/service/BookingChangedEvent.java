@@ -0,0 +1,58 @@
+package com.groundandgrow.service;
+
+import com.groundandgrow.model.GuestBooking;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published after a guest booking is created, changes status, is rescheduled or is deleted.
+ * Carries the booking as saved plus the previous status, payment status and appointment time.
+ * Listeners run synchronously in the publishing thread, after the booking has been saved.
+ */
+@Getter
+public class BookingChangedEvent {
+
+    public enum Type { CREATED, STATUS_CHANGED, RESCHEDULED, DELETED }
+
+    private final Type type;
+    private final GuestBooking booking;
+    private final String previousStatus;
+    private final String previousPaymentStatus;
+    private final LocalDateTime previousAppointmentDateTime;
+
+    private BookingChangedEvent(Type type, GuestBooking booking, String previousStatus,
+                                String previousPaymentStatus, LocalDateTime previousAppointmentDateTime) {
+        this.type = type;
+        this.booking = booking;
+        this.previousStatus = previousStatus;
+        this.previousPaymentStatus = previousPaymentStatus;
+        this.previousAppointmentDateTime = previousAppointmentDateTime;
+    }
+
+    public static BookingChangedEvent created(GuestBooking booking) {
+        return new BookingChangedEvent(Type.CREATED, booking, null, null, null);
+    }
+
+    /**
+     * Status change that left the payment status as it was
+     */
+    public static BookingChangedEvent statusChanged(GuestBooking booking, String previousStatus) {
+        return statusChanged(booking, previousStatus, booking.getPaymentStatus());
+    }
+
+    public static BookingChangedEvent statusChanged(GuestBooking booking, String previousStatus, String previousPaymentStatus) {
+        return new BookingChangedEvent(Type.STATUS_CHANGED, booking, previousStatus, previousPaymentStatus,
+            booking.getAppointmentDateTime());
+    }
+
+    public static BookingChangedEvent rescheduled(GuestBooking booking, LocalDateTime previousAppointmentDateTime) {
+        return new BookingChangedEvent(Type.RESCHEDULED, booking, booking.getBookingStatus(), booking.getPaymentStatus(),
+            previousAppointmentDateTime);
+    }
+
+    public static BookingChangedEvent deleted(GuestBooking booking) {
+        return new BookingChangedEvent(Type.DELETED, booking, booking.getBookingStatus(), booking.getPaymentStatus(),
+            booking.getAppointmentDateTime());
+    }
+}
@@ -0,0 +1,131 @@
+package com.groundandgrow.service;
+
+import com.groundandgrow.dto.BroadcastNotificationRequest;
+import com.groundandgrow.dto.BroadcastNotificationResponse;
+import com.groundandgrow.model.GuestBooking;
+import com.groundandgrow.model.Notification;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.aggregation.StringOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Service for admin broadcasts to every client of a psychologist or of the clinic.
+ * Recipients are streamed from guest bookings with a cursor and written as pending
+ * notifications in bulk, so memory use does not grow with the number of recipients.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BroadcastNotificationService {
+
+    private final MongoTemplate mongoTemplate;
+
+    // Stored in either case by older code paths
+    private static final List<String> CLIENT_BOOKING_STATUSES = List.of("CONFIRMED", "COMPLETED", "confirmed", "completed");
+    private static final List<String> PAID_STATUSES = List.of("COMPLETED", "completed");
+
+    @Value("${app.notification.broadcast.insert-batch-size:500}")
+    private int insertBatchSize;
+
+    /**
+     * Expand the recipient list and queue one notification per distinct client email.
+     * Delivery is handled by the batched notification scheduler.
+     */
+    public BroadcastNotificationResponse broadcast(BroadcastNotificationRequest request) {
+        String broadcastId = UUID.randomUUID().toString();
+        String deliveryMethod = request.getDeliveryMethod() != null ? request.getDeliveryMethod() : "EMAIL";
+        LocalDateTime now = LocalDateTime.now();
+
+        Aggregation aggregation = Aggregation.newAggregation(
+            Aggregation.match(recipientCriteria(request.getPsychologistId())),
+            Aggregation.project("firstName", "phone")
+                .and(StringOperators.valueOf("email").toLower()).as("email"),
+            Aggregation.group("email")
+                .last("firstName").as("firstName")
+                .last("phone").as("phone")
+        ).withOptions(AggregationOptions.builder()
+            .allowDiskUse(true)
+            .cursorBatchSize(insertBatchSize)
+            .build());
+
+        long recipientCount = 0;
+        List<Notification> batch = new ArrayList<>(insertBatchSize);
+
+        try (Stream<Document> recipients = mongoTemplate.aggregateStream(aggregation, GuestBooking.class, Document.class)) {
+            for (Document recipient : (Iterable<Document>) recipients::iterator) {
+                String email = recipient.getString("_id");
+
+                batch.add(Notification.builder()
+                    .recipientId(email)
+                    .recipientType("GUEST")
+                    .recipientEmail(email)
+                    .recipientPhone(recipient.getString("phone"))
+                    .notificationType("BROADCAST")
+                    .deliveryMethod(deliveryMethod)
+                    .subject(request.getSubject())
+                    .message(request.getMessage())
+                    .scheduledFor(now)
+                    .status("PENDING")
+                    .retryCount(0)
+                    .broadcastId(broadcastId)
+                    .createdAt(now)
+                    .build());
+
+                if (batch.size() >= insertBatchSize) {
+                    recipientCount += flush(batch);
+                }
+            }
+        }
+        recipientCount += flush(batch);
+
+        log.info("Broadcast {} queued for {} recipients (psychologist: {})",
+            broadcastId, recipientCount, request.getPsychologistId() != null ? request.getPsychologistId() : "ALL");
+
+        return BroadcastNotificationResponse.builder()
+            .broadcastId(broadcastId)
+            .psychologistId(request.getPsychologistId())
+            .recipientCount(recipientCount)
+            .build();
+    }
+
+    /**
+     * Clients are guests with at least one paid booking that is confirmed or took place;
+     * guests whose payment failed, or who cancelled or were refunded, are not
+     */
+    private Criteria recipientCriteria(String psychologistId) {
+        Criteria criteria = Criteria.where("email").exists(true).ne(null)
+            .and("bookingStatus").in(CLIENT_BOOKING_STATUSES)
+            .and("paymentStatus").in(PAID_STATUSES);
+
+        if (psychologistId != null && !psychologistId.isEmpty()) {
+            criteria = criteria.and("psychologistId").is(psychologistId);
+        }
+        return criteria;
+    }
+
+    /**
+     * Insert the batch with a single insertMany and clear it
+     */
+    private int flush(List<Notification> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        int size = batch.size();
+        mongoTemplate.insert(batch, Notification.class);
+        batch.clear();
+        return size;
+    }
+}
@@ -0,0 +1,347 @@
+package com.groundandgrow.service;
+
+import com.groundandgrow.model.Client;
+import com.groundandgrow.model.ClientDirectoryEntry;
+import com.groundandgrow.model.GuestBooking;
+import com.groundandgrow.repository.ClientDirectoryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationExpression;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ConvertOperators;
+import org.springframework.data.mongodb.core.aggregation.MergeOperation;
+import org.springframework.data.mongodb.core.aggregation.StringOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Maintains the per-psychologist client directory from guest booking changes.
+ * Each booking create or status change is a single upsert of the client's entry plus two
+ * indexed point queries for the last and next appointment, so listing clients never has
+ * to regroup raw bookings.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ClientDirectoryService {
+
+    private static final List<String> CONFIRMED_STATUSES = List.of("CONFIRMED", "confirmed");
+    private static final List<String> COMPLETED_STATUSES = List.of("COMPLETED", "completed");
+
+    private final MongoTemplate mongoTemplate;
+    private final ClientDirectoryRepository clientDirectoryRepository;
+    private final ClientSearchService clientSearchService;
+
+    /**
+     * Normalise an email for use as a client key
+     */
+    public static String normaliseEmail(String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    @EventListener
+    public void onBookingChanged(BookingChangedEvent event) {
+        GuestBooking booking = event.getBooking();
+        switch (event.getType()) {
+            case CREATED:
+                recordBooking(booking, null);
+                break;
+            case STATUS_CHANGED:
+                recordBooking(booking, event.getPreviousStatus());
+                break;
+            case RESCHEDULED:
+                refreshAppointmentDates(booking.getPsychologistId(), normaliseEmail(booking.getEmail()));
+                break;
+            case DELETED:
+                recordBookingRemoved(booking);
+                break;
+        }
+    }
+
+    /**
+     * Record a new booking (previousStatus null) or a status change of an existing one
+     */
+    public void recordBooking(GuestBooking booking, String previousStatus) {
+        String email = normaliseEmail(booking.getEmail());
+        if (email == null || booking.getPsychologistId() == null) {
+            return;
+        }
+
+        boolean created = previousStatus == null;
+        LocalDateTime now = LocalDateTime.now();
+
+        Update update = new Update()
+            .setOnInsert("psychologistId", booking.getPsychologistId())
+            .setOnInsert("email", email)
+            .setOnInsert("createdAt", now)
+            .set("updatedAt", now)
+            .addToSet("bookingIds", booking.getId());
+
+        if (created) {
+            // Contact details follow the most recent booking
+            update.set("firstName", booking.getFirstName())
+                .set("lastName", booking.getLastName())
+                .set("phone", booking.getPhone())
+                .inc("totalAppointments", 1);
+        }
+
+        String newCounter = counterField(booking.getBookingStatus());
+        String oldCounter = created ? null : counterField(previousStatus);
+        if (!Objects.equals(newCounter, oldCounter)) {
+            if (newCounter != null) {
+                update.inc(newCounter, 1);
+            }
+            if (oldCounter != null) {
+                update.inc(oldCounter, -1);
+            }
+        }
+
+        ClientDirectoryEntry entry = mongoTemplate.findAndModify(
+            byId(ClientDirectoryEntry.idFor(booking.getPsychologistId(), email)), update,
+            FindAndModifyOptions.options().upsert(true).returnNew(true), ClientDirectoryEntry.class);
+        refreshAppointmentDates(booking.getPsychologistId(), email);
+
+        if (created) {
+            upsertClientProfile(booking, email);
+            // Index the contact details as stored, so search agrees with the directory
+            clientSearchService.update(booking.getPsychologistId(), email,
+                entry.getFirstName(), entry.getLastName(), entry.getPhone());
+        }
+    }
+
+    /**
+     * Remove a booking that was deleted (e.g. abandoned before checkout was created)
+     */
+    public void recordBookingRemoved(GuestBooking booking) {
+        String email = normaliseEmail(booking.getEmail());
+        if (email == null || booking.getPsychologistId() == null) {
+            return;
+        }
+
+        Update update = new Update()
+            .inc("totalAppointments", -1)
+            .pull("bookingIds", booking.getId())
+            .set("updatedAt", LocalDateTime.now());
+
+        String counter = counterField(booking.getBookingStatus());
+        if (counter != null) {
+            update.inc(counter, -1);
+        }
+
+        mongoTemplate.updateFirst(byId(ClientDirectoryEntry.idFor(booking.getPsychologistId(), email)),
+            update, ClientDirectoryEntry.class);
+        refreshAppointmentDates(booking.getPsychologistId(), email);
+    }
+
+    /**
+     * Recompute the last completed and next upcoming appointment of a client
+     */
+    public void refreshAppointmentDates(String psychologistId, String email) {
+        Query nextQuery = new Query(clientCriteria(psychologistId, email)
+                .and("bookingStatus").in(CONFIRMED_STATUSES)
+                .and("appointmentDateTime").gt(LocalDateTime.now()))
+            .with(Sort.by(Sort.Direction.ASC, "appointmentDateTime"))
+            .limit(1);
+        nextQuery.fields().include("appointmentDateTime");
+
+        Query lastQuery = new Query(clientCriteria(psychologistId, email)
+                .and("bookingStatus").in(COMPLETED_STATUSES))
+            .with(Sort.by(Sort.Direction.DESC, "appointmentDateTime"))
+            .limit(1);
+        lastQuery.fields().include("appointmentDateTime");
+
+        GuestBooking next = mongoTemplate.findOne(nextQuery, GuestBooking.class);
+        GuestBooking last = mongoTemplate.findOne(lastQuery, GuestBooking.class);
+
+        Update update = new Update()
+            .set("nextAppointmentDate", next != null ? next.getAppointmentDateTime() : null)
+            .set("lastAppointmentDate", last != null ? last.getAppointmentDateTime() : null);
+        mongoTemplate.updateFirst(byId(ClientDirectoryEntry.idFor(psychologistId, email)), update, ClientDirectoryEntry.class);
+    }
+
+    /**
+     * Move entries whose next appointment has passed on to their following appointment
+     */
+    @Scheduled(cron = "${app.client-directory.refresh-cron:0 */15 * * * *}")
+    public void refreshPassedAppointments() {
+        Query query = new Query(Criteria.where("nextAppointmentDate").lte(LocalDateTime.now()));
+        query.fields().include("psychologistId", "email");
+
+        int refreshed = 0;
+        for (ClientDirectoryEntry entry : mongoTemplate.find(query, ClientDirectoryEntry.class)) {
+            refreshAppointmentDates(entry.getPsychologistId(), entry.getEmail());
+            refreshed++;
+        }
+
+        if (refreshed > 0) {
+            log.info("Refreshed next appointment for {} client directory entries", refreshed);
+        }
+    }
+
+    /**
+     * Build the directory from existing bookings on first start
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        if (clientDirectoryRepository.count() > 0 || !mongoTemplate.exists(new Query(), GuestBooking.class)) {
+            return;
+        }
+        rebuild();
+    }
+
+    /**
+     * Rebuild the whole directory from guest bookings with server-side aggregations.
+     * Existing booking emails are normalised first so incremental updates can match them exactly.
+     */
+    public void rebuild() {
+        log.info("Rebuilding client directory from guest bookings...");
+
+        long normalised = mongoTemplate.updateMulti(
+            new Query(Criteria.where("email").regex("[A-Z]|^\\s|\\s$")),
+            AggregationUpdate.update().set("email").toValueOf(normalisedEmail()),
+            GuestBooking.class).getModifiedCount();
+
+        Date nowDate = toDate(LocalDateTime.now());
+
+        Aggregation directory = Aggregation.newAggregation(
+            Aggregation.match(Criteria.where("email").ne(null).and("psychologistId").ne(null)),
+            Aggregation.sort(Sort.by("createdAt")),
+            Aggregation.project("psychologistId", "email", "firstName", "lastName", "phone", "appointmentDateTime")
+                .and(ConvertOperators.valueOf("_id").convertToString()).as("bookingId")
+                .and(StringOperators.valueOf("bookingStatus").toLower()).as("status"),
+            Aggregation.group("psychologistId", "email")
+                .last("firstName").as("firstName")
+                .last("lastName").as("lastName")
+                .last("phone").as("phone")
+                .count().as("totalAppointments")
+                .sum(statusFlag("completed")).as("completedAppointments")
+                .sum(statusFlag("cancelled")).as("cancelledAppointments")
+                .max(appointmentDateWhen(statusIs("completed"))).as("lastAppointmentDate")
+                .min(appointmentDateWhen(new Document("$and", List.of(
+                    statusIs("confirmed"),
+                    new Document("$gt", List.of("$appointmentDateTime", nowDate))))))
+                    .as("nextAppointmentDate")
+                .push("bookingId").as("bookingIds"),
+            Aggregation.project("psychologistId", "email", "firstName", "lastName", "phone",
+                    "totalAppointments", "completedAppointments", "cancelledAppointments",
+                    "lastAppointmentDate", "nextAppointmentDate", "bookingIds")
+                .and(context -> new Document("$concat", List.of("$_id.psychologistId", ":", "$_id.email"))).as("_id")
+                .and(context -> new Document("$literal", nowDate)).as("createdAt")
+                .and(context -> new Document("$literal", nowDate)).as("updatedAt"),
+            Aggregation.merge()
+                .intoCollection("client_directory")
+                .whenMatched(MergeOperation.WhenDocumentsMatch.replaceDocument())
+                .whenDocumentsDontMatch(MergeOperation.WhenDocumentsDontMatch.insertNewDocument())
+                .build()
+        ).withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+
+        mongoTemplate.aggregate(directory, GuestBooking.class, Document.class);
+
+        // Shared client profiles, one per email; existing profiles are left untouched
+        Aggregation profiles = Aggregation.newAggregation(
+            Aggregation.match(Criteria.where("email").ne(null)),
+            Aggregation.sort(Sort.by("createdAt")),
+            Aggregation.group("email")
+                .last("firstName").as("firstName")
+                .last("lastName").as("lastName")
+                .last("phone").as("phone"),
+            Aggregation.project("firstName", "lastName", "phone")
+                .and("_id").as("email")
+                .and(context -> new Document("$literal", true)).as("isActive")
+                .and(context -> new Document("$literal", nowDate)).as("createdAt")
+                .and(context -> new Document("$literal", nowDate)).as("updatedAt")
+                .andExclude("_id"),
+            Aggregation.merge()
+                .intoCollection("clients")
+                .on("email")
+                .whenMatched(MergeOperation.WhenDocumentsMatch.keepExistingDocument())
+                .whenDocumentsDontMatch(MergeOperation.WhenDocumentsDontMatch.insertNewDocument())
+                .build()
+        ).withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+
+        mongoTemplate.aggregate(profiles, GuestBooking.class, Document.class);
+        clientSearchService.invalidateAll();
+
+        log.info("Client directory rebuilt with {} entries ({} booking emails normalised)",
+            clientDirectoryRepository.count(), normalised);
+    }
+
+    /**
+     * Create the shared client profile for an email if it does not exist yet
+     */
+    private void upsertClientProfile(GuestBooking booking, String email) {
+        LocalDateTime now = LocalDateTime.now();
+        Update update = new Update()
+            .setOnInsert("firstName", booking.getFirstName())
+            .setOnInsert("lastName", booking.getLastName())
+            .setOnInsert("phone", booking.getPhone())
+            .setOnInsert("isActive", true)
+            .setOnInsert("createdAt", now)
+            .set("updatedAt", now);
+        mongoTemplate.upsert(new Query(Criteria.where("email").is(email)), update, Client.class);
+    }
+
+    private String counterField(String status) {
+        if (status == null) {
+            return null;
+        }
+        switch (status.toLowerCase(Locale.ROOT)) {
+            case "completed":
+                return "completedAppointments";
+            case "cancelled":
+                return "cancelledAppointments";
+            default:
+                return null;
+        }
+    }
+
+    private Document statusIs(String status) {
+        return new Document("$eq", List.of("$status", status));
+    }
+
+    private AggregationExpression statusFlag(String status) {
+        return context -> new Document("$cond", List.of(statusIs(status), 1, 0));
+    }
+
+    /**
+     * Appointment date when the condition holds, otherwise null (ignored by $min/$max)
+     */
+    private AggregationExpression appointmentDateWhen(Document condition) {
+        return context -> new Document("$cond", Arrays.asList(condition, "$appointmentDateTime", null));
+    }
+
+    private AggregationExpression normalisedEmail() {
+        return StringOperators.valueOf(StringOperators.valueOf("email").trim()).toLower();
+    }
+
+    private Criteria clientCriteria(String psychologistId, String email) {
+        return Criteria.where("psychologistId").is(psychologistId).and("email").is(email);
+    }
+
+    private Query byId(String id) {
+        return new Query(Criteria.where("_id").is(id));
+    }
+
+    private Date toDate(LocalDateTime dateTime) {
+        return Date.from(dateTime.atZone(ZoneId.systemDefault()).toInstant());
+    }
+}
@@ -1,17 +1,26 @@
 package com.groundandgrow.service;
 
+import com.groundandgrow.model.ClientDirectoryEntry;
 import com.groundandgrow.model.GuestBooking;
 import com.groundandgrow.model.Message;
+import com.groundandgrow.repository.ClientDirectoryRepository;
 import com.groundandgrow.repository.GuestBookingRepository;
 import com.groundandgrow.repository.MessageRepository;
+import com.groundandgrow.repository.PsychologistRepository;
+import com.groundandgrow.security.UserPrincipal;
 import com.groundandgrow.dto.AppointmentDTO;
+import com.groundandgrow.dto.ClientSearchResultDTO;
 import com.groundandgrow.dto.ClientSummaryDTO;
 import com.groundandgrow.dto.MessageDTO;
+import com.groundandgrow.dto.PageDTO;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -23,31 +32,85 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class ClientManagementService {
 
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+
     private final GuestBookingRepository guestBookingRepository;
     private final MessageRepository messageRepository;
+    private final PsychologistRepository psychologistRepository;
+    private final ClientDirectoryRepository clientDirectoryRepository;
+    private final ClientSearchService clientSearchService;
+    private final MessageThreadService messageThreadService;
+    private final MongoTemplate mongoTemplate;
 
     /**
-     * Get all clients who have had appointments with this psychologist
-     * Groups guest bookings by email to create client summaries
+     * Get a page of clients who have had appointments with this psychologist, most recently seen first
      */
-    public List<ClientSummaryDTO> getClients(String psychologistId) {
-        log.info("Fetching clients for psychologist: {}", psychologistId);
+    public List<ClientSummaryDTO> getClients(String psychologistId, Integer page) {
+        return getClients(psychologistId, null, null, page, null).getItems();
+    }
 
-        List<GuestBooking> allBookings = guestBookingRepository.findByPsychologistId(psychologistId);
+    /**
+     * Get a page of clients who have had appointments with this psychologist.
+     * Reads the precomputed client directory; unread counts are looked up from
+     * thread summaries for the requested page only.
+     *
+     * @param psychologistEmailOrId the authenticated psychologist (email) or their ID
+     * @param sort one of lastAppointment (default), nextAppointment, name, totalAppointments
+     * @param size page size, or null for {@link #DEFAULT_PAGE_SIZE}; capped at {@link #MAX_PAGE_SIZE}
+     */
+    public PageDTO<ClientSummaryDTO> getClients(String psychologistEmailOrId, String sort, String direction,
+                                                Integer page, Integer size) {
+        log.info("Fetching clients for psychologist: {}", psychologistEmailOrId);
 
-        // Group bookings by email (since guests don't have accounts, we use email as identifier)
-        Map<String, List<GuestBooking>> clientBookings = allBookings.stream()
-            .collect(Collectors.groupingBy(GuestBooking::getEmail));
+        List<String> identities = psychologistIdentities(psychologistEmailOrId);
+        String psychologistId = identities.get(0);
 
-        return clientBookings.entrySet().stream()
-            .map(entry -> createClientSummary(entry.getKey(), entry.getValue(), psychologistId))
-            .filter(Objects::nonNull)
-            .sorted((a, b) -> {
-                if (b.getLastAppointmentDate() != null && a.getLastAppointmentDate() != null) {
-                    return b.getLastAppointmentDate().compareTo(a.getLastAppointmentDate());
-                }
-                return 0;
-            })
+        int pageNumber = page == null || page < 0 ? 0 : page;
+        int pageSize = size == null || size <= 0 ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+
+        Query query = new Query(Criteria.where("psychologistId").is(psychologistId))
+            .with(clientSort(sort, direction))
+            .skip((long) pageNumber * pageSize)
+            .limit(pageSize);
+
+        List<ClientDirectoryEntry> entries = mongoTemplate.find(query, ClientDirectoryEntry.class);
+
+        List<String> bookingIds = entries.stream()
+            .filter(entry -> entry.getBookingIds() != null)
+            .flatMap(entry -> entry.getBookingIds().stream())
+            .collect(Collectors.toList());
+        Map<String, Integer> unreadByBooking = messageThreadService.getUnreadCountsByAppointment(bookingIds, identities);
+
+        List<ClientSummaryDTO> clients = entries.stream()
+            .map(entry -> mapToClientSummary(entry, unreadByBooking))
+            .collect(Collectors.toList());
+
+        long total = clientDirectoryRepository.countByPsychologistId(psychologistId);
+
+        return PageDTO.<ClientSummaryDTO>builder()
+            .items(clients)
+            .page(pageNumber)
+            .size(pageSize)
+            .total(total)
+            .build();
+    }
+
+    /**
+     * Search this psychologist's clients by partial name, email or phone, best matches first
+     */
+    public List<ClientSearchResultDTO> searchClients(String psychologistEmailOrId, String query, Integer limit) {
+        String psychologistId = psychologistIdentities(psychologistEmailOrId).get(0);
+
+        return clientSearchService.search(psychologistId, query, limit).stream()
+            .map(match -> ClientSearchResultDTO.builder()
+                .id(match.getEntry().getEmail()) // Using email as ID for guest clients
+                .firstName(match.getEntry().getFirstName())
+                .lastName(match.getEntry().getLastName())
+                .email(match.getEntry().getEmail())
+                .phone(match.getEntry().getPhone())
+                .score(match.getScore())
+                .build())
             .collect(Collectors.toList());
     }
 
@@ -58,8 +121,9 @@ public class ClientManagementService {
         log.info("Fetching appointments for client {} and psychologist {}", clientEmail, psychologistId);
 
         // For guest bookings, clientId is the email address
-        List<GuestBooking> bookings = guestBookingRepository.findByEmail(clientEmail).stream()
-            .filter(b -> psychologistId.equals(b.getPsychologistId()))
+        List<String> identities = psychologistIdentities(psychologistId);
+        List<GuestBooking> bookings = guestBookingRepository.findByEmail(ClientDirectoryService.normaliseEmail(clientEmail)).stream()
+            .filter(b -> identities.contains(b.getPsychologistId()))
             .collect(Collectors.toList());
 
         return bookings.stream()
@@ -74,20 +138,21 @@ public class ClientManagementService {
         log.info("Fetching messages between psychologist {} and client {}", psychologistId, clientEmail);
 
         // Find all appointments between this psychologist and client
-        List<GuestBooking> bookings = guestBookingRepository.findByEmail(clientEmail).stream()
-            .filter(b -> psychologistId.equals(b.getPsychologistId()))
+        List<String> identities = psychologistIdentities(psychologistId);
+        List<GuestBooking> bookings = guestBookingRepository.findByEmail(ClientDirectoryService.normaliseEmail(clientEmail)).stream()
+            .filter(b -> identities.contains(b.getPsychologistId()))
             .collect(Collectors.toList());
 
-        // Get all message threads for these appointments
-        List<Message> messages = new ArrayList<>();
-        for (GuestBooking booking : bookings) {
-            if (booking.getId() != null) {
-                List<Message> appointmentMessages = messageRepository.findByAppointmentIdOrderByCreatedAtAsc(booking.getId());
-                messages.addAll(appointmentMessages);
-            }
-        }
+        // Get all messages for these appointments in one query
+        List<String> bookingIds = bookings.stream()
+            .map(GuestBooking::getId)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toList());
+        List<Message> messages = bookingIds.isEmpty()
+            ? new ArrayList<>()
+            : messageRepository.findByAppointmentIdInOrderByCreatedAtAsc(bookingIds);
 
-        return messages.stream()
+        return messageThreadService.applyReadState(messages).stream()
             .map(this::mapToMessageDTO)
             .sorted(Comparator.comparing(MessageDTO::getCreatedAt))
             .collect(Collectors.toList());
@@ -95,59 +160,62 @@ public class ClientManagementService {
 
     // Helper methods
 
-    private ClientSummaryDTO createClientSummary(String email, List<GuestBooking> bookings, String psychologistId) {
-        GuestBooking mostRecent = bookings.stream()
-            .max(Comparator.comparing(booking ->
-                booking.getCreatedAt() != null ? booking.getCreatedAt() : LocalDateTime.MIN))
-            .orElse(null);
+    /**
+     * Sort with an _id tie-breaker in the same direction, so the directory indexes serve both directions
+     */
+    private Sort clientSort(String sort, String direction) {
+        Sort.Direction sortDirection = "asc".equalsIgnoreCase(direction) ? Sort.Direction.ASC : Sort.Direction.DESC;
 
-        if (mostRecent == null) {
-            return null;
+        if ("nextAppointment".equals(sort)) {
+            return Sort.by(sortDirection, "nextAppointmentDate", "_id");
         }
+        if ("name".equals(sort)) {
+            return Sort.by(sortDirection, "lastName", "firstName", "_id");
+        }
+        if ("totalAppointments".equals(sort)) {
+            return Sort.by(sortDirection, "totalAppointments", "_id");
+        }
+        return Sort.by(sortDirection, "lastAppointmentDate", "_id");
+    }
 
-        long completed = bookings.stream()
-            .filter(b -> "completed".equalsIgnoreCase(b.getBookingStatus()))
-            .count();
-
-        long cancelled = bookings.stream()
-            .filter(b -> "cancelled".equalsIgnoreCase(b.getBookingStatus()))
-            .count();
+    /**
+     * IDs the psychologist may appear under: bookings use the database ID, messaging uses the email
+     */
+    private List<String> psychologistIdentities(String psychologistEmailOrId) {
+        Optional<UserPrincipal> current = UserPrincipal.currentMatching(psychologistEmailOrId);
+        if (current.isPresent()) {
+            return List.of(current.get().getId(), current.get().getEmail());
+        }
+        return psychologistRepository.findByEmail(psychologistEmailOrId)
+            .or(() -> psychologistRepository.findById(psychologistEmailOrId))
+            .map(psychologist -> List.of(psychologist.getId(), psychologist.getEmail()))
+            .orElse(List.of(psychologistEmailOrId));
+    }
 
-        LocalDateTime lastAppt = bookings.stream()
-            .filter(b -> "completed".equalsIgnoreCase(b.getBookingStatus()))
-            .map(GuestBooking::getAppointmentDateTime)
-            .filter(Objects::nonNull)
-            .max(LocalDateTime::compareTo)
-            .orElse(null);
-
-        LocalDateTime nextAppt = bookings.stream()
-            .filter(b -> "confirmed".equalsIgnoreCase(b.getBookingStatus()))
-            .map(GuestBooking::getAppointmentDateTime)
-            .filter(dt -> dt != null && dt.isAfter(LocalDateTime.now()))
-            .min(LocalDateTime::compareTo)
-            .orElse(null);
-
-        // Count unread messages for this client
-        int unreadMessages = (int) bookings.stream()
-            .flatMap(booking -> messageRepository.findByAppointmentIdOrderByCreatedAtAsc(booking.getId()).stream())
-            .filter(msg -> psychologistId.equals(msg.getReceiverId()) && Boolean.FALSE.equals(msg.getIsRead()))
-            .count();
+    private ClientSummaryDTO mapToClientSummary(ClientDirectoryEntry entry, Map<String, Integer> unreadByBooking) {
+        int unreadMessages = entry.getBookingIds() == null ? 0 : entry.getBookingIds().stream()
+            .mapToInt(bookingId -> unreadByBooking.getOrDefault(bookingId, 0))
+            .sum();
 
         return ClientSummaryDTO.builder()
-            .id(email) // Using email as ID for guest clients
-            .firstName(mostRecent.getFirstName())
-            .lastName(mostRecent.getLastName())
-            .email(email)
-            .phone(mostRecent.getPhone())
-            .totalAppointments(bookings.size())
-            .completedAppointments((int) completed)
-            .cancelledAppointments((int) cancelled)
-            .lastAppointmentDate(lastAppt)
-            .nextAppointmentDate(nextAppt)
+            .id(entry.getEmail()) // Using email as ID for guest clients
+            .firstName(entry.getFirstName())
+            .lastName(entry.getLastName())
+            .email(entry.getEmail())
+            .phone(entry.getPhone())
+            .totalAppointments(valueOf(entry.getTotalAppointments()))
+            .completedAppointments(valueOf(entry.getCompletedAppointments()))
+            .cancelledAppointments(valueOf(entry.getCancelledAppointments()))
+            .lastAppointmentDate(entry.getLastAppointmentDate())
+            .nextAppointmentDate(entry.getNextAppointmentDate())
             .unreadMessages(unreadMessages)
             .build();
     }
 
+    private int valueOf(Integer counter) {
+        return counter != null ? counter : 0;
+    }
+
     private AppointmentDTO mapToAppointmentDTO(GuestBooking booking) {
         return AppointmentDTO.builder()
             .id(booking.getId())
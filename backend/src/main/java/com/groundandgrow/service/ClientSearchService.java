@@ -0,0 +1,198 @@
+package com.groundandgrow.service;
+
+import com.groundandgrow.model.ClientDirectoryEntry;
+import com.groundandgrow.util.ClientSearchIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Client autocomplete backed by one in-memory index per psychologist.
+ * An index is loaded from the client directory on first search. Writes on this node are applied
+ * straight away (or buffered while the index is still loading), and every search at most once per
+ * refresh interval pulls directory entries changed since the last pull, so writes made on other
+ * nodes show up within that interval. Indexes idle for too long, or beyond the size limit, are dropped.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ClientSearchService {
+
+    public static final int DEFAULT_LIMIT = 10;
+    public static final int MAX_LIMIT = 50;
+
+    // Overlap between refresh windows, covering in-flight writes and clock differences between nodes
+    private static final long REFRESH_OVERLAP_SECONDS = 5;
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${app.client-search.max-indexes:200}")
+    private int maxIndexes = 200;
+
+    @Value("${app.client-search.refresh-ms:30000}")
+    private long refreshMs = 30000;
+
+    @Value("${app.client-search.idle-eviction-ms:1800000}")
+    private long idleEvictionMs = 1800000;
+
+    private final Map<String, LoadedIndex> indexes = new ConcurrentHashMap<>();
+
+    /**
+     * Search a psychologist's clients by partial name, email or phone
+     */
+    public List<ClientSearchIndex.Match> search(String psychologistId, String query, Integer limit) {
+        int maxResults = limit == null || limit <= 0 ? DEFAULT_LIMIT : Math.min(limit, MAX_LIMIT);
+        return indexFor(psychologistId).search(query, maxResults);
+    }
+
+    /**
+     * Add or update a client in the psychologist's index, if it is loaded or loading
+     */
+    public void update(String psychologistId, String email, String firstName, String lastName, String phone) {
+        LoadedIndex loaded = indexes.get(psychologistId);
+        if (loaded != null) {
+            loaded.apply(new ClientSearchIndex.Entry(email, firstName, lastName, phone));
+        }
+    }
+
+    /**
+     * Drop all loaded indexes so they are reloaded on next use (e.g. after a directory rebuild)
+     */
+    public void invalidateAll() {
+        indexes.clear();
+    }
+
+    private ClientSearchIndex indexFor(String psychologistId) {
+        LoadedIndex loaded = indexes.computeIfAbsent(psychologistId, key -> new LoadedIndex());
+
+        if (loaded.loading.compareAndSet(false, true)) {
+            evictIfNeeded(psychologistId);
+            load(psychologistId, loaded);
+        }
+
+        try {
+            loaded.ready.join();
+        } catch (CompletionException e) {
+            indexes.remove(psychologistId, loaded);
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+
+        loaded.lastUsed = System.currentTimeMillis();
+        refreshIfDue(psychologistId, loaded);
+        return loaded.index;
+    }
+
+    private void load(String psychologistId, LoadedIndex loaded) {
+        try {
+            LocalDateTime startedAt = LocalDateTime.now();
+            streamEntries(Criteria.where("psychologistId").is(psychologistId), loaded.index::put);
+            loaded.finishLoad(startedAt.minusSeconds(REFRESH_OVERLAP_SECONDS));
+            log.info("Loaded client search index for psychologist {} ({} clients)", psychologistId, loaded.index.size());
+        } catch (RuntimeException e) {
+            loaded.ready.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Pull directory entries changed since the last pull, e.g. by bookings handled on other nodes
+     */
+    private void refreshIfDue(String psychologistId, LoadedIndex loaded) {
+        long now = System.currentTimeMillis();
+        if (now - loaded.lastRefresh < refreshMs || !loaded.refreshing.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            LocalDateTime startedAt = LocalDateTime.now();
+            streamEntries(Criteria.where("psychologistId").is(psychologistId).and("updatedAt").gte(loaded.syncedUpTo),
+                loaded.index::put);
+            loaded.syncedUpTo = startedAt.minusSeconds(REFRESH_OVERLAP_SECONDS);
+            loaded.lastRefresh = now;
+        } catch (RuntimeException e) {
+            // Serve the current index; the next search retries
+            log.warn("Failed to refresh client search index for psychologist {}", psychologistId, e);
+        } finally {
+            loaded.refreshing.set(false);
+        }
+    }
+
+    /**
+     * Drop idle indexes and, beyond the size limit, the least recently used ones
+     */
+    private void evictIfNeeded(String keep) {
+        long idleBefore = System.currentTimeMillis() - idleEvictionMs;
+        indexes.entrySet().removeIf(entry -> !entry.getKey().equals(keep) && entry.getValue().lastUsed < idleBefore);
+
+        int excess = indexes.size() - maxIndexes;
+        if (excess > 0) {
+            indexes.entrySet().stream()
+                .filter(entry -> !entry.getKey().equals(keep))
+                .sorted(Comparator.comparingLong(entry -> entry.getValue().lastUsed))
+                .limit(excess)
+                .map(Map.Entry::getKey)
+                .toList()
+                .forEach(indexes::remove);
+        }
+    }
+
+    private void streamEntries(Criteria criteria, Consumer<ClientSearchIndex.Entry> sink) {
+        Query query = new Query(criteria);
+        query.fields().include("email", "firstName", "lastName", "phone");
+
+        try (Stream<ClientDirectoryEntry> entries = mongoTemplate.stream(query, ClientDirectoryEntry.class)) {
+            entries.forEach(entry -> sink.accept(new ClientSearchIndex.Entry(
+                entry.getEmail(), entry.getFirstName(), entry.getLastName(), entry.getPhone())));
+        }
+    }
+
+    /**
+     * An index with its load state. Updates arriving while the initial load streams are buffered
+     * and applied after it, so a write is never overwritten by the older copy being loaded.
+     */
+    private static final class LoadedIndex {
+
+        private final ClientSearchIndex index = new ClientSearchIndex();
+        private final CompletableFuture<Void> ready = new CompletableFuture<>();
+        private final AtomicBoolean loading = new AtomicBoolean();
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+        private List<ClientSearchIndex.Entry> pending = new ArrayList<>(); // Guarded by this; null once loaded
+        private volatile LocalDateTime syncedUpTo;
+        private volatile long lastRefresh = System.currentTimeMillis();
+        private volatile long lastUsed = System.currentTimeMillis();
+
+        private void apply(ClientSearchIndex.Entry entry) {
+            synchronized (this) {
+                if (pending != null) {
+                    pending.add(entry);
+                    return;
+                }
+            }
+            index.put(entry);
+        }
+
+        private void finishLoad(LocalDateTime loadedUpTo) {
+            synchronized (this) {
+                pending.forEach(index::put);
+                pending = null;
+            }
+            syncedUpTo = loadedUpTo;
+            ready.complete(null);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.groundandgrow.service;
+
+import com.groundandgrow.model.GuestBooking;
+import com.groundandgrow.util.BloomFilter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * In-memory Bloom filter of issued booking confirmation tokens.
+ * Lookups by token first ask the filter, so a guessed token that was never issued is rejected
+ * without a database query. The filter is built at startup from the confirmationToken index,
+ * updated as bookings are created and synced every few seconds with bookings created on other nodes.
+ * While the filter is rebuilt, new tokens go into both filters, and the rebuilt one catches up with
+ * bookings created since the rebuild started before it is used.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ConfirmationTokenGuard {
+
+    private static final double FALSE_POSITIVE_RATE = 0.001;
+    private static final long SYNC_OVERLAP_MS = 60_000;
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${app.booking.token-filter.capacity:100000}")
+    private int capacity;
+
+    @Value("${app.booking.token-filter.batch-size:1000}")
+    private int batchSize;
+
+    private volatile BloomFilter filter;
+    private volatile BloomFilter rebuilding;
+    private final AtomicInteger added = new AtomicInteger();
+    private volatile long lastSyncMs;
+
+    /**
+     * Whether a booking with this token may exist; false means it certainly does not
+     */
+    public boolean mightExist(String token) {
+        if (token == null || token.isBlank()) {
+            return false;
+        }
+        BloomFilter current = filter;
+        return current == null || current.mightContain(token); // Not loaded yet: ask the database
+    }
+
+    @EventListener
+    public void onBookingChanged(BookingChangedEvent event) {
+        String token = event.getBooking().getConfirmationToken();
+        if (event.getType() == BookingChangedEvent.Type.CREATED && token != null) {
+            add(token);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long startedAt = System.currentTimeMillis();
+        long count = mongoTemplate.count(new Query(Criteria.where("confirmationToken").ne(null)), GuestBooking.class);
+        BloomFilter rebuilt = new BloomFilter((int) Math.max(capacity, Math.min(count * 2, Integer.MAX_VALUE / 2)),
+                FALSE_POSITIVE_RATE);
+
+        int loaded;
+        rebuilding = rebuilt;
+        try {
+            loaded = stream(new Query(Criteria.where("confirmationToken").ne(null)), rebuilt);
+        } finally {
+            rebuilding = null;
+        }
+
+        filter = rebuilt;
+        // Catch up with bookings the scan may have missed: created on other nodes, or added here around the swap
+        loaded += stream(createdSince(startedAt), rebuilt);
+        added.set(loaded);
+        lastSyncMs = startedAt;
+        log.info("Loaded {} confirmation tokens into the token filter", loaded);
+    }
+
+    /**
+     * Add tokens of bookings created since the last sync (including on other nodes)
+     */
+    @Scheduled(fixedDelayString = "${app.booking.token-filter.sync-ms:5000}")
+    public void sync() {
+        BloomFilter current = filter;
+        if (current == null) {
+            return;
+        }
+        if (added.get() > current.getExpectedInsertions()) {
+            rebuild();
+            return;
+        }
+
+        long startedAt = System.currentTimeMillis();
+        int synced = stream(createdSince(lastSyncMs), current);
+        added.addAndGet(synced);
+        lastSyncMs = startedAt;
+    }
+
+    private void add(String token) {
+        BloomFilter current = filter;
+        if (current != null) {
+            current.add(token);
+            added.incrementAndGet();
+        }
+        BloomFilter next = rebuilding;
+        if (next != null) {
+            next.add(token);
+        }
+    }
+
+    /**
+     * Bookings with a token created after a time, less the sync overlap.
+     * ObjectIds start with their creation time, so this range scan runs on the _id index.
+     */
+    private Query createdSince(long timeMs) {
+        ObjectId since = new ObjectId(new Date(timeMs - SYNC_OVERLAP_MS));
+        return new Query(Criteria.where("_id").gt(since).and("confirmationToken").ne(null));
+    }
+
+    private int stream(Query query, BloomFilter target) {
+        query.fields().include("confirmationToken").exclude("_id");
+        query.cursorBatchSize(batchSize);
+
+        int count = 0;
+        try (Stream<Document> tokens = mongoTemplate.stream(query, Document.class, "guest_bookings")) {
+            for (Document document : (Iterable<Document>) tokens::iterator) {
+                target.add(document.getString("confirmationToken"));
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,221 @@
+package com.groundandgrow.service;
+
+import com.groundandgrow.dto.DashboardDTO;
+import com.groundandgrow.model.DashboardRollup;
+import com.groundandgrow.model.GuestBooking;
+import com.groundandgrow.model.Psychologist;
+import com.groundandgrow.repository.DashboardRollupRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationExpression;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.aggregation.MergeOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Maintains per-psychologist dashboard counters from booking events.
+ * Every booking change is an atomic $inc on three small documents (all time, the ISO week and
+ * the month the booking was created in), so the dashboard reads a fixed number of documents
+ * regardless of how much booking history a psychologist has.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DashboardStatsService {
+
+    private static final String OTHER_STATUS = "other";
+    private static final String STATUS_KEY_PATTERN = "^[a-z0-9_-]+$";
+
+    private final MongoTemplate mongoTemplate;
+    private final DashboardRollupRepository dashboardRollupRepository;
+    private final MessageThreadService messageThreadService;
+
+    @EventListener
+    public void onBookingChanged(BookingChangedEvent event) {
+        GuestBooking booking = event.getBooking();
+        switch (event.getType()) {
+            case CREATED:
+                apply(booking, null, statusKey(booking.getBookingStatus()), 1);
+                break;
+            case STATUS_CHANGED:
+                apply(booking, statusKey(event.getPreviousStatus()), statusKey(booking.getBookingStatus()), 0);
+                break;
+            case DELETED:
+                apply(booking, statusKey(booking.getBookingStatus()), null, -1);
+                break;
+            default:
+                // Rescheduling does not change any counter
+                break;
+        }
+    }
+
+    /**
+     * Dashboard statistics from the rollups of the current week and month plus the unread counter
+     */
+    public DashboardDTO.DashboardStats getStats(Psychologist psychologist) {
+        String psychologistId = psychologist.getId();
+        LocalDateTime now = LocalDateTime.now();
+        String weekId = DashboardRollup.idFor(psychologistId, DashboardRollup.weekOf(now));
+        String monthId = DashboardRollup.idFor(psychologistId, DashboardRollup.monthOf(now));
+        String allTimeId = DashboardRollup.idFor(psychologistId, DashboardRollup.ALL_TIME);
+
+        Map<String, DashboardRollup> rollups = new HashMap<>();
+        dashboardRollupRepository.findAllById(List.of(allTimeId, weekId, monthId))
+            .forEach(rollup -> rollups.put(rollup.getId(), rollup));
+        DashboardRollup allTime = rollups.getOrDefault(allTimeId, new DashboardRollup());
+        DashboardRollup week = rollups.getOrDefault(weekId, new DashboardRollup());
+        DashboardRollup month = rollups.getOrDefault(monthId, new DashboardRollup());
+
+        // Messages may be addressed by ID or by email (the JWT subject)
+        long unreadMessages = messageThreadService.getUnreadCount(List.of(psychologistId, psychologist.getEmail()));
+
+        return DashboardDTO.DashboardStats.builder()
+            .totalSessions(allTime.count(DashboardRollup.TOTAL))
+            .pendingBookings(allTime.count("confirmed"))
+            .completedThisWeek(week.count("completed"))
+            .completedThisMonth(month.count("completed"))
+            .cancelledThisMonth(month.count("cancelled"))
+            .noShowsThisMonth(month.count("no_show"))
+            .unreadMessages((int) unreadMessages)
+            .build();
+    }
+
+    /**
+     * Build the rollups from existing bookings on first start
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        if (dashboardRollupRepository.count() > 0 || !mongoTemplate.exists(new Query(), GuestBooking.class)) {
+            return;
+        }
+        rebuild();
+    }
+
+    /**
+     * Recompute every rollup from guest bookings with server-side aggregations
+     */
+    public void rebuild() {
+        log.info("Rebuilding dashboard rollups from guest bookings...");
+        dashboardRollupRepository.deleteAll();
+
+        String timezone = ZoneId.systemDefault().getId();
+        Date nowDate = Date.from(LocalDateTime.now().atZone(ZoneId.systemDefault()).toInstant());
+
+        rebuildPeriod(context -> new Document("$literal", DashboardRollup.ALL_TIME), nowDate);
+        rebuildPeriod(createdAtFormat("%G-W%V", timezone), nowDate);
+        rebuildPeriod(createdAtFormat("%Y-%m", timezone), nowDate);
+
+        log.info("Dashboard rollups rebuilt with {} documents", dashboardRollupRepository.count());
+    }
+
+    /**
+     * Move one booking between status counters (null for none) and adjust the total, in every period it counts towards
+     */
+    private void apply(GuestBooking booking, String removed, String added, int totalDelta) {
+        if (booking.getPsychologistId() == null) {
+            return;
+        }
+
+        boolean statusChanged = !Objects.equals(removed, added);
+        if (!statusChanged && totalDelta == 0) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime createdAt = booking.getCreatedAt() != null ? booking.getCreatedAt() : now;
+
+        for (String period : List.of(DashboardRollup.ALL_TIME, DashboardRollup.weekOf(createdAt),
+                DashboardRollup.monthOf(createdAt))) {
+            Update update = new Update()
+                .setOnInsert("psychologistId", booking.getPsychologistId())
+                .setOnInsert("period", period)
+                .set("updatedAt", now);
+            if (totalDelta != 0) {
+                update.inc("counts." + DashboardRollup.TOTAL, totalDelta);
+            }
+            if (statusChanged && added != null) {
+                update.inc("counts." + added, 1);
+            }
+            if (statusChanged && removed != null) {
+                update.inc("counts." + removed, -1);
+            }
+
+            mongoTemplate.upsert(new Query(Criteria.where("_id").is(DashboardRollup.idFor(booking.getPsychologistId(), period))),
+                update, DashboardRollup.class);
+        }
+    }
+
+    /**
+     * Group bookings by psychologist, period and status and merge one rollup per psychologist and period
+     */
+    private void rebuildPeriod(AggregationExpression period, Date nowDate) {
+        Aggregation aggregation = Aggregation.newAggregation(
+            Aggregation.match(Criteria.where("psychologistId").ne(null)),
+            Aggregation.project("psychologistId")
+                .and(period).as("period")
+                .and(statusKeyExpression()).as("status"),
+            Aggregation.group("psychologistId", "period", "status").count().as("count"),
+            Aggregation.group("psychologistId", "period")
+                .push(new Document("k", "$_id.status").append("v", "$count")).as("statuses")
+                .sum("count").as("total"),
+            Aggregation.project("psychologistId", "period")
+                .and(context -> new Document("$concat", List.of("$_id.psychologistId", ":", "$_id.period"))).as("_id")
+                .and(context -> new Document("$arrayToObject", new Document("$concatArrays", List.of(
+                    "$statuses", List.of(new Document("k", DashboardRollup.TOTAL).append("v", "$total"))))))
+                    .as("counts")
+                .and(context -> new Document("$literal", nowDate)).as("updatedAt"),
+            Aggregation.merge()
+                .intoCollection("dashboard_rollups")
+                .whenMatched(MergeOperation.WhenDocumentsMatch.replaceDocument())
+                .whenDocumentsDontMatch(MergeOperation.WhenDocumentsDontMatch.insertNewDocument())
+                .build()
+        ).withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+
+        mongoTemplate.aggregate(aggregation, GuestBooking.class, Document.class);
+    }
+
+    /**
+     * Counter key for a booking status; statuses are stored in mixed case by different flows
+     */
+    private String statusKey(String status) {
+        if (status == null) {
+            return OTHER_STATUS;
+        }
+        String key = status.toLowerCase(Locale.ROOT);
+        return key.matches(STATUS_KEY_PATTERN) ? key : OTHER_STATUS;
+    }
+
+    /**
+     * Server-side equivalent of {@link #statusKey(String)}
+     */
+    private AggregationExpression statusKeyExpression() {
+        Document status = new Document("$toLower", new Document("$ifNull", List.of("$bookingStatus", OTHER_STATUS)));
+        return context -> new Document("$cond", List.of(
+            new Document("$regexMatch", new Document("input", status).append("regex", STATUS_KEY_PATTERN)),
+            status,
+            OTHER_STATUS));
+    }
+
+    private AggregationExpression createdAtFormat(String format, String timezone) {
+        return context -> new Document("$dateToString", new Document("format", format)
+            .append("date", new Document("$ifNull", List.of("$createdAt", "$$NOW")))
+            .append("timezone", timezone));
+    }
+}
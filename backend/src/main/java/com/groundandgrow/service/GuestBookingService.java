@@ -3,18 +3,41 @@ package com.groundandgrow.service;
 import com.groundandgrow.dto.*;
 import com.groundandgrow.model.*;
 import com.groundandgrow.repository.*;
+import com.mongodb.client.result.DeleteResult;
+import com.mongodb.client.result.UpdateResult;
+import com.stripe.exception.ApiConnectionException;
+import com.stripe.exception.ApiException;
+import com.stripe.exception.IdempotencyException;
 import com.stripe.exception.StripeException;
-import com.stripe.model.checkout.Session;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 
 /**
@@ -33,6 +56,11 @@ public class GuestBookingService {
     private final SmsService smsService;
     private final AvailabilityService availabilityService;
     private final NotificationSchedulerService notificationSchedulerService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ConfirmationTokenGuard confirmationTokenGuard;
+    private final IdempotencyService idempotencyService;
+    private final TaskExecutor taskExecutor;
+    private final MongoTemplate mongoTemplate;
 
     @Value("${app.frontend.url}")
     private String frontendUrl;
@@ -40,14 +68,238 @@ public class GuestBookingService {
     @Value("${app.cancellation.hours-notice:24}")
     private int cancellationHoursNotice;
 
+    @Value("${app.booking.refund-reconcile-batch-size:20}")
+    private int refundReconcileBatchSize = 20;
+
+    @Value("${app.booking.refund-lease-ms:120000}")
+    private long refundLeaseMs = 120000;
+
+    @Value("${app.booking.refund-retry-backoff-ms:300000}")
+    private long refundRetryBackoffMs = 300000;
+
+    @Value("${app.booking.refund-max-attempts:8}")
+    private int refundMaxAttempts = 8;
+
+    @Value("${app.booking.checkout-recovery-after-ms:120000}")
+    private long checkoutRecoveryAfterMs = 120000;
+
+    @Value("${app.booking.checkout-recovery-batch-size:20}")
+    private int checkoutRecoveryBatchSize = 20;
+
+    private static final String BOOKING_IDEMPOTENCY_SCOPE = "booking";
+    private static final String REFUND_PENDING = "REFUND_PENDING";
+    private static final String REFUND_FAILED = "REFUND_FAILED";
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("EEEE, MMMM d, yyyy");
     private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("h:mm a");
 
     /**
-     * Create a new guest booking and initiate Stripe checkout
+     * Thrown when Stripe did not answer whether a checkout session was created. The booking is kept awaiting
+     * payment, so a retry with the same Idempotency-Key, the Stripe webhook or {@link #recoverPendingCheckouts}
+     * can settle it.
      */
-    @Transactional
-    public CheckoutSessionResponse createBooking(GuestBookingRequest request) {
+    public static class CheckoutPendingException extends RuntimeException {
+        private final String bookingId;
+
+        public CheckoutPendingException(String bookingId, Throwable cause) {
+            super("Payment provider did not respond in time", cause);
+            this.bookingId = bookingId;
+        }
+
+        public String getBookingId() {
+            return bookingId;
+        }
+    }
+
+    /**
+     * Create a new guest booking and initiate Stripe checkout.
+     * The booking is validated and saved on the calling thread; the returned future completes once
+     * Stripe has answered. With an idempotency key, a repeated request returns the original response
+     * instead of booking again.
+     */
+    public CompletableFuture<CheckoutSessionResponse> createBooking(GuestBookingRequest request, String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return createNewBooking(request);
+        }
+
+        IdempotencyService.Claim claim;
+        try {
+            claim = idempotencyService.begin(BOOKING_IDEMPOTENCY_SCOPE, idempotencyKey, fingerprint(request));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        if (claim.getReplay().isPresent()) {
+            return CompletableFuture.completedFuture(claim.getReplay().get());
+        }
+
+        CompletableFuture<CheckoutSessionResponse> booking = claim.getResourceId() != null
+                ? resumeBooking(request, claim.getResourceId())
+                : createNewBooking(request);
+        return booking.whenComplete((response, error) -> {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            if (error == null) {
+                idempotencyService.complete(BOOKING_IDEMPOTENCY_SCOPE, idempotencyKey, claim.getLeaseId(), response);
+            } else if (cause instanceof CheckoutPendingException) {
+                idempotencyService.suspend(BOOKING_IDEMPOTENCY_SCOPE, idempotencyKey, claim.getLeaseId(),
+                        ((CheckoutPendingException) cause).getBookingId());
+            } else {
+                idempotencyService.release(BOOKING_IDEMPOTENCY_SCOPE, idempotencyKey, claim.getLeaseId());
+            }
+        });
+    }
+
+    /**
+     * The stored response of an earlier request with this Idempotency-Key, if it completed.
+     * Checked before waiting room admission, so a retry of a finished booking is answered without queueing.
+     */
+    public Optional<CheckoutSessionResponse> findCompletedBooking(GuestBookingRequest request, String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return Optional.empty();
+        }
+        return idempotencyService.findCompleted(BOOKING_IDEMPOTENCY_SCOPE, idempotencyKey, fingerprint(request));
+    }
+
+    private CompletableFuture<CheckoutSessionResponse> createNewBooking(GuestBookingRequest request) {
+        GuestBooking savedBooking;
+        try {
+            savedBooking = saveNewBooking(request);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return startCheckout(savedBooking);
+    }
+
+    /**
+     * Continue a booking left awaiting payment by an earlier request with the same Idempotency-Key
+     */
+    private CompletableFuture<CheckoutSessionResponse> resumeBooking(GuestBookingRequest request, String bookingId) {
+        Optional<GuestBooking> booking;
+        try {
+            booking = guestBookingRepository.findById(bookingId);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        if (booking.isEmpty() || !"PENDING_PAYMENT".equals(booking.get().getBookingStatus())) {
+            // Removed or settled in the meantime (e.g. its checkout expired)
+            return createNewBooking(request);
+        }
+        log.info("Resuming checkout for booking {}", bookingId);
+        return startCheckout(booking.get());
+    }
+
+    private CompletableFuture<CheckoutSessionResponse> startCheckout(GuestBooking savedBooking) {
+        Long amountInCents;
+        try {
+            amountInCents = stripeService.convertToCents(savedBooking.getAmount());
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        // 5. Create Stripe checkout session
+        // Keyed per booking: a retried call for this booking returns the same Stripe session.
+        // The result is handled on the application executor: it saves to Mongo and runs event listeners,
+        // which must not hold a Stripe pool thread or the JDK's timeout thread
+        return stripeService.createCheckoutSessionAsync(
+                amountInCents,
+                savedBooking.getId(),
+                savedBooking.getEmail(),
+                "checkout-" + savedBooking.getId()
+        ).handleAsync((stripeSession, error) -> {
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                if (!isDefiniteRejection(cause)) {
+                    // Stripe may still create the session; the booking stays awaiting payment until that is known
+                    log.warn("No answer from Stripe creating checkout session for booking {}", savedBooking.getId(), cause);
+                    throw new CheckoutPendingException(savedBooking.getId(), cause);
+                }
+                log.error("Failed to create Stripe checkout session", cause);
+                // Clean up the booking
+                discardUnpaidBooking(savedBooking);
+                if (cause instanceof StripeException) {
+                    throw new RuntimeException("Failed to initiate payment: " + cause.getMessage());
+                }
+                throw cause instanceof RuntimeException ? (RuntimeException) cause : new CompletionException(cause);
+            }
+
+            // 6. Update booking with Stripe session ID
+            attachCheckoutSession(savedBooking, stripeSession.getId());
+
+            // 7. Return checkout URL
+            CheckoutSessionResponse response = new CheckoutSessionResponse();
+            response.setSessionId(stripeSession.getId());
+            response.setCheckoutSessionId(stripeSession.getId());
+            response.setCheckoutUrl(stripeSession.getUrl());
+            response.setBookingId(savedBooking.getId());
+            response.setConfirmationToken(savedBooking.getConfirmationToken());
+
+            log.info("Stripe checkout session created: {}", stripeSession.getId());
+            return response;
+        }, taskExecutor);
+    }
+
+    /**
+     * Whether Stripe definitely did not create a checkout session: the call was turned away before it was sent,
+     * or Stripe answered with an error. A timeout, lost connection, Stripe server error or a concurrent request
+     * with the same key leaves the outcome unknown.
+     */
+    private boolean isDefiniteRejection(Throwable cause) {
+        if (cause instanceof StripeService.PaymentProviderBusyException) {
+            return true;
+        }
+        return cause instanceof StripeException
+                && !(cause instanceof ApiConnectionException)
+                && !(cause instanceof ApiException)
+                && !(cause instanceof IdempotencyException);
+    }
+
+    /**
+     * Retry checkout for bookings whose Stripe call ended without an answer and that nobody resumed.
+     * The retry reuses the booking's checkout idempotency key, so it returns the session Stripe may already
+     * have created; its completed or expired webhook then settles the booking. Bookings Stripe rejects are removed.
+     */
+    @Scheduled(fixedDelayString = "${app.booking.checkout-recovery-ms:60000}")
+    public void recoverPendingCheckouts() {
+        Query query = new Query(Criteria.where("bookingStatus").is("PENDING_PAYMENT")
+                .and("stripeCheckoutSessionId").is(null)
+                .and("createdAt").lt(LocalDateTime.now().minus(checkoutRecoveryAfterMs, ChronoUnit.MILLIS)))
+                .with(Sort.by("createdAt"))
+                .limit(checkoutRecoveryBatchSize);
+        List<GuestBooking> stranded = mongoTemplate.find(query, GuestBooking.class);
+        if (stranded.isEmpty()) {
+            return;
+        }
+
+        log.info("Recovering checkout for {} bookings", stranded.size());
+        for (GuestBooking booking : stranded) {
+            startCheckout(booking).exceptionally(e -> {
+                log.warn("Checkout for booking {} is still unresolved", booking.getId());
+                return null;
+            });
+        }
+    }
+
+    /**
+     * Record a booking's checkout session, unless a webhook already linked it
+     */
+    private void attachCheckoutSession(GuestBooking booking, String sessionId) {
+        booking.setStripeCheckoutSessionId(sessionId);
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(booking.getId()).and("stripeCheckoutSessionId").is(null)),
+                new Update().set("stripeCheckoutSessionId", sessionId).set("updatedAt", LocalDateTime.now()),
+                GuestBooking.class);
+    }
+
+    /**
+     * Remove a booking whose checkout Stripe rejected, if it is still unpaid and has no session
+     */
+    private void discardUnpaidBooking(GuestBooking booking) {
+        DeleteResult result = mongoTemplate.remove(new Query(Criteria.where("_id").is(booking.getId())
+                .and("bookingStatus").is("PENDING_PAYMENT")
+                .and("stripeCheckoutSessionId").is(null)), GuestBooking.class);
+        if (result.getDeletedCount() > 0) {
+            eventPublisher.publishEvent(BookingChangedEvent.deleted(booking));
+        }
+    }
+
+    private GuestBooking saveNewBooking(GuestBookingRequest request) {
         log.info("Creating guest booking for {} {}", request.getFirstName(), request.getLastName());
 
         // 1. Validate psychologist exists
@@ -74,7 +326,7 @@ public class GuestBookingService {
         GuestBooking booking = new GuestBooking();
         booking.setFirstName(request.getFirstName());
         booking.setLastName(request.getLastName());
-        booking.setEmail(request.getEmail());
+        booking.setEmail(ClientDirectoryService.normaliseEmail(request.getEmail()));
         booking.setPhone(request.getPhone());
         booking.setPsychologistId(request.getPsychologistId());
         booking.setSessionTypeId(request.getSessionTypeId());
@@ -90,55 +342,28 @@ public class GuestBookingService {
         booking.setNotes(request.getNotes());
 
         GuestBooking savedBooking = guestBookingRepository.save(booking);
+        eventPublisher.publishEvent(BookingChangedEvent.created(savedBooking));
         log.info("Guest booking created with ID: {}", savedBooking.getId());
-
-        // 5. Create Stripe checkout session
-        try {
-            Long amountInCents = stripeService.convertToCents(sessionType.getPrice().doubleValue());
-            Session stripeSession = stripeService.createCheckoutSession(
-                    amountInCents,
-                    savedBooking.getId(),
-                    request.getEmail()
-            );
-
-            // 6. Update booking with Stripe session ID
-            savedBooking.setStripeCheckoutSessionId(stripeSession.getId());
-            guestBookingRepository.save(savedBooking);
-
-            // 7. Return checkout URL
-            CheckoutSessionResponse response = new CheckoutSessionResponse();
-            response.setSessionId(stripeSession.getId());
-            response.setCheckoutSessionId(stripeSession.getId());
-            response.setCheckoutUrl(stripeSession.getUrl());
-            response.setBookingId(savedBooking.getId());
-            response.setConfirmationToken(savedBooking.getConfirmationToken());
-
-            log.info("Stripe checkout session created: {}", stripeSession.getId());
-            return response;
-
-        } catch (StripeException e) {
-            log.error("Failed to create Stripe checkout session", e);
-            // Clean up the booking
-            guestBookingRepository.delete(savedBooking);
-            throw new RuntimeException("Failed to initiate payment: " + e.getMessage());
-        }
+        return savedBooking;
     }
 
     /**
      * Handle successful payment (called by Stripe webhook)
      */
     @Transactional
-    public void handlePaymentSuccess(String checkoutSessionId) {
+    public void handlePaymentSuccess(String checkoutSessionId, String bookingId) {
         log.info("Processing payment success for session: {}", checkoutSessionId);
 
-        GuestBooking booking = guestBookingRepository.findByStripeCheckoutSessionId(checkoutSessionId)
-                .orElseThrow(() -> new RuntimeException("Booking not found for session: " + checkoutSessionId));
+        GuestBooking booking = findBySession(checkoutSessionId, bookingId);
 
         // Update booking status
+        String previousStatus = booking.getBookingStatus();
+        String previousPaymentStatus = booking.getPaymentStatus();
         booking.setPaymentStatus("COMPLETED");
         booking.setBookingStatus("CONFIRMED");
         booking.setEmailConfirmed(true);
         guestBookingRepository.save(booking);
+        eventPublisher.publishEvent(BookingChangedEvent.statusChanged(booking, previousStatus, previousPaymentStatus));
 
         // Get psychologist details
         Psychologist psychologist = psychologistRepository.findById(booking.getPsychologistId())
@@ -186,39 +411,74 @@ public class GuestBookingService {
      * Handle failed payment (called by Stripe webhook)
      */
     @Transactional
-    public void handlePaymentFailure(String checkoutSessionId) {
+    public void handlePaymentFailure(String checkoutSessionId, String bookingId) {
         log.info("Processing payment failure for session: {}", checkoutSessionId);
 
-        GuestBooking booking = guestBookingRepository.findByStripeCheckoutSessionId(checkoutSessionId)
-                .orElseThrow(() -> new RuntimeException("Booking not found for session: " + checkoutSessionId));
+        GuestBooking booking = findBySession(checkoutSessionId, bookingId);
 
+        String previousStatus = booking.getBookingStatus();
+        String previousPaymentStatus = booking.getPaymentStatus();
         booking.setPaymentStatus("FAILED");
         booking.setBookingStatus("CANCELLED");
         guestBookingRepository.save(booking);
+        eventPublisher.publishEvent(BookingChangedEvent.statusChanged(booking, previousStatus, previousPaymentStatus));
 
         log.info("Booking {} marked as failed", booking.getId());
     }
 
+    /**
+     * Find the booking a checkout session was created for. A session whose creation timed out was never
+     * recorded on its booking, so it is found through the booking ID in the session's metadata instead.
+     */
+    private GuestBooking findBySession(String checkoutSessionId, String bookingId) {
+        Optional<GuestBooking> booking = guestBookingRepository.findByStripeCheckoutSessionId(checkoutSessionId);
+        if (booking.isEmpty() && bookingId != null) {
+            booking = guestBookingRepository.findById(bookingId)
+                    .filter(found -> found.getStripeCheckoutSessionId() == null);
+            booking.ifPresent(found -> found.setStripeCheckoutSessionId(checkoutSessionId));
+        }
+        return booking.orElseThrow(() -> new RuntimeException("Booking not found for session: " + checkoutSessionId));
+    }
+
     /**
      * Get booking by confirmation token
      */
     public GuestBookingDTO getBookingByToken(String token) {
-        GuestBooking booking = guestBookingRepository.findByConfirmationToken(token)
-                .orElseThrow(() -> new RuntimeException("Booking not found"));
+        GuestBooking booking = findByConfirmationToken(token);
 
         return convertToDTO(booking);
     }
 
     /**
-     * Cancel booking with refund
+     * Cancel booking with refund; the returned future completes once any refund has been answered by Stripe.
+     * A booking whose refund is still pending can be cancelled again to retry the refund.
      */
-    @Transactional
-    public CancellationResponse cancelBooking(String token) {
-        GuestBooking booking = guestBookingRepository.findByConfirmationToken(token)
-                .orElseThrow(() -> new RuntimeException("Booking not found"));
+    public CompletableFuture<CancellationResponse> cancelBooking(String token) {
+        GuestBooking booking;
+        try {
+            booking = findByConfirmationToken(token);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        if ("CANCELLED".equals(booking.getBookingStatus()) && REFUND_PENDING.equals(booking.getPaymentStatus())) {
+            CancellationResponse response = pendingRefundResponse(booking);
+            GuestBooking claimed;
+            try {
+                claimed = claimDueRefund(booking.getId());
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+            if (claimed == null) {
+                response.setRefundProcessed(false);
+                response.setRefundError("The refund is already being retried; it will complete automatically");
+                return CompletableFuture.completedFuture(response);
+            }
+            return requestRefund(claimed, response);
+        }
 
         if (!"CONFIRMED".equals(booking.getBookingStatus())) {
-            throw new RuntimeException("Only confirmed bookings can be cancelled");
+            return CompletableFuture.failedFuture(new RuntimeException("Only confirmed bookings can be cancelled"));
         }
 
         // Check cancellation policy (24 hours notice)
@@ -227,6 +487,7 @@ public class GuestBookingService {
         long hoursUntilAppointment = java.time.Duration.between(now, appointmentTime).toHours();
 
         boolean refundEligible = hoursUntilAppointment >= cancellationHoursNotice;
+        String previousPaymentStatus = booking.getPaymentStatus();
 
         CancellationResponse response = CancellationResponse.builder()
                 .bookingId(booking.getId())
@@ -234,32 +495,175 @@ public class GuestBookingService {
                 .refundEligible(refundEligible)
                 .build();
 
-        // Process refund if eligible
-        if (refundEligible && booking.getStripePaymentIntentId() != null) {
-            try {
-                Long amountInCents = stripeService.convertToCents(booking.getAmount());
-                stripeService.createRefund(booking.getStripePaymentIntentId(), amountInCents);
-                booking.setPaymentStatus("REFUNDED");
-                response.setRefundAmount(booking.getAmount());
-                response.setRefundProcessed(true);
-                log.info("Refund processed for booking: {}", booking.getId());
-            } catch (StripeException e) {
-                log.error("Failed to process refund", e);
-                response.setRefundProcessed(false);
-                response.setRefundError("Failed to process refund: " + e.getMessage());
-            }
-        } else {
+        if (!refundEligible || booking.getStripePaymentIntentId() == null) {
             response.setRefundAmount(0.0);
             response.setRefundProcessed(false);
             response.setRefundError(refundEligible ? "No payment to refund" :
                 "Cancellation must be made at least " + cancellationHoursNotice + " hours in advance");
+            markCancelled(booking, previousPaymentStatus);
+            sendCancellationNotifications(booking);
+            return CompletableFuture.completedFuture(response);
         }
 
-        // Update booking status
+        // Recorded before Stripe is called, so a refund that fails or times out is retried by reconcilePendingRefunds.
+        // The first attempt holds the refund's claim, so the reconciler leaves it alone while it is in flight
+        booking.setPaymentStatus(REFUND_PENDING);
+        booking.setRefundAttempts(1);
+        booking.setNextRefundAttemptAt(now.plus(refundLeaseMs, ChronoUnit.MILLIS));
+        try {
+            markCancelled(booking, previousPaymentStatus);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return requestRefund(booking, response).thenApply(result -> {
+            sendCancellationNotifications(booking);
+            return result;
+        });
+    }
+
+    /**
+     * Retry refunds of cancelled bookings that Stripe has not confirmed, e.g. because the call timed out.
+     * Each retry uses the booking's refund idempotency key, so a refund Stripe already made is returned
+     * rather than repeated. Refunds are claimed one by one before Stripe is called, so nodes running this
+     * at the same time never retry the same refund, and failed ones back off behind those that are due.
+     */
+    @Scheduled(fixedDelayString = "${app.booking.refund-reconcile-ms:60000}")
+    public void reconcilePendingRefunds() {
+        int claimed = 0;
+        GuestBooking booking;
+        // Submitted to the Stripe pool rather than called here, so the scheduler thread is not held by Stripe
+        while (claimed < refundReconcileBatchSize && (booking = claimDueRefund(null)) != null) {
+            claimed++;
+            String bookingId = booking.getId();
+            requestRefund(booking, pendingRefundResponse(booking)).exceptionally(e -> {
+                log.error("Failed to record refund retry for booking {}", bookingId, e);
+                return null;
+            });
+        }
+        if (claimed > 0) {
+            log.info("Retrying {} pending refunds", claimed);
+        }
+    }
+
+    /**
+     * Claim a pending refund that is due (the given booking's, or the longest waiting one) for one attempt.
+     * The claim pushes its next attempt back by the lease, so nobody else tries it while Stripe is called.
+     * Returns the claimed booking, or null if none is due.
+     */
+    private GuestBooking claimDueRefund(String bookingId) {
+        LocalDateTime now = LocalDateTime.now();
+        Criteria criteria = bookingId == null ? new Criteria() : Criteria.where("_id").is(bookingId);
+        criteria.and("paymentStatus").is(REFUND_PENDING)
+                .orOperator(Criteria.where("nextRefundAttemptAt").lte(now), Criteria.where("nextRefundAttemptAt").is(null));
+        Query query = new Query(criteria).with(Sort.by("nextRefundAttemptAt"));
+        Update update = new Update()
+                .inc("refundAttempts", 1)
+                .set("nextRefundAttemptAt", now.plus(refundLeaseMs, ChronoUnit.MILLIS))
+                .set("updatedAt", now);
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true), GuestBooking.class);
+    }
+
+    /**
+     * Refund a cancelled booking's payment in full. The caller holds the refund's claim. On success the
+     * booking is marked REFUNDED; on failure it stays REFUND_PENDING until its next attempt, or becomes
+     * REFUND_FAILED for follow-up by staff once it has run out of attempts.
+     */
+    private CompletableFuture<CancellationResponse> requestRefund(GuestBooking booking, CancellationResponse response) {
+        Long amountInCents = stripeService.convertToCents(booking.getAmount());
+        return stripeService.createRefundAsync(booking.getStripePaymentIntentId(), amountInCents, "refund-" + booking.getId())
+                .handleAsync((refund, error) -> {
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                    if (cause == null || isAlreadyRefunded(cause)) {
+                        markRefunded(booking);
+                        response.setRefundAmount(booking.getAmount());
+                        response.setRefundProcessed(true);
+                        log.info("Refund processed for booking: {}", booking.getId());
+                    } else {
+                        log.error("Failed to process refund for booking {} (attempt {})", booking.getId(),
+                                booking.getRefundAttempts(), cause);
+                        response.setRefundProcessed(false);
+                        if (recordRefundFailure(booking)) {
+                            response.setRefundError("Refund could not be processed; our team will contact you to arrange it");
+                        } else {
+                            response.setRefundError(cause instanceof TimeoutException
+                                    ? "Refund request timed out; it will be retried automatically"
+                                    : "Failed to process refund: " + cause.getMessage() + "; it will be retried automatically");
+                        }
+                    }
+                    return response;
+                }, taskExecutor);
+    }
+
+    private boolean isAlreadyRefunded(Throwable cause) {
+        return cause instanceof StripeException && "charge_already_refunded".equals(((StripeException) cause).getCode());
+    }
+
+    /**
+     * Schedule the next attempt of a failed refund with exponential backoff, or give up after the last attempt.
+     * Returns true if the refund is now REFUND_FAILED.
+     */
+    private boolean recordRefundFailure(GuestBooking booking) {
+        int attempts = booking.getRefundAttempts() == null ? 1 : booking.getRefundAttempts();
+        LocalDateTime now = LocalDateTime.now();
+        Query query = new Query(Criteria.where("_id").is(booking.getId()).and("paymentStatus").is(REFUND_PENDING));
+
+        if (attempts < refundMaxAttempts) {
+            long delayMs = refundRetryBackoffMs << Math.min(attempts - 1, 10);
+            mongoTemplate.updateFirst(query, new Update()
+                    .set("nextRefundAttemptAt", now.plus(delayMs, ChronoUnit.MILLIS))
+                    .set("updatedAt", now), GuestBooking.class);
+            return false;
+        }
+
+        UpdateResult result = mongoTemplate.updateFirst(query, new Update()
+                .set("paymentStatus", REFUND_FAILED)
+                .unset("nextRefundAttemptAt")
+                .set("updatedAt", now), GuestBooking.class);
+        if (result.getModifiedCount() > 0) {
+            booking.setPaymentStatus(REFUND_FAILED);
+            eventPublisher.publishEvent(BookingChangedEvent.statusChanged(booking, booking.getBookingStatus(), REFUND_PENDING));
+            log.error("Refund for booking {} failed {} times and needs manual follow-up", booking.getId(), attempts);
+        }
+        return true;
+    }
+
+    private CancellationResponse pendingRefundResponse(GuestBooking booking) {
+        return CancellationResponse.builder()
+                .bookingId(booking.getId())
+                .cancelled(true)
+                .refundEligible(true)
+                .build();
+    }
+
+    /**
+     * Mark a booking cancelled
+     */
+    private void markCancelled(GuestBooking booking, String previousPaymentStatus) {
+        String previousStatus = booking.getBookingStatus();
         booking.setBookingStatus("CANCELLED");
         guestBookingRepository.save(booking);
+        eventPublisher.publishEvent(BookingChangedEvent.statusChanged(booking, previousStatus, previousPaymentStatus));
+    }
 
-        // Send cancellation confirmation
+    /**
+     * Mark a cancelled booking's pending refund as made
+     */
+    private void markRefunded(GuestBooking booking) {
+        LocalDateTime now = LocalDateTime.now();
+        UpdateResult result = mongoTemplate.updateFirst(
+                new Query(Criteria.where("_id").is(booking.getId()).and("paymentStatus").is(REFUND_PENDING)),
+                new Update().set("paymentStatus", "REFUNDED").unset("nextRefundAttemptAt").set("updatedAt", now),
+                GuestBooking.class);
+        booking.setPaymentStatus("REFUNDED");
+        if (result.getModifiedCount() > 0) {
+            eventPublisher.publishEvent(BookingChangedEvent.statusChanged(booking, booking.getBookingStatus(), REFUND_PENDING));
+        }
+    }
+
+    /**
+     * Send the guest their cancellation confirmation
+     */
+    private void sendCancellationNotifications(GuestBooking booking) {
         try {
             String patientName = booking.getFirstName() + " " + booking.getLastName();
             String appointmentDate = booking.getAppointmentDateTime().format(DATE_FORMATTER);
@@ -270,8 +674,6 @@ public class GuestBookingService {
         } catch (Exception e) {
             log.error("Failed to send cancellation notifications", e);
         }
-
-        return response;
     }
 
     /**
@@ -279,8 +681,7 @@ public class GuestBookingService {
      */
     @Transactional
     public GuestBookingDTO rescheduleBooking(String token, RescheduleRequest request) {
-        GuestBooking booking = guestBookingRepository.findByConfirmationToken(token)
-                .orElseThrow(() -> new RuntimeException("Booking not found"));
+        GuestBooking booking = findByConfirmationToken(token);
 
         if (!"CONFIRMED".equals(booking.getBookingStatus())) {
             throw new RuntimeException("Only confirmed bookings can be rescheduled");
@@ -300,8 +701,10 @@ public class GuestBookingService {
         }
 
         // Update booking
+        LocalDateTime previousDateTime = booking.getAppointmentDateTime();
         booking.setAppointmentDateTime(newDateTime);
         GuestBooking updatedBooking = guestBookingRepository.save(booking);
+        eventPublisher.publishEvent(BookingChangedEvent.rescheduled(updatedBooking, previousDateTime));
 
         // Send rescheduling confirmation
         try {
@@ -334,7 +737,8 @@ public class GuestBookingService {
      * Get bookings by email
      */
     public List<GuestBookingDTO> getBookingsByEmail(String email) {
-        List<GuestBooking> bookings = guestBookingRepository.findByEmail(email);
+        // Stored emails are normalised, so the lookup must be too
+        List<GuestBooking> bookings = guestBookingRepository.findByEmail(ClientDirectoryService.normaliseEmail(email));
         return bookings.stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
@@ -376,6 +780,34 @@ public class GuestBookingService {
         }
     }
 
+    /**
+     * Fingerprint of the fields that decide what a booking request books, to detect a reused idempotency key
+     */
+    private String fingerprint(GuestBookingRequest request) {
+        String fields = String.join("|",
+                String.valueOf(request.getPsychologistId()),
+                String.valueOf(request.getSessionTypeId()),
+                String.valueOf(request.getAppointmentDateTime()),
+                String.valueOf(ClientDirectoryService.normaliseEmail(request.getEmail())));
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(fields.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Load a booking by confirmation token; tokens that were never issued are rejected without a query
+     */
+    private GuestBooking findByConfirmationToken(String token) {
+        if (!confirmationTokenGuard.mightExist(token)) {
+            throw new RuntimeException("Booking not found");
+        }
+        return guestBookingRepository.findByConfirmationToken(token)
+                .orElseThrow(() -> new RuntimeException("Booking not found"));
+    }
+
     /**
      * Convert GuestBooking to DTO
      */
@@ -0,0 +1,215 @@
+package com.groundandgrow.service;
+
+import com.groundandgrow.dto.CheckoutSessionResponse;
+import com.groundandgrow.model.IdempotencyRecord;
+import com.mongodb.client.result.UpdateResult;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Stores the outcome of requests made with an Idempotency-Key so that a retried request
+ * returns the original response instead of repeating its side effects.
+ * A key is claimed with an insert on its unique ID, so concurrent duplicates cannot both proceed.
+ * The claim is a lease: if its request dies without completing or releasing the key, a retry after
+ * the lease expires takes the key over instead of getting 409 until the record's TTL runs out.
+ * Failed requests release their key so the client can retry; records expire through a TTL index.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class IdempotencyService {
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${app.idempotency.ttl-hours:24}")
+    private long ttlHours;
+
+    @Value("${app.idempotency.lease-ms:60000}")
+    private long leaseMs;
+
+    /**
+     * Thrown when a key is reused for a different request
+     */
+    public static class KeyReusedException extends RuntimeException {
+        public KeyReusedException() {
+            super("Idempotency-Key was already used for a different request");
+        }
+    }
+
+    /**
+     * Thrown when the original request for a key is still being processed
+     */
+    public static class RequestInProgressException extends RuntimeException {
+        public RequestInProgressException() {
+            super("A request with this Idempotency-Key is still being processed");
+        }
+    }
+
+    /**
+     * Result of claiming a key: either the stored response to replay, or the lease now owned by the caller
+     */
+    public static class Claim {
+        private final CheckoutSessionResponse replay;
+        private final String leaseId;
+        private final String resourceId;
+
+        private Claim(CheckoutSessionResponse replay, String leaseId, String resourceId) {
+            this.replay = replay;
+            this.leaseId = leaseId;
+            this.resourceId = resourceId;
+        }
+
+        public Optional<CheckoutSessionResponse> getReplay() {
+            return Optional.ofNullable(replay);
+        }
+
+        /**
+         * The caller's lease, passed back to {@link #complete} or {@link #release} (null for a replay)
+         */
+        public String getLeaseId() {
+            return leaseId;
+        }
+
+        /**
+         * What an earlier, unfinished request with this key created, for the caller to resume (usually null)
+         */
+        public String getResourceId() {
+            return resourceId;
+        }
+    }
+
+    /**
+     * Claim a key for a request. Returns the stored response if the key already completed; otherwise
+     * the caller now holds the key's lease and must {@link #complete} or {@link #release} it.
+     */
+    public Claim begin(String scope, String key, String requestHash) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        String leaseId = UUID.randomUUID().toString();
+        IdempotencyRecord record = IdempotencyRecord.builder()
+                .id(id(scope, key))
+                .requestHash(requestHash)
+                .status(IdempotencyRecord.IN_PROGRESS)
+                .leaseId(leaseId)
+                .leaseExpiresAt(now.plus(leaseMs, ChronoUnit.MILLIS))
+                .createdAt(now)
+                .expiresAt(now.plusHours(ttlHours))
+                .build();
+        try {
+            mongoTemplate.insert(record);
+            return new Claim(null, leaseId, null);
+        } catch (DuplicateKeyException e) {
+            IdempotencyRecord existing = mongoTemplate.findById(id(scope, key), IdempotencyRecord.class);
+            if (existing == null) {
+                // Released or expired in the meantime
+                return begin(scope, key, requestHash);
+            }
+            if (!Objects.equals(existing.getRequestHash(), requestHash)) {
+                throw new KeyReusedException();
+            }
+            if (IdempotencyRecord.COMPLETED.equals(existing.getStatus())) {
+                log.info("Replaying response for idempotency key {}:{}", scope, key);
+                return new Claim(existing.getResponse(), null, null);
+            }
+            if (existing.getLeaseExpiresAt() != null && existing.getLeaseExpiresAt().isAfter(now)) {
+                throw new RequestInProgressException();
+            }
+            return takeOver(scope, key, requestHash, existing);
+        }
+    }
+
+    /**
+     * Look up the stored response of a completed key without claiming it
+     */
+    public Optional<CheckoutSessionResponse> findCompleted(String scope, String key, String requestHash) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            return Optional.empty();
+        }
+        IdempotencyRecord existing = mongoTemplate.findById(id(scope, key), IdempotencyRecord.class);
+        if (existing == null || !IdempotencyRecord.COMPLETED.equals(existing.getStatus())
+                || !Objects.equals(existing.getRequestHash(), requestHash)) {
+            return Optional.empty();
+        }
+        log.info("Replaying response for idempotency key {}:{}", scope, key);
+        return Optional.ofNullable(existing.getResponse());
+    }
+
+    /**
+     * Store the response of a request that holds the key's lease
+     */
+    public void complete(String scope, String key, String leaseId, CheckoutSessionResponse response) {
+        UpdateResult result = mongoTemplate.updateFirst(leaseQuery(scope, key, leaseId),
+                new Update().set("status", IdempotencyRecord.COMPLETED).set("response", response).unset("leaseExpiresAt"),
+                IdempotencyRecord.class);
+        if (result.getMatchedCount() == 0) {
+            log.warn("Lease on idempotency key {}:{} was lost before its request completed", scope, key);
+        }
+    }
+
+    /**
+     * Give up a key after the request failed, so a retry runs again
+     */
+    public void release(String scope, String key, String leaseId) {
+        mongoTemplate.remove(leaseQuery(scope, key, leaseId), IdempotencyRecord.class);
+    }
+
+    /**
+     * Give up a key whose request ended without knowing its outcome, keeping what it created.
+     * The lease ends at once, so a retry takes the key over and resumes with the resource.
+     */
+    public void suspend(String scope, String key, String leaseId, String resourceId) {
+        mongoTemplate.updateFirst(leaseQuery(scope, key, leaseId),
+                new Update().set("resourceId", resourceId).set("leaseExpiresAt", LocalDateTime.now()),
+                IdempotencyRecord.class);
+    }
+
+    /**
+     * Take over an IN_PROGRESS key whose lease expired, e.g. because its request's node died.
+     * Conditional on the lease seen, so of several retries racing for it only one wins.
+     */
+    private Claim takeOver(String scope, String key, String requestHash, IdempotencyRecord expired) {
+        LocalDateTime now = LocalDateTime.now();
+        String leaseId = UUID.randomUUID().toString();
+        Query query = new Query(Criteria.where("_id").is(id(scope, key))
+                .and("status").is(IdempotencyRecord.IN_PROGRESS)
+                .and("leaseId").is(expired.getLeaseId()));
+        Update update = new Update()
+                .set("leaseId", leaseId)
+                .set("leaseExpiresAt", now.plus(leaseMs, ChronoUnit.MILLIS))
+                .set("expiresAt", now.plusHours(ttlHours));
+        if (mongoTemplate.updateFirst(query, update, IdempotencyRecord.class).getMatchedCount() == 0) {
+            // Another retry took it over, or the original request finished after all
+            return begin(scope, key, requestHash);
+        }
+        log.warn("Took over idempotency key {}:{} after its lease expired", scope, key);
+        return new Claim(null, leaseId, expired.getResourceId());
+    }
+
+    private Query leaseQuery(String scope, String key, String leaseId) {
+        return new Query(Criteria.where("_id").is(id(scope, key))
+                .and("status").is(IdempotencyRecord.IN_PROGRESS)
+                .and("leaseId").is(leaseId));
+    }
+
+    private String id(String scope, String key) {
+        return scope + ":" + key;
+    }
+}
@@ -0,0 +1,255 @@
+package com.groundandgrow.service;
+
+import com.groundandgrow.model.AttachmentUsage;
+import com.groundandgrow.model.Message;
+import com.groundandgrow.repository.MessageRepository;
+import com.groundandgrow.util.LimitedInputStream;
+import com.mongodb.client.gridfs.model.GridFSFile;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.gridfs.GridFsResource;
+import org.springframework.data.mongodb.gridfs.GridFsTemplate;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+
+/**
+ * Stores message attachments in GridFS. Uploads are streamed chunk by chunk from the request
+ * body with size and per-user quota limits enforced while reading, so whole files are never
+ * held in memory. Quota is reserved atomically before an upload starts and settled to the
+ * stored size afterwards.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MessageAttachmentService {
+
+    private static final String FILES_COLLECTION = "fs.files";
+    private static final String OWNER_FIELD = "metadata.ownerId";
+    private static final int MAX_RESERVE_ATTEMPTS = 5;
+
+    private final GridFsTemplate gridFsTemplate;
+    private final MongoTemplate mongoTemplate;
+    private final MessageRepository messageRepository;
+
+    @Value("${app.messaging.attachment.max-file-size-bytes:26214400}")
+    private long maxFileSizeBytes;
+
+    @Value("${app.messaging.attachment.user-quota-bytes:524288000}")
+    private long userQuotaBytes;
+
+    /**
+     * Thrown when an upload exceeds the file size limit or the uploader's quota
+     */
+    public static class AttachmentTooLargeException extends RuntimeException {
+        public AttachmentTooLargeException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Attach a file to a message sent by the user, replacing any previous attachment
+     *
+     * @param declaredLength Content-Length of the upload, or -1 if unknown
+     */
+    public Message upload(String messageId, String userId, String filename, String contentType,
+                          long declaredLength, InputStream content) {
+        Message message = messageRepository.findById(messageId)
+            .orElseThrow(() -> new RuntimeException("Message not found"));
+
+        if (!userId.equals(message.getSenderId())) {
+            throw new RuntimeException("Unauthorized: Only the sender can attach files to a message");
+        }
+
+        // Reserve the space first, so concurrent uploads cannot together exceed the quota
+        long reserved = reserveQuota(userId, declaredLength);
+        String storedType = normaliseContentType(contentType);
+
+        Document metadata = new Document("ownerId", userId)
+            .append("messageId", messageId)
+            .append("contentType", storedType);
+
+        LimitedInputStream limited = new LimitedInputStream(content, reserved);
+        ObjectId fileId;
+        try {
+            fileId = gridFsTemplate.store(limited, filename, storedType, metadata);
+        } catch (RuntimeException e) {
+            adjustUsage(userId, -reserved);
+            // The GridFS upload is aborted and its chunks removed when the stream fails
+            if (limited.isLimitExceeded()) {
+                throw tooLarge(reserved);
+            }
+            throw e;
+        }
+        // Give back the part of the reservation the file did not use
+        adjustUsage(userId, limited.getCount() - reserved);
+
+        String previousAttachmentId = message.getAttachmentId();
+        Long previousSize = message.getAttachmentSize();
+
+        message.setAttachmentId(fileId.toHexString());
+        message.setAttachmentName(filename);
+        message.setAttachmentType(storedType);
+        message.setAttachmentSize(limited.getCount());
+        message.setAttachmentUrl("/messages/" + messageId + "/attachment");
+        Message saved = messageRepository.save(message);
+
+        if (previousAttachmentId != null) {
+            gridFsTemplate.delete(new Query(Criteria.where("_id").is(new ObjectId(previousAttachmentId))));
+            if (previousSize != null) {
+                adjustUsage(userId, -previousSize);
+            }
+        }
+
+        log.info("Attachment {} ({} bytes) stored for message {}", fileId, limited.getCount(), messageId);
+        return saved;
+    }
+
+    /**
+     * Get a message's attachment for streaming to the sender or receiver
+     */
+    public GridFsResource download(String messageId, String userId) {
+        Message message = messageRepository.findById(messageId)
+            .orElseThrow(() -> new RuntimeException("Message not found"));
+
+        if (!userId.equals(message.getSenderId()) && !userId.equals(message.getReceiverId())) {
+            throw new RuntimeException("Unauthorized: This message does not belong to you");
+        }
+        if (Boolean.TRUE.equals(message.getDeleted()) || message.getAttachmentId() == null) {
+            throw new RuntimeException("Attachment not found");
+        }
+
+        GridFSFile file = gridFsTemplate.findOne(
+            new Query(Criteria.where("_id").is(new ObjectId(message.getAttachmentId()))));
+        if (file == null) {
+            throw new RuntimeException("Attachment not found");
+        }
+        return new ReopeningGridFsResource(file, gridFsTemplate);
+    }
+
+    /**
+     * Total bytes of attachments uploaded by a user
+     */
+    public long getUsedBytes(String userId) {
+        Aggregation aggregation = Aggregation.newAggregation(
+            Aggregation.match(Criteria.where(OWNER_FIELD).is(userId)),
+            Aggregation.group().sum("length").as("total")
+        );
+
+        Document result = mongoTemplate.aggregate(aggregation, FILES_COLLECTION, Document.class).getUniqueMappedResult();
+        return result != null ? ((Number) result.get("total")).longValue() : 0;
+    }
+
+    /**
+     * Media type to serve a stored attachment as; values that do not parse are served as binary
+     */
+    public static MediaType mediaTypeOf(String contentType) {
+        try {
+            MediaType mediaType = MediaType.parseMediaType(contentType);
+            return mediaType.isConcrete() ? mediaType : MediaType.APPLICATION_OCTET_STREAM;
+        } catch (RuntimeException e) {
+            return MediaType.APPLICATION_OCTET_STREAM;
+        }
+    }
+
+    /**
+     * Validate a client-supplied content type, falling back to application/octet-stream
+     */
+    private String normaliseContentType(String contentType) {
+        return contentType == null ? MediaType.APPLICATION_OCTET_STREAM_VALUE : mediaTypeOf(contentType).toString();
+    }
+
+    /**
+     * Atomically add the bytes an upload may use (its declared length, else up to the file size limit)
+     * to the user's usage, if they fit in the quota
+     *
+     * @return the number of bytes reserved
+     */
+    private long reserveQuota(String userId, long declaredLength) {
+        for (int attempt = 0; attempt < MAX_RESERVE_ATTEMPTS; attempt++) {
+            AttachmentUsage usage = mongoTemplate.findById(userId, AttachmentUsage.class);
+            if (usage == null) {
+                // Seed the counter from stored files on the user's first upload
+                mongoTemplate.upsert(byId(userId),
+                    new Update().setOnInsert("usedBytes", getUsedBytes(userId)), AttachmentUsage.class);
+                continue;
+            }
+            long used = usage.getUsedBytes() != null ? usage.getUsedBytes() : 0;
+            long limit = Math.min(maxFileSizeBytes, userQuotaBytes - used);
+            if (limit <= 0 || declaredLength > limit) {
+                throw tooLarge(limit);
+            }
+
+            long reserve = declaredLength >= 0 ? declaredLength : limit;
+            Query fits = new Query(Criteria.where("_id").is(userId).and("usedBytes").lte(userQuotaBytes - reserve));
+            Update update = new Update()
+                .inc("usedBytes", reserve)
+                .set("updatedAt", LocalDateTime.now());
+            if (mongoTemplate.updateFirst(fits, update, AttachmentUsage.class).getModifiedCount() > 0) {
+                return reserve;
+            }
+        }
+        throw tooLarge(0);
+    }
+
+    private void adjustUsage(String userId, long delta) {
+        if (delta != 0) {
+            mongoTemplate.updateFirst(byId(userId),
+                new Update().inc("usedBytes", delta).set("updatedAt", LocalDateTime.now()), AttachmentUsage.class);
+        }
+    }
+
+    private Query byId(String id) {
+        return new Query(Criteria.where("_id").is(id));
+    }
+
+    /**
+     * GridFS collections are not mapped entities, so the quota index is created here
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndexes() {
+        mongoTemplate.indexOps(FILES_COLLECTION)
+            .ensureIndex(new Index().on(OWNER_FIELD, Sort.Direction.ASC).named("owner_idx"));
+    }
+
+    /**
+     * GridFS resource that opens a new download stream on every read, so a multi-range
+     * request can read several regions; each stream fetches only the chunks it needs
+     */
+    private static class ReopeningGridFsResource extends GridFsResource {
+
+        private final GridFsTemplate gridFsTemplate;
+
+        ReopeningGridFsResource(GridFSFile file, GridFsTemplate gridFsTemplate) {
+            super(file, InputStream.nullInputStream());
+            this.gridFsTemplate = gridFsTemplate;
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return gridFsTemplate.getResource(getGridFSFile()).getInputStream();
+        }
+    }
+
+    private AttachmentTooLargeException tooLarge(long limit) {
+        if (limit <= 0) {
+            return new AttachmentTooLargeException("Attachment storage quota exceeded");
+        }
+        return new AttachmentTooLargeException("Attachment exceeds the limit of " + limit + " bytes");
+    }
+}
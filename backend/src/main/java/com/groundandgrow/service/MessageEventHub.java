@@ -0,0 +1,228 @@
+package com.groundandgrow.service;
+
+import com.groundandgrow.dto.MessageEventDTO;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-process fan-out hub pushing message events to connected clients over Server-Sent Events.
+ * Each subscriber has a bounded queue drained by a small shared dispatcher pool. When a slow
+ * subscriber's queue overflows, its pending events are discarded and a single RESYNC event
+ * tells the client to refetch, so memory per subscriber stays bounded.
+ */
+@Slf4j
+@Service
+public class MessageEventHub {
+
+    @Value("${app.realtime.queue-capacity:64}")
+    private int queueCapacity;
+
+    @Value("${app.realtime.max-subscribers-per-user:5}")
+    private int maxSubscribersPerUser;
+
+    @Value("${app.realtime.emitter-timeout-ms:1800000}")
+    private long emitterTimeoutMs;
+
+    @Value("${app.realtime.dispatch-threads:4}")
+    private int dispatchThreads;
+
+    private final Map<String, List<Subscriber>> subscribers = new ConcurrentHashMap<>();
+
+    private ExecutorService dispatcher;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        dispatcher = Executors.newFixedThreadPool(dispatchThreads, runnable -> {
+            Thread thread = new Thread(runnable, "message-events-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.values().forEach(list -> list.forEach(Subscriber::close));
+        dispatcher.shutdownNow();
+    }
+
+    /**
+     * Open an event stream for a user, optionally sending an initial event
+     */
+    public SseEmitter subscribe(String userId, MessageEventDTO initialEvent) {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        Subscriber subscriber = new Subscriber(userId, emitter);
+
+        List<Subscriber> userSubscribers = subscribers.computeIfAbsent(userId, key -> new CopyOnWriteArrayList<>());
+        userSubscribers.add(subscriber);
+
+        // Keep the number of open streams per user bounded (oldest is closed first)
+        while (userSubscribers.size() > maxSubscribersPerUser) {
+            userSubscribers.get(0).close();
+        }
+
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(error -> subscriber.close());
+
+        if (initialEvent != null) {
+            subscriber.offer(toSseEvent(initialEvent));
+        }
+
+        log.debug("Message event stream opened for {}", userId);
+        return emitter;
+    }
+
+    /**
+     * Whether a user currently has at least one open stream
+     */
+    public boolean hasSubscribers(String userId) {
+        List<Subscriber> userSubscribers = subscribers.get(userId);
+        return userSubscribers != null && !userSubscribers.isEmpty();
+    }
+
+    /**
+     * Publish an event to every open stream of a user (never blocks the caller)
+     */
+    public void publish(String userId, MessageEventDTO event) {
+        List<Subscriber> userSubscribers = subscribers.get(userId);
+        if (userSubscribers == null || userSubscribers.isEmpty()) {
+            return;
+        }
+
+        Set<ResponseBodyEmitter.DataWithMediaType> sseEvent = toSseEvent(event);
+        for (Subscriber subscriber : userSubscribers) {
+            subscriber.offer(sseEvent);
+        }
+    }
+
+    /**
+     * Get the number of open streams across all users
+     */
+    public int getSubscriberCount() {
+        return subscribers.values().stream().mapToInt(List::size).sum();
+    }
+
+    /**
+     * Send a comment line to every stream so proxies keep connections open and dead ones are detected
+     */
+    @Scheduled(fixedRateString = "${app.realtime.heartbeat-ms:25000}")
+    public void heartbeat() {
+        Set<ResponseBodyEmitter.DataWithMediaType> comment =
+            Collections.unmodifiableSet(SseEmitter.event().comment("heartbeat").build());
+        subscribers.values().forEach(list -> list.forEach(subscriber -> subscriber.offer(comment)));
+    }
+
+    /**
+     * Serialise an event once. Builders append to their own state on every build(), so subscribers
+     * share the built, read-only parts rather than the builder.
+     */
+    private Set<ResponseBodyEmitter.DataWithMediaType> toSseEvent(MessageEventDTO event) {
+        return Collections.unmodifiableSet(SseEmitter.event()
+            .name(event.getType().toLowerCase())
+            .data(event)
+            .build());
+    }
+
+    private final class Subscriber {
+
+        private final String userId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<Set<ResponseBodyEmitter.DataWithMediaType>> queue;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean overflowed = new AtomicBoolean();
+        private volatile boolean closed;
+
+        private Subscriber(String userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        }
+
+        private void offer(Set<ResponseBodyEmitter.DataWithMediaType> event) {
+            if (closed) {
+                return;
+            }
+            if (!queue.offer(event)) {
+                overflowed.set(true);
+            }
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                try {
+                    dispatcher.execute(this::drain);
+                } catch (RuntimeException e) {
+                    draining.set(false);
+                    close();
+                }
+            }
+        }
+
+        private void drain() {
+            try {
+                if (overflowed.getAndSet(false)) {
+                    queue.clear();
+                    emitter.send(toSseEvent(MessageEventDTO.builder().type("RESYNC").build()));
+                    log.debug("Message event queue overflowed for {}, sent resync", userId);
+                }
+
+                Set<ResponseBodyEmitter.DataWithMediaType> event;
+                while (!closed && (event = queue.poll()) != null) {
+                    emitter.send(event);
+                }
+            } catch (IOException | IllegalStateException e) {
+                close();
+            } finally {
+                draining.set(false);
+                if (!closed && (!queue.isEmpty() || overflowed.get())) {
+                    scheduleDrain();
+                }
+            }
+        }
+
+        private void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            queue.clear();
+
+            List<Subscriber> userSubscribers = subscribers.get(userId);
+            if (userSubscribers != null) {
+                userSubscribers.remove(this);
+                if (userSubscribers.isEmpty()) {
+                    subscribers.remove(userId, userSubscribers);
+                }
+            }
+
+            try {
+                emitter.complete();
+            } catch (RuntimeException ignored) {
+                // Already completed
+            }
+            log.debug("Message event stream closed for {}", userId);
+        }
+    }
+}
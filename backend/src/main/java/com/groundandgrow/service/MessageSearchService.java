@@ -0,0 +1,139 @@
+package com.groundandgrow.service;
+
+import com.groundandgrow.model.Message;
+import com.groundandgrow.model.MessageSearchEntry;
+import com.groundandgrow.util.KeysetCursor;
+import com.mongodb.client.model.IndexOptions;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.aggregation.ConvertOperators;
+import org.springframework.data.mongodb.core.aggregation.MergeOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.TextQuery;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Full-text search over messages, scoped to one participant by an equality prefix on the text index.
+ * A search only touches the index entries of the searching user, instead of every matching message
+ * in the collection.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MessageSearchService {
+
+    private static final String COLLECTION = "message_search";
+    private static final String TEXT_INDEX = "owner_text_idx";
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Make a new message searchable by its sender and receiver
+     */
+    public void index(Message message) {
+        for (String ownerId : ownersOf(message)) {
+            mongoTemplate.save(MessageSearchEntry.builder()
+                .id(MessageSearchEntry.idFor(message.getId(), ownerId))
+                .messageId(message.getId())
+                .ownerId(ownerId)
+                .subject(message.getSubject())
+                .content(message.getContent())
+                .createdAt(message.getCreatedAt())
+                .build());
+        }
+    }
+
+    /**
+     * Remove a (soft-deleted) message from search
+     */
+    public void remove(Message message) {
+        mongoTemplate.remove(new Query(Criteria.where("messageId").is(message.getId())), MessageSearchEntry.class);
+    }
+
+    /**
+     * Up to limit matches of a user's messages after the cursor, newest first
+     */
+    public List<MessageSearchEntry> search(String userId, String query, KeysetCursor after, int limit) {
+        Criteria criteria = Criteria.where("ownerId").is(userId);
+        if (after != null) {
+            criteria = new Criteria().andOperator(criteria, after.after("createdAt", true));
+        }
+
+        Query search = TextQuery.queryText(TextCriteria.forDefaultLanguage().matching(query))
+            .addCriteria(criteria)
+            .with(Sort.by(Sort.Direction.DESC, "createdAt", "_id"))
+            .limit(limit);
+        return mongoTemplate.find(search, MessageSearchEntry.class);
+    }
+
+    /**
+     * Create the owner-prefixed text index, drop the old collection-wide one on messages,
+     * and fill the search collection from existing messages on first start
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndexes() {
+        mongoTemplate.getCollection(COLLECTION).createIndex(
+            new Document("ownerId", 1).append("subject", "text").append("content", "text"),
+            new IndexOptions().name(TEXT_INDEX).weights(new Document("subject", 2)));
+
+        String messages = mongoTemplate.getCollectionName(Message.class);
+        for (Document index : mongoTemplate.getCollection(messages).listIndexes()) {
+            if (index.get("key", Document.class).containsKey("_fts")) {
+                mongoTemplate.getCollection(messages).dropIndex(index.getString("name"));
+                log.info("Dropped collection-wide message text index {}", index.getString("name"));
+            }
+        }
+
+        if (!mongoTemplate.exists(new Query(), MessageSearchEntry.class) && mongoTemplate.exists(new Query(), Message.class)) {
+            backfill();
+        }
+    }
+
+    private void backfill() {
+        log.info("Building message search entries from existing messages...");
+
+        Aggregation aggregation = Aggregation.newAggregation(
+            Aggregation.match(Criteria.where("deleted").is(false)),
+            Aggregation.project("subject", "content", "createdAt")
+                .and(ConvertOperators.valueOf("_id").convertToString()).as("messageId")
+                .and(context -> new Document("$setUnion", List.of(List.of("$senderId", "$receiverId")))).as("ownerId"),
+            Aggregation.unwind("ownerId"),
+            Aggregation.match(Criteria.where("ownerId").ne(null)),
+            Aggregation.project("messageId", "ownerId", "subject", "content", "createdAt")
+                .and(context -> new Document("$concat", List.of("$messageId", ":", "$ownerId"))).as("_id"),
+            Aggregation.merge()
+                .intoCollection(COLLECTION)
+                .whenMatched(MergeOperation.WhenDocumentsMatch.replaceDocument())
+                .whenDocumentsDontMatch(MergeOperation.WhenDocumentsDontMatch.insertNewDocument())
+                .build()
+        ).withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+
+        mongoTemplate.aggregate(aggregation, Message.class, Document.class);
+        log.info("Built {} message search entries", mongoTemplate.count(new Query(), MessageSearchEntry.class));
+    }
+
+    private List<String> ownersOf(Message message) {
+        Set<String> owners = new LinkedHashSet<>();
+        if (message.getSenderId() != null) {
+            owners.add(message.getSenderId());
+        }
+        if (message.getReceiverId() != null) {
+            owners.add(message.getReceiverId());
+        }
+        return new ArrayList<>(owners);
+    }
+}
@@ -1,16 +1,28 @@
 package com.groundandgrow.service;
 
+import com.groundandgrow.dto.CursorPageDTO;
+import com.groundandgrow.dto.MessageEventDTO;
 import com.groundandgrow.model.Message;
+import com.groundandgrow.model.MessageSearchEntry;
+import com.groundandgrow.model.MessageThread;
 import com.groundandgrow.repository.MessageRepository;
+import com.groundandgrow.util.KeysetCursor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 /**
  * Service for managing secure messaging between psychologists and clients
@@ -20,8 +32,15 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class MessageService {
 
+    public static final int DEFAULT_PAGE_SIZE = 30;
+    public static final int MAX_PAGE_SIZE = 100;
+
     private final MessageRepository messageRepository;
     private final NotificationSchedulerService notificationSchedulerService;
+    private final MessageThreadService messageThreadService;
+    private final MessageSearchService messageSearchService;
+    private final MessageEventHub messageEventHub;
+    private final MongoTemplate mongoTemplate;
 
     /**
      * Send a message
@@ -53,9 +72,12 @@ public class MessageService {
             .build();
 
         Message savedMessage = messageRepository.save(message);
+        messageThreadService.recordMessage(savedMessage);
+        messageSearchService.index(savedMessage);
         log.info("Message sent from {} to {}", senderId, receiverId);
 
-        // Notify recipient via email
+        // Push to the recipient's open streams, then notify via email
+        publishMessage(savedMessage);
         notifyRecipient(savedMessage);
 
         return savedMessage;
@@ -65,42 +87,127 @@ public class MessageService {
      * Get all messages in a thread
      */
     public List<Message> getThreadMessages(String threadId) {
-        return messageRepository.findByThreadIdOrderByCreatedAtAsc(threadId);
+        return findAll(Criteria.where("threadId").is(threadId), Sort.Direction.ASC);
+    }
+
+    /**
+     * Get a page of messages in a thread, newest first
+     */
+    public CursorPageDTO<Message> getThreadMessages(String threadId, String cursor, Integer limit) {
+        return findPage(Criteria.where("threadId").is(threadId), cursor, limit);
     }
 
     /**
-     * Mark a message as read
+     * Mark a message (and everything before it in the thread) as read for a user
      */
-    public Message markAsRead(String messageId) {
+    public Message markAsRead(String messageId, String userId) {
         Message message = messageRepository.findById(messageId)
             .orElseThrow(() -> new RuntimeException("Message not found"));
 
-        message.setIsRead(true);
-        message.setReadAt(LocalDateTime.now());
+        messageThreadService.markReadUpTo(message, userId);
+        publishUnreadCount(userId);
 
         log.info("Message {} marked as read", messageId);
-        return messageRepository.save(message);
+        return messageThreadService.applyReadState(List.of(message)).get(0);
+    }
+
+    /**
+     * Mark every message in a thread as read for a user
+     */
+    public int markThreadAsRead(String threadId, String userId) {
+        int cleared = messageThreadService.markThreadRead(threadId, userId);
+        if (cleared > 0) {
+            publishUnreadCount(userId);
+        }
+        return cleared;
     }
 
     /**
      * Get unread messages for a user
      */
     public List<Message> getUnreadMessages(String userId) {
-        return messageRepository.findByReceiverIdAndIsReadOrderByCreatedAtDesc(userId, false);
+        return findAll(unreadCriteria(userId), Sort.Direction.DESC);
+    }
+
+    /**
+     * Get a page of unread messages for a user, newest first
+     */
+    public CursorPageDTO<Message> getUnreadMessages(String userId, String cursor, Integer limit) {
+        return findPage(unreadCriteria(userId), cursor, limit);
     }
 
     /**
      * Get all messages for a user (sent or received)
      */
     public List<Message> getUserMessages(String userId) {
-        return messageRepository.findBySenderIdOrReceiverIdOrderByCreatedAtDesc(userId, userId);
+        return findAll(participantCriteria(userId), Sort.Direction.DESC);
+    }
+
+    /**
+     * Get a page of messages for a user (sent or received), newest first
+     */
+    public CursorPageDTO<Message> getUserMessages(String userId, String cursor, Integer limit) {
+        return findPage(participantCriteria(userId), cursor, limit);
+    }
+
+    /**
+     * Full-text search over the subject and content of a user's messages (sent or received), newest first
+     */
+    public CursorPageDTO<Message> searchMessages(String userId, String query, String cursor, Integer limit) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Search query is required");
+        }
+        int pageSize = pageSize(limit);
+
+        List<MessageSearchEntry> hits = messageSearchService.search(userId, query, KeysetCursor.decode(cursor), pageSize + 1);
+        boolean hasMore = hits.size() > pageSize;
+        if (hasMore) {
+            hits = hits.subList(0, pageSize);
+        }
+
+        String nextCursor = null;
+        if (hasMore) {
+            MessageSearchEntry last = hits.get(hits.size() - 1);
+            nextCursor = new KeysetCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+
+        // Load the hits in rank order, skipping any deleted since they were indexed
+        Map<String, Message> messages = new HashMap<>();
+        mongoTemplate.find(new Query(notDeleted(Criteria.where("_id").in(
+                hits.stream().map(MessageSearchEntry::getMessageId).collect(Collectors.toList())))), Message.class)
+            .forEach(message -> messages.put(message.getId(), message));
+        List<Message> items = hits.stream()
+            .map(hit -> messages.get(hit.getMessageId()))
+            .filter(Objects::nonNull)
+            .collect(Collectors.toList());
+
+        return CursorPageDTO.<Message>builder()
+            .items(messageThreadService.applyReadState(items))
+            .hasMore(hasMore)
+            .nextCursor(nextCursor)
+            .limit(pageSize)
+            .build();
+    }
+
+    /**
+     * Get a page of a user's conversations, most recently active first
+     */
+    public CursorPageDTO<MessageThread> getInbox(String userId, String cursor, Integer limit) {
+        return messageThreadService.getInbox(userId, cursor, limit);
     }
 
     /**
      * Get messages for a specific appointment
      */
     public List<Message> getAppointmentMessages(String appointmentId) {
-        return messageRepository.findByAppointmentIdOrderByCreatedAtAsc(appointmentId);
+        return findAll(Criteria.where("appointmentId").is(appointmentId), Sort.Direction.ASC);
+    }
+
+    /**
+     * Get a page of messages for a specific appointment, newest first
+     */
+    public CursorPageDTO<Message> getAppointmentMessages(String appointmentId, String cursor, Integer limit) {
+        return findPage(Criteria.where("appointmentId").is(appointmentId), cursor, limit);
     }
 
     /**
@@ -114,6 +221,9 @@ public class MessageService {
         message.setDeletedAt(LocalDateTime.now());
 
         messageRepository.save(message);
+        messageThreadService.recordMessageDeleted(message);
+        messageSearchService.remove(message);
+        publishUnreadCount(message.getReceiverId());
         log.info("Message {} soft deleted", messageId);
     }
 
@@ -142,6 +252,50 @@ public class MessageService {
         }
     }
 
+    /**
+     * Open a real-time event stream for a user, starting with their current unread count
+     */
+    public SseEmitter subscribe(String userId) {
+        return messageEventHub.subscribe(userId, unreadCountEvent(userId));
+    }
+
+    /**
+     * Push a new message and the recipient's updated unread count to their open streams
+     */
+    private void publishMessage(Message message) {
+        String receiverId = message.getReceiverId();
+        if (!messageEventHub.hasSubscribers(receiverId)) {
+            return;
+        }
+
+        messageEventHub.publish(receiverId, MessageEventDTO.builder()
+            .type("MESSAGE")
+            .messageId(message.getId())
+            .threadId(message.getThreadId())
+            .senderId(message.getSenderId())
+            .senderType(message.getSenderType())
+            .subject(message.getSubject())
+            .createdAt(message.getCreatedAt())
+            .build());
+        messageEventHub.publish(receiverId, unreadCountEvent(receiverId));
+    }
+
+    /**
+     * Push a user's current unread count so all of their open sessions stay in sync
+     */
+    private void publishUnreadCount(String userId) {
+        if (messageEventHub.hasSubscribers(userId)) {
+            messageEventHub.publish(userId, unreadCountEvent(userId));
+        }
+    }
+
+    private MessageEventDTO unreadCountEvent(String userId) {
+        return MessageEventDTO.builder()
+            .type("UNREAD_COUNT")
+            .unreadCount(messageThreadService.getUnreadCount(userId))
+            .build();
+    }
+
     /**
      * Notify recipient of new message via email
      */
@@ -184,6 +338,71 @@ public class MessageService {
      * Count unread messages for a user
      */
     public long countUnreadMessages(String userId) {
-        return messageRepository.findByReceiverIdAndIsReadOrderByCreatedAtDesc(userId, false).size();
+        return messageThreadService.getUnreadCount(userId);
+    }
+
+    private Criteria unreadCriteria(String userId) {
+        return messageThreadService.unreadCriteria(userId);
+    }
+
+    private Criteria participantCriteria(String userId) {
+        return new Criteria().orOperator(
+            Criteria.where("senderId").is(userId),
+            Criteria.where("receiverId").is(userId));
+    }
+
+    private int pageSize(Integer limit) {
+        return limit == null || limit <= 0 ? DEFAULT_PAGE_SIZE : Math.min(limit, MAX_PAGE_SIZE);
+    }
+
+    /**
+     * Restrict a query to messages that have not been soft deleted.
+     * Uses an equality match so the partial indexes on {deleted: false} apply.
+     */
+    private Criteria notDeleted(Criteria criteria) {
+        return new Criteria().andOperator(criteria, Criteria.where("deleted").is(false));
+    }
+
+    private List<Message> findAll(Criteria criteria, Sort.Direction direction) {
+        Query query = new Query(notDeleted(criteria))
+            .with(Sort.by(direction, "createdAt", "_id"));
+        return messageThreadService.applyReadState(mongoTemplate.find(query, Message.class));
+    }
+
+    /**
+     * Keyset page over (createdAt, _id), newest first
+     */
+    private CursorPageDTO<Message> findPage(Criteria criteria, String cursor, Integer limit) {
+        int pageSize = pageSize(limit);
+
+        Criteria pageCriteria = notDeleted(criteria);
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        if (after != null) {
+            pageCriteria = new Criteria().andOperator(pageCriteria, after.after("createdAt", true));
+        }
+
+        Query query = new Query(pageCriteria)
+            .with(Sort.by(Sort.Direction.DESC, "createdAt", "_id"))
+            .limit(pageSize + 1);
+
+        List<Message> messages = mongoTemplate.find(query, Message.class);
+
+        boolean hasMore = messages.size() > pageSize;
+        if (hasMore) {
+            messages = messages.subList(0, pageSize);
+        }
+
+        String nextCursor = null;
+        if (hasMore) {
+            Message last = messages.get(messages.size() - 1);
+            nextCursor = new KeysetCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+
+        return CursorPageDTO.<Message>builder()
+            .items(messageThreadService.applyReadState(messages))
+            .hasMore(hasMore)
+            .nextCursor(nextCursor)
+            .limit(pageSize)
+            .build();
     }
 }
@@ -0,0 +1,542 @@
+package com.groundandgrow.service;
+
+import com.groundandgrow.dto.CursorPageDTO;
+import com.groundandgrow.model.Message;
+import com.groundandgrow.model.MessageThread;
+import com.groundandgrow.model.UnreadMessageCounter;
+import com.groundandgrow.repository.MessageThreadRepository;
+import com.groundandgrow.repository.UnreadMessageCounterRepository;
+import com.groundandgrow.util.KeysetCursor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationExpression;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Maintains per-thread summaries (read watermarks, latest message preview) and per-user unread counters.
+ * Unread badges are a single point read, marking a thread read is a single thread update,
+ * and an inbox page is a single indexed query over the summaries.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MessageThreadService {
+
+    private static final int PREVIEW_LENGTH = 140;
+    private static final int MAX_WATERMARK_ATTEMPTS = 5;
+
+    private final MongoTemplate mongoTemplate;
+    private final MessageThreadRepository messageThreadRepository;
+    private final UnreadMessageCounterRepository unreadMessageCounterRepository;
+
+    /**
+     * Record a newly sent message: create the thread summary if needed and
+     * increment the receiver's unread counters
+     */
+    public void recordMessage(Message message) {
+        LocalDateTime sentAt = message.getCreatedAt();
+
+        // 1. Create the thread with both participants on first message
+        Update createThread = new Update()
+            .setOnInsert("appointmentId", message.getAppointmentId())
+            .setOnInsert("createdAt", sentAt)
+            .setOnInsert("participants", List.of(
+                MessageThread.Participant.builder()
+                    .userId(message.getSenderId())
+                    .userType(message.getSenderType())
+                    .unreadCount(0)
+                    .build(),
+                MessageThread.Participant.builder()
+                    .userId(message.getReceiverId())
+                    .userType(message.getReceiverType())
+                    .unreadCount(0)
+                    .build()));
+        mongoTemplate.upsert(byId(message.getThreadId()), createThread, MessageThread.class);
+
+        // 2. Bump the receiver's unread count, unless their watermark has already passed this message.
+        // Count and watermark live in the same document, so they cannot drift apart
+        Query unreadByReceiver = new Query(Criteria.where("_id").is(message.getThreadId())
+            .and("participants").elemMatch(unreadBy(message.getReceiverId(), sentAt)));
+        boolean counted = mongoTemplate.updateFirst(unreadByReceiver,
+            new Update().inc("participants.$.unreadCount", 1), MessageThread.class).getModifiedCount() > 0;
+
+        // 3. Point the preview at this message unless a newer one already landed
+        Query newerThanLast = new Query(Criteria.where("_id").is(message.getThreadId())
+            .orOperator(
+                Criteria.where("lastMessageAt").exists(false),
+                Criteria.where("lastMessageAt").lte(sentAt)));
+        Update preview = new Update()
+            .set("lastMessageAt", sentAt)
+            .set("lastMessage", toLastMessage(message));
+        mongoTemplate.updateFirst(newerThanLast, preview, MessageThread.class);
+
+        // 4. Bump the receiver's global unread counter
+        if (counted) {
+            incrementCounter(message.getReceiverId(), 1);
+        }
+    }
+
+    /**
+     * Mark every message in a thread as read for a user
+     *
+     * @return the number of messages that became read
+     */
+    public int markThreadRead(String threadId, String userId) {
+        Query query = new Query(Criteria.where("_id").is(threadId).and("participants.userId").is(userId));
+        Update update = new Update()
+            .set("participants.$.unreadCount", 0)
+            .max("participants.$.lastReadAt", LocalDateTime.now());
+
+        MessageThread previous = mongoTemplate.findAndModify(query, update,
+            FindAndModifyOptions.options().returnNew(false), MessageThread.class);
+
+        if (previous == null) {
+            throw new RuntimeException("Thread not found");
+        }
+
+        int cleared = unreadCountOf(previous.getParticipant(userId));
+        if (cleared > 0) {
+            incrementCounter(userId, -cleared);
+        }
+
+        log.info("Thread {} marked as read for {} ({} messages)", threadId, userId, cleared);
+        return cleared;
+    }
+
+    /**
+     * Advance a user's read watermark in a thread up to (and including) the given message.
+     * The watermark and unread count are updated together only if neither changed since they were
+     * read (a concurrent send or read retries), so the count always matches the watermark.
+     */
+    public void markReadUpTo(Message message, String userId) {
+        if (!userId.equals(message.getReceiverId())) {
+            return;
+        }
+
+        for (int attempt = 0; attempt < MAX_WATERMARK_ATTEMPTS; attempt++) {
+            MessageThread thread = messageThreadRepository.findById(message.getThreadId()).orElse(null);
+            MessageThread.Participant receiver = thread != null ? thread.getParticipant(userId) : null;
+            if (receiver == null || isRead(message, thread)) {
+                return;
+            }
+
+            // Messages to this user that become read with the new watermark
+            Criteria newlyRead = Criteria.where("threadId").is(message.getThreadId())
+                .and("receiverId").is(userId)
+                .and("deleted").is(false)
+                .and("createdAt").lte(message.getCreatedAt());
+            if (receiver.getLastReadAt() != null) {
+                newlyRead.gt(receiver.getLastReadAt());
+            }
+            int cleared = (int) Math.min(unreadCountOf(receiver), mongoTemplate.count(new Query(newlyRead), Message.class));
+
+            Query unchanged = new Query(Criteria.where("_id").is(message.getThreadId())
+                .and("participants").elemMatch(Criteria.where("userId").is(userId)
+                    .and("lastReadAt").is(receiver.getLastReadAt())
+                    .and("unreadCount").is(receiver.getUnreadCount())));
+            Update update = new Update()
+                .inc("participants.$.unreadCount", -cleared)
+                .max("participants.$.lastReadAt", message.getCreatedAt());
+
+            if (mongoTemplate.updateFirst(unchanged, update, MessageThread.class).getModifiedCount() > 0) {
+                if (cleared > 0) {
+                    incrementCounter(userId, -cleared);
+                }
+                return;
+            }
+        }
+
+        log.warn("Could not advance read watermark of {} in thread {} after {} attempts",
+            userId, message.getThreadId(), MAX_WATERMARK_ATTEMPTS);
+    }
+
+    /**
+     * Remove a soft-deleted message from the receiver's unread counts if it had not been read
+     */
+    public void recordMessageDeleted(Message message) {
+        MessageThread thread = messageThreadRepository.findById(message.getThreadId()).orElse(null);
+        if (thread == null) {
+            return;
+        }
+
+        if (thread.getLastMessage() != null && message.getId().equals(thread.getLastMessage().getMessageId())) {
+            refreshLastMessage(thread.getId());
+        }
+
+        // Only if the message is still behind the receiver's watermark at the time of the update
+        Query unreadByReceiver = new Query(Criteria.where("_id").is(message.getThreadId())
+            .and("participants").elemMatch(unreadBy(message.getReceiverId(), message.getCreatedAt())
+                .and("unreadCount").gt(0)));
+        Update update = new Update().inc("participants.$.unreadCount", -1);
+
+        if (mongoTemplate.updateFirst(unreadByReceiver, update, MessageThread.class).getModifiedCount() > 0) {
+            incrementCounter(message.getReceiverId(), -1);
+        }
+    }
+
+    /**
+     * Get the unread message count for a user (single point read)
+     */
+    public long getUnreadCount(String userId) {
+        return unreadMessageCounterRepository.findById(userId)
+            .map(UnreadMessageCounter::getUnreadCount)
+            .orElse(0L);
+    }
+
+    /**
+     * Get the combined unread message count for several identities of the same user (e.g. ID and email)
+     */
+    public long getUnreadCount(Collection<String> userIds) {
+        long total = 0;
+        for (UnreadMessageCounter counter : unreadMessageCounterRepository.findAllById(userIds)) {
+            total += counter.getUnreadCount() != null ? counter.getUnreadCount() : 0;
+        }
+        return total;
+    }
+
+    /**
+     * Get unread counts per appointment for a user known under one or more IDs (one query)
+     */
+    public Map<String, Integer> getUnreadCountsByAppointment(Collection<String> appointmentIds, Collection<String> userIds) {
+        Map<String, Integer> counts = new HashMap<>();
+        if (appointmentIds.isEmpty()) {
+            return counts;
+        }
+
+        Query query = new Query(Criteria.where("appointmentId").in(appointmentIds)
+            .and("participants").elemMatch(Criteria.where("userId").in(userIds).and("unreadCount").gt(0)));
+        query.fields().include("appointmentId", "participants");
+
+        for (MessageThread thread : mongoTemplate.find(query, MessageThread.class)) {
+            int unread = thread.getParticipants().stream()
+                .filter(participant -> userIds.contains(participant.getUserId()))
+                .mapToInt(this::unreadCountOf)
+                .sum();
+            counts.merge(thread.getAppointmentId(), unread, Integer::sum);
+        }
+        return counts;
+    }
+
+    /**
+     * Get threads in which a user has unread messages
+     */
+    public List<MessageThread> getUnreadThreads(String userId) {
+        Query query = new Query(Criteria.where("participants").elemMatch(
+            Criteria.where("userId").is(userId).and("unreadCount").gt(0)));
+        return mongoTemplate.find(query, MessageThread.class);
+    }
+
+    /**
+     * Get a page of a user's conversations, most recently active first
+     */
+    public CursorPageDTO<MessageThread> getInbox(String userId, String cursor, Integer limit) {
+        int pageSize = limit == null || limit <= 0
+            ? MessageService.DEFAULT_PAGE_SIZE
+            : Math.min(limit, MessageService.MAX_PAGE_SIZE);
+
+        Criteria criteria = Criteria.where("participants.userId").is(userId);
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        if (after != null) {
+            criteria = new Criteria().andOperator(criteria, after.after("lastMessageAt", true));
+        }
+
+        Query query = new Query(criteria)
+            .with(Sort.by(Sort.Direction.DESC, "lastMessageAt", "_id"))
+            .limit(pageSize + 1);
+
+        List<MessageThread> threads = mongoTemplate.find(query, MessageThread.class);
+
+        boolean hasMore = threads.size() > pageSize;
+        if (hasMore) {
+            threads = threads.subList(0, pageSize);
+        }
+
+        String nextCursor = null;
+        if (hasMore) {
+            MessageThread last = threads.get(threads.size() - 1);
+            nextCursor = new KeysetCursor(last.getLastMessageAt(), last.getId()).encode();
+        }
+
+        return CursorPageDTO.<MessageThread>builder()
+            .items(threads)
+            .hasMore(hasMore)
+            .nextCursor(nextCursor)
+            .limit(pageSize)
+            .build();
+    }
+
+    /**
+     * Criteria matching messages a user has not read yet, based on thread watermarks
+     */
+    public Criteria unreadCriteria(String userId) {
+        List<Criteria> perThread = new ArrayList<>();
+        for (MessageThread thread : getUnreadThreads(userId)) {
+            LocalDateTime watermark = thread.getParticipant(userId).getLastReadAt();
+            Criteria criteria = Criteria.where("threadId").is(thread.getId());
+            if (watermark != null) {
+                criteria = criteria.and("createdAt").gt(watermark);
+            }
+            perThread.add(criteria);
+        }
+
+        if (perThread.isEmpty()) {
+            // Matches nothing
+            return Criteria.where("receiverId").is(userId).and("_id").exists(false);
+        }
+
+        return new Criteria().andOperator(
+            Criteria.where("receiverId").is(userId),
+            new Criteria().orOperator(perThread));
+    }
+
+    /**
+     * Populate isRead/readAt on messages from their threads' read watermarks (one query per call)
+     */
+    public List<Message> applyReadState(List<Message> messages) {
+        if (messages.isEmpty()) {
+            return messages;
+        }
+
+        List<String> threadIds = messages.stream()
+            .map(Message::getThreadId)
+            .filter(Objects::nonNull)
+            .distinct()
+            .collect(Collectors.toList());
+
+        Map<String, MessageThread> threads = new HashMap<>();
+        messageThreadRepository.findAllById(threadIds).forEach(thread -> threads.put(thread.getId(), thread));
+
+        for (Message message : messages) {
+            MessageThread thread = threads.get(message.getThreadId());
+            if (thread == null) {
+                continue;
+            }
+            boolean read = isRead(message, thread);
+            message.setIsRead(read);
+            message.setReadAt(read ? thread.getParticipant(message.getReceiverId()).getLastReadAt() : null);
+        }
+        return messages;
+    }
+
+    /**
+     * Build thread summaries and unread counters from existing messages on first start
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        if (messageThreadRepository.count() > 0 || !mongoTemplate.exists(new Query(), Message.class)) {
+            return;
+        }
+
+        log.info("Backfilling message thread summaries from existing messages...");
+
+        Aggregation aggregation = Aggregation.newAggregation(
+            Aggregation.match(Criteria.where("deleted").ne(true).and("threadId").ne(null)),
+            Aggregation.sort(Sort.by("createdAt")),
+            Aggregation.group("threadId", "receiverId")
+                .last("_id").as("lastMessageId")
+                .last("senderId").as("lastSenderId")
+                .last("subject").as("lastSubject")
+                .last("content").as("lastContent")
+                .first("receiverType").as("receiverType")
+                .first("senderId").as("senderId")
+                .first("senderType").as("senderType")
+                .first("appointmentId").as("appointmentId")
+                .min("createdAt").as("firstMessageAt")
+                .max("createdAt").as("lastMessageAt")
+                .min(context -> new Document("$cond", Arrays.asList(
+                    new Document("$eq", List.of("$isRead", true)), null, "$createdAt"))).as("oldestUnreadAt")
+                .push("createdAt").as("sentAt"),
+            // The watermark sits just before the oldest unread message, so everything after it counts as unread
+            Aggregation.addFields().addField("unread").withValueOf(countSentSinceOldestUnread()).build(),
+            Aggregation.sort(Sort.by("_id.threadId"))
+        ).withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+
+        int threads = 0;
+        MessageThread current = null;
+
+        try (Stream<Document> rows = mongoTemplate.aggregateStream(aggregation, Message.class, Document.class)) {
+            for (Document row : (Iterable<Document>) rows::iterator) {
+                Document key = row.get("_id", Document.class);
+                String threadId = key.getString("threadId");
+
+                if (current == null || !current.getId().equals(threadId)) {
+                    if (current != null) {
+                        saveBackfilledThread(current);
+                        threads++;
+                    }
+                    current = MessageThread.builder()
+                        .id(threadId)
+                        .appointmentId(row.getString("appointmentId"))
+                        .participants(new ArrayList<>())
+                        .createdAt(toLocalDateTime(row.getDate("firstMessageAt")))
+                        .lastMessageAt(toLocalDateTime(row.getDate("lastMessageAt")))
+                        .build();
+                }
+
+                LocalDateTime lastMessageAt = toLocalDateTime(row.getDate("lastMessageAt"));
+                if (current.getLastMessage() == null || current.getLastMessageAt() == null
+                    || (lastMessageAt != null && lastMessageAt.isAfter(current.getLastMessageAt()))) {
+                    current.setLastMessageAt(lastMessageAt);
+                    current.setLastMessage(MessageThread.LastMessage.builder()
+                        .messageId(String.valueOf(row.get("lastMessageId")))
+                        .senderId(row.getString("lastSenderId"))
+                        .subject(row.getString("lastSubject"))
+                        .preview(preview(row.getString("lastContent")))
+                        .createdAt(lastMessageAt)
+                        .build());
+                }
+
+                Date oldestUnreadAt = row.getDate("oldestUnreadAt");
+                LocalDateTime lastReadAt = oldestUnreadAt != null
+                    ? toLocalDateTime(new Date(oldestUnreadAt.getTime() - 1))
+                    : lastMessageAt;
+                addOrUpdateParticipant(current, key.getString("receiverId"), row.getString("receiverType"),
+                    row.getInteger("unread", 0), lastReadAt);
+                addOrUpdateParticipant(current, row.getString("senderId"), row.getString("senderType"), 0, null);
+            }
+        }
+        if (current != null) {
+            saveBackfilledThread(current);
+            threads++;
+        }
+
+        log.info("Backfilled {} message thread summaries", threads);
+    }
+
+    /**
+     * Number of messages in a backfill group sent at or after its oldest unread message
+     */
+    private AggregationExpression countSentSinceOldestUnread() {
+        return context -> new Document("$size", new Document("$filter", new Document("input", "$sentAt")
+            .append("as", "sent")
+            .append("cond", new Document("$and", List.of(
+                new Document("$ne", Arrays.asList("$oldestUnreadAt", null)),
+                new Document("$gte", List.of("$$sent", "$oldestUnreadAt")))))));
+    }
+
+    private void saveBackfilledThread(MessageThread thread) {
+        messageThreadRepository.save(thread);
+        for (MessageThread.Participant participant : thread.getParticipants()) {
+            if (participant.getUnreadCount() > 0) {
+                incrementCounter(participant.getUserId(), participant.getUnreadCount());
+            }
+        }
+    }
+
+    private void addOrUpdateParticipant(MessageThread thread, String userId, String userType,
+                                        int unreadCount, LocalDateTime lastReadAt) {
+        if (userId == null) {
+            return;
+        }
+        MessageThread.Participant participant = thread.getParticipant(userId);
+        if (participant == null) {
+            thread.getParticipants().add(MessageThread.Participant.builder()
+                .userId(userId)
+                .userType(userType)
+                .unreadCount(unreadCount)
+                .lastReadAt(lastReadAt)
+                .build());
+            return;
+        }
+        participant.setUnreadCount(participant.getUnreadCount() + unreadCount);
+        if (lastReadAt != null) {
+            participant.setLastReadAt(lastReadAt);
+        }
+    }
+
+    /**
+     * Point the thread preview at its newest remaining message
+     */
+    private void refreshLastMessage(String threadId) {
+        Query latest = new Query(Criteria.where("threadId").is(threadId).and("deleted").is(false))
+            .with(Sort.by(Sort.Direction.DESC, "createdAt", "_id"))
+            .limit(1);
+        Message message = mongoTemplate.findOne(latest, Message.class);
+
+        Update update = message != null
+            ? new Update().set("lastMessage", toLastMessage(message))
+            : new Update().unset("lastMessage");
+        mongoTemplate.updateFirst(byId(threadId), update, MessageThread.class);
+    }
+
+    private MessageThread.LastMessage toLastMessage(Message message) {
+        return MessageThread.LastMessage.builder()
+            .messageId(message.getId())
+            .senderId(message.getSenderId())
+            .subject(message.getSubject())
+            .preview(preview(message.getContent()))
+            .createdAt(message.getCreatedAt())
+            .build();
+    }
+
+    private String preview(String content) {
+        if (content == null || content.length() <= PREVIEW_LENGTH) {
+            return content;
+        }
+        return content.substring(0, PREVIEW_LENGTH) + "...";
+    }
+
+    private boolean isRead(Message message, MessageThread thread) {
+        MessageThread.Participant receiver = thread.getParticipant(message.getReceiverId());
+        return receiver != null
+            && receiver.getLastReadAt() != null
+            && message.getCreatedAt() != null
+            && !message.getCreatedAt().isAfter(receiver.getLastReadAt());
+    }
+
+    /**
+     * Participant element of a user whose watermark is before the given time, i.e. who has not read a message sent then
+     */
+    private Criteria unreadBy(String userId, LocalDateTime sentAt) {
+        return Criteria.where("userId").is(userId)
+            .orOperator(
+                Criteria.where("lastReadAt").is(null),
+                Criteria.where("lastReadAt").lt(sentAt));
+    }
+
+    private int unreadCountOf(MessageThread.Participant participant) {
+        return participant != null && participant.getUnreadCount() != null ? participant.getUnreadCount() : 0;
+    }
+
+    private void incrementCounter(String userId, long delta) {
+        Update update = new Update()
+            .inc("unreadCount", delta)
+            .set("updatedAt", LocalDateTime.now());
+        mongoTemplate.upsert(byId(userId), update, UnreadMessageCounter.class);
+    }
+
+    private Query byId(String id) {
+        return new Query(Criteria.where("_id").is(id));
+    }
+
+    private LocalDateTime toLocalDateTime(Date date) {
+        if (date == null) {
+            return null;
+        }
+        return LocalDateTime.ofInstant(date.toInstant(), ZoneId.systemDefault());
+    }
+}
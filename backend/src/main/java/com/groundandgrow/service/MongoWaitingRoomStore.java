@@ -0,0 +1,113 @@
+package com.groundandgrow.service;
+
+import com.groundandgrow.model.WaitingRoomAdmission;
+import com.groundandgrow.model.WaitingRoomState;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * {@link WaitingRoomStore} in MongoDB: one queue document plus a document per admitted ticket
+ */
+@Component
+@RequiredArgsConstructor
+public class MongoWaitingRoomStore implements WaitingRoomStore {
+
+    private static final String QUEUE_ID = "booking";
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public void initialise(double admittedUpTo, long nowMs) {
+        mongoTemplate.upsert(queue(), new Update()
+                .setOnInsert("issued", 0L)
+                .setOnInsert("admittedUpTo", admittedUpTo)
+                .setOnInsert("lastAdvanceMs", nowMs)
+                .setOnInsert("reachedUpTo", 0L), WaitingRoomState.class);
+    }
+
+    @Override
+    public WaitingRoomState load() {
+        return mongoTemplate.findById(QUEUE_ID, WaitingRoomState.class);
+    }
+
+    @Override
+    public long nextSequence() {
+        WaitingRoomState state = mongoTemplate.findAndModify(queue(), new Update().inc("issued", 1L),
+                FindAndModifyOptions.options().returnNew(true), WaitingRoomState.class);
+        return state.getIssued();
+    }
+
+    @Override
+    public boolean advance(WaitingRoomState seen, double admittedUpTo, long lastAdvanceMs, long reachedUpTo) {
+        Query query = new Query(Criteria.where("_id").is(QUEUE_ID)
+                .and("lastAdvanceMs").is(seen.getLastAdvanceMs())
+                .and("reachedUpTo").is(seen.getReachedUpTo()));
+        // Lapsed admissions may have moved the frontier since it was loaded; keep what they added
+        Update update = new Update()
+                .inc("admittedUpTo", admittedUpTo - seen.getAdmittedUpTo())
+                .set("lastAdvanceMs", lastAdvanceMs)
+                .set("reachedUpTo", reachedUpTo);
+        return mongoTemplate.updateFirst(query, update, WaitingRoomState.class).getMatchedCount() > 0;
+    }
+
+    @Override
+    public void recordAdmissions(long fromSequence, long toSequence, long admittedAtMs, long retainMs) {
+        if (fromSequence > toSequence) {
+            return;
+        }
+        LocalDateTime expiresAt = LocalDateTime.now().plus(retainMs, ChronoUnit.MILLIS);
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, WaitingRoomAdmission.class);
+        for (long sequence = fromSequence; sequence <= toSequence; sequence++) {
+            // Insert only: an admission already recorded (or used, or lapsed) keeps its state
+            bulk.upsert(new Query(Criteria.where("_id").is(sequence)), new Update()
+                    .setOnInsert("admittedAtMs", admittedAtMs)
+                    .setOnInsert("claimed", false)
+                    .setOnInsert("lapsed", false)
+                    .setOnInsert("expiresAt", expiresAt));
+        }
+        bulk.execute();
+    }
+
+    @Override
+    public long reclaimLapsed(long admittedBeforeMs) {
+        long lapsed = mongoTemplate.updateMulti(new Query(Criteria.where("claimed").is(false)
+                        .and("lapsed").is(false)
+                        .and("admittedAtMs").lt(admittedBeforeMs)),
+                new Update().set("lapsed", true), WaitingRoomAdmission.class).getModifiedCount();
+        if (lapsed > 0) {
+            mongoTemplate.updateFirst(queue(), new Update().inc("admittedUpTo", (double) lapsed), WaitingRoomState.class);
+        }
+        return lapsed;
+    }
+
+    @Override
+    public boolean claim(long sequence, long admittedSinceMs) {
+        return mongoTemplate.updateFirst(open(sequence, admittedSinceMs), new Update().set("claimed", true),
+                WaitingRoomAdmission.class).getModifiedCount() > 0;
+    }
+
+    @Override
+    public boolean isClaimable(long sequence, long admittedSinceMs) {
+        return mongoTemplate.exists(open(sequence, admittedSinceMs), WaitingRoomAdmission.class);
+    }
+
+    private Query queue() {
+        return new Query(Criteria.where("_id").is(QUEUE_ID));
+    }
+
+    private Query open(long sequence, long admittedSinceMs) {
+        return new Query(Criteria.where("_id").is(sequence)
+                .and("claimed").is(false)
+                .and("lapsed").is(false)
+                .and("admittedAtMs").gte(admittedSinceMs));
+    }
+}
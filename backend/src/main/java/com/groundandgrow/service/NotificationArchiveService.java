@@ -0,0 +1,146 @@
+package com.groundandgrow.service;
+
+import com.groundandgrow.model.Notification;
+import com.groundandgrow.model.NotificationArchive;
+import com.groundandgrow.repository.NotificationArchiveRepository;
+import com.groundandgrow.repository.NotificationRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Moves settled notifications out of the hot notifications collection into a compact archive,
+ * and provides lookups that span both collections
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class NotificationArchiveService {
+
+    static final List<String> SETTLED_STATUSES = List.of("SENT", "CANCELLED");
+
+    private final NotificationRepository notificationRepository;
+    private final NotificationArchiveRepository notificationArchiveRepository;
+
+    @Value("${app.notification.archive.enabled:true}")
+    private boolean archiveEnabled;
+
+    @Value("${app.notification.archive.retention-days:30}")
+    private int retentionDays;
+
+    @Value("${app.notification.archive.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.notification.archive.max-batches-per-run:20}")
+    private int maxBatchesPerRun;
+
+    @Value("${app.notification.max-lookup-results:200}")
+    private int maxLookupResults = 200;
+
+    /**
+     * Archive settled notifications older than the retention period (hourly by default)
+     */
+    @Scheduled(cron = "${app.notification.archive.cron:0 15 * * * *}")
+    public void archiveSettledNotifications() {
+        if (!archiveEnabled) {
+            return;
+        }
+
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+        int archived = 0;
+
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            int moved = archiveBatch(cutoff);
+            archived += moved;
+            if (moved < batchSize) {
+                break;
+            }
+        }
+
+        if (archived > 0) {
+            log.info("Archived {} notifications created before {}", archived, cutoff);
+        }
+    }
+
+    /**
+     * Move a single batch of settled notifications to the archive.
+     * Archive records are written before the originals are deleted, so a crash
+     * between the two steps only leaves a duplicate that the next run overwrites.
+     */
+    int archiveBatch(LocalDateTime cutoff) {
+        List<Notification> batch = notificationRepository.findByStatusInAndCreatedAtBefore(
+            SETTLED_STATUSES, cutoff, PageRequest.of(0, batchSize, Sort.by("createdAt")));
+
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        LocalDateTime archivedAt = LocalDateTime.now();
+        List<NotificationArchive> archives = batch.stream()
+            .map(notification -> NotificationArchive.from(notification, archivedAt))
+            .collect(Collectors.toList());
+
+        notificationArchiveRepository.saveAll(archives);
+        notificationRepository.deleteAllById(batch.stream()
+            .map(Notification::getId)
+            .collect(Collectors.toList()));
+
+        return batch.size();
+    }
+
+    /**
+     * Find a notification by ID in the live collection, falling back to the archive
+     */
+    public Optional<Notification> findById(String id) {
+        Optional<Notification> live = notificationRepository.findById(id);
+        if (live.isPresent()) {
+            return live;
+        }
+        return notificationArchiveRepository.findById(id).map(NotificationArchive::toNotification);
+    }
+
+    /**
+     * Find the newest notifications (live and archived) for a guest booking, up to the lookup limit
+     */
+    public List<Notification> findByGuestBookingId(String guestBookingId) {
+        return merge(
+            notificationRepository.findByGuestBookingId(guestBookingId, newestFirst()),
+            notificationArchiveRepository.findByGuestBookingId(guestBookingId, newestFirst()));
+    }
+
+    /**
+     * Find the newest notifications (live and archived) for a recipient, up to the lookup limit.
+     * Older ones are reached through the paged recipient lookup.
+     */
+    public List<Notification> findByRecipientId(String recipientId) {
+        return merge(
+            notificationRepository.findByRecipientId(recipientId, newestFirst()),
+            notificationArchiveRepository.findByRecipientId(recipientId, newestFirst()));
+    }
+
+    private PageRequest newestFirst() {
+        return PageRequest.of(0, maxLookupResults, Sort.by(Sort.Direction.DESC, "createdAt"));
+    }
+
+    private List<Notification> merge(List<Notification> live, List<NotificationArchive> archived) {
+        List<Notification> merged = new ArrayList<>(live.size() + archived.size());
+        merged.addAll(live);
+        archived.stream()
+            .map(NotificationArchive::toNotification)
+            .forEach(merged::add);
+        merged.sort(Comparator.comparing(Notification::getCreatedAt,
+            Comparator.nullsLast(Comparator.reverseOrder())));
+        return merged.size() > maxLookupResults ? new ArrayList<>(merged.subList(0, maxLookupResults)) : merged;
+    }
+}
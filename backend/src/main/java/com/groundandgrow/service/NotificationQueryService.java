@@ -0,0 +1,145 @@
+package com.groundandgrow.service;
+
+import com.groundandgrow.dto.CursorPageDTO;
+import com.groundandgrow.dto.NotificationSummaryDTO;
+import com.groundandgrow.model.Notification;
+import com.groundandgrow.model.NotificationArchive;
+import com.groundandgrow.util.KeysetCursor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Bounded, projected queries over the notification queue for admin tooling.
+ * Pages span the live collection and the archive: archived notifications keep their IDs, so one
+ * cursor over _id continues through both.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class NotificationQueryService {
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Get a page of notifications in a given status, newest first
+     */
+    public CursorPageDTO<Notification> getByStatus(String status, String cursor, Integer limit) {
+        // Only settled notifications are ever archived
+        return findPage(Criteria.where("status").is(status), cursor, limit,
+            NotificationArchiveService.SETTLED_STATUSES.contains(status));
+    }
+
+    /**
+     * Get a page of notifications for a recipient, newest first
+     */
+    public CursorPageDTO<Notification> getByRecipient(String recipientId, String cursor, Integer limit) {
+        return findPage(Criteria.where("recipientId").is(recipientId), cursor, limit, true);
+    }
+
+    /**
+     * Count notifications per status, type and provider in a single aggregation
+     */
+    public NotificationSummaryDTO getSummary() {
+        Aggregation aggregation = Aggregation.newAggregation(
+            Aggregation.facet(Aggregation.group("status").count().as("count")).as("byStatus")
+                .and(Aggregation.group("notificationType").count().as("count")).as("byType")
+                .and(Aggregation.group("externalProvider").count().as("count")).as("byProvider")
+        );
+
+        Document result = mongoTemplate.aggregate(aggregation, Notification.class, Document.class)
+            .getUniqueMappedResult();
+
+        Map<String, Long> byStatus = toCounts(result, "byStatus");
+
+        return NotificationSummaryDTO.builder()
+            .total(byStatus.values().stream().mapToLong(Long::longValue).sum())
+            .byStatus(byStatus)
+            .byType(toCounts(result, "byType"))
+            .byProvider(toCounts(result, "byProvider"))
+            .build();
+    }
+
+    /**
+     * Keyset page over _id (descending), excluding message bodies and template data.
+     * With the archive included, a page is the newest matches of both collections merged; a notification
+     * present in both (archived while the archiver was interrupted) is listed once.
+     */
+    private CursorPageDTO<Notification> findPage(Criteria criteria, String cursor, Integer limit, boolean includeArchive) {
+        int pageSize = clampPageSize(limit);
+
+        if (cursor != null && !cursor.isEmpty()) {
+            if (!ObjectId.isValid(cursor)) {
+                throw new KeysetCursor.InvalidCursorException(null);
+            }
+            criteria = new Criteria().andOperator(criteria, Criteria.where("_id").lt(new ObjectId(cursor)));
+        }
+
+        Query query = new Query(criteria)
+            .with(Sort.by(Sort.Direction.DESC, "_id"))
+            .limit(pageSize + 1);
+        query.fields().exclude("message", "templateData");
+
+        List<Notification> notifications = mongoTemplate.find(query, Notification.class);
+        if (includeArchive) {
+            notifications = mergeById(notifications, mongoTemplate.find(query, NotificationArchive.class));
+        }
+
+        boolean hasMore = notifications.size() > pageSize;
+        if (hasMore) {
+            notifications = notifications.subList(0, pageSize);
+        }
+
+        return CursorPageDTO.<Notification>builder()
+            .items(notifications)
+            .hasMore(hasMore)
+            .nextCursor(hasMore ? notifications.get(notifications.size() - 1).getId() : null)
+            .limit(pageSize)
+            .build();
+    }
+
+    private List<Notification> mergeById(List<Notification> live, List<NotificationArchive> archived) {
+        // Hex ObjectIds sort as strings in the same order as _id
+        Map<String, Notification> merged = new TreeMap<>(Comparator.reverseOrder());
+        archived.forEach(archive -> merged.put(archive.getId(), archive.toNotification()));
+        live.forEach(notification -> merged.put(notification.getId(), notification));
+        return new ArrayList<>(merged.values());
+    }
+
+    private int clampPageSize(Integer limit) {
+        if (limit == null || limit <= 0) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(limit, MAX_PAGE_SIZE);
+    }
+
+    private Map<String, Long> toCounts(Document result, String facet) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        if (result == null) {
+            return counts;
+        }
+
+        for (Document bucket : result.getList(facet, Document.class, List.of())) {
+            Object key = bucket.get("_id");
+            counts.put(key != null ? key.toString() : "NONE", ((Number) bucket.get("count")).longValue());
+        }
+        return counts;
+    }
+}
@@ -8,6 +8,8 @@ import com.groundandgrow.repository.NotificationRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
@@ -38,44 +40,67 @@ public class NotificationSchedulerService {
     @Value("${app.notification.sms.enabled:false}")
     private boolean smsEnabled;
 
+    @Value("${app.notification.batch-size:200}")
+    private int batchSize;
+
+    @Value("${app.notification.max-batches-per-run:25}")
+    private int maxBatchesPerRun;
+
     /**
-     * Process pending notifications every minute
+     * Process pending notifications every minute, in bounded batches
      */
     @Scheduled(fixedDelay = 60000) // Run every 60 seconds
     public void processPendingNotifications() {
-        LocalDateTime now = LocalDateTime.now();
+        int processed = 0;
 
-        List<Notification> pendingNotifications = notificationRepository
-            .findByStatusAndScheduledForBefore("PENDING", now);
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            List<Notification> pendingNotifications = notificationRepository
+                .findByStatusAndScheduledForBefore("PENDING", LocalDateTime.now(),
+                    PageRequest.of(0, batchSize, Sort.by("scheduledFor")));
 
-        if (pendingNotifications.isEmpty()) {
-            return;
-        }
+            if (pendingNotifications.isEmpty()) {
+                break;
+            }
 
-        log.info("Processing {} pending notifications", pendingNotifications.size());
-
-        for (Notification notification : pendingNotifications) {
-            try {
-                sendNotification(notification);
-                notification.setStatus("SENT");
-                notification.setSentAt(LocalDateTime.now());
-            } catch (Exception e) {
-                log.error("Failed to send notification {}: {}", notification.getId(), e.getMessage());
-                notification.setStatus("FAILED");
-                notification.setErrorMessage(e.getMessage());
-                notification.setRetryCount(notification.getRetryCount() != null ? notification.getRetryCount() + 1 : 1);
-
-                // Retry up to 3 times
-                if (notification.getRetryCount() < 3) {
-                    notification.setStatus("PENDING");
-                    notification.setScheduledFor(LocalDateTime.now().plusMinutes(5)); // Retry in 5 minutes
-                }
-            } finally {
-                notificationRepository.save(notification);
+            log.info("Processing batch of {} pending notifications", pendingNotifications.size());
+
+            for (Notification notification : pendingNotifications) {
+                processNotification(notification);
+            }
+            processed += pendingNotifications.size();
+
+            if (pendingNotifications.size() < batchSize) {
+                break;
             }
         }
 
-        log.info("Completed processing pending notifications");
+        if (processed > 0) {
+            log.info("Completed processing {} pending notifications", processed);
+        }
+    }
+
+    /**
+     * Send a single notification and record the outcome
+     */
+    private void processNotification(Notification notification) {
+        try {
+            sendNotification(notification);
+            notification.setStatus("SENT");
+            notification.setSentAt(LocalDateTime.now());
+        } catch (Exception e) {
+            log.error("Failed to send notification {}: {}", notification.getId(), e.getMessage());
+            notification.setStatus("FAILED");
+            notification.setErrorMessage(e.getMessage());
+            notification.setRetryCount(notification.getRetryCount() != null ? notification.getRetryCount() + 1 : 1);
+
+            // Retry up to 3 times
+            if (notification.getRetryCount() < 3) {
+                notification.setStatus("PENDING");
+                notification.setScheduledFor(LocalDateTime.now().plusMinutes(5)); // Retry in 5 minutes
+            }
+        } finally {
+            notificationRepository.save(notification);
+        }
     }
 
     /**
@@ -5,16 +5,26 @@ import com.groundandgrow.model.Psychologist;
 import com.groundandgrow.model.GuestBooking;
 import com.groundandgrow.repository.PsychologistRepository;
 import com.groundandgrow.repository.GuestBookingRepository;
-import com.groundandgrow.repository.MessageRepository;
+import com.groundandgrow.security.UserPrincipal;
+import com.groundandgrow.util.KeysetCursor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
 
-import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Service for psychologist profile and dashboard management
@@ -24,9 +34,21 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class PsychologistService {
 
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+
+    private static final String[] APPOINTMENT_SUMMARY_FIELDS = {
+        "firstName", "lastName", "email", "phone", "psychologistId", "sessionTypeId", "appointmentDateTime",
+        "durationMinutes", "modality", "amount", "paymentStatus", "bookingStatus", "meetingLink", "roomNumber",
+        "reminderSent", "createdAt", "updatedAt"
+    };
+    private static final String[] APPOINTMENT_NOTE_FIELDS = { "notes", "psychologistNotes", "cancellationReason" };
+
     private final PsychologistRepository psychologistRepository;
     private final GuestBookingRepository guestBookingRepository;
-    private final MessageRepository messageRepository;
+    private final DashboardStatsService dashboardStatsService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MongoTemplate mongoTemplate;
 
     /**
      * Get all active psychologists
@@ -119,7 +141,7 @@ public class PsychologistService {
         List<GuestBooking> upcomingBookings = guestBookingRepository
             .findByPsychologistIdAndAppointmentDateTimeBetween(psychologistId, todayEnd, weekEnd);
 
-        DashboardDTO.DashboardStats stats = calculateStats(psychologistId);
+        DashboardDTO.DashboardStats stats = calculateStats(psychologist);
 
         return DashboardDTO.builder()
             .psychologist(mapToDTO(psychologist))
@@ -134,39 +156,87 @@ public class PsychologistService {
     }
 
     /**
-     * Get appointments for a psychologist with optional filters
+     * Get appointments for a psychologist with optional filters, in appointment order
      */
     public List<AppointmentDTO> getAppointments(String psychologistEmailOrId, LocalDate startDate,
                                                  LocalDate endDate, String status) {
         log.info("Fetching appointments for psychologist: {} with filters - start: {}, end: {}, status: {}",
                 psychologistEmailOrId, startDate, endDate, status);
 
-        // Get the psychologist ID
-        Psychologist psychologist = psychologistRepository.findByEmail(psychologistEmailOrId)
-            .orElseGet(() -> psychologistRepository.findById(psychologistEmailOrId)
-                .orElseThrow(() -> new RuntimeException("Psychologist not found")));
-        String psychologistId = psychologist.getId();
+        AppointmentFilter filter = AppointmentFilter.builder()
+            .startDate(startDate)
+            .endDate(endDate)
+            .statuses(status != null && !status.isEmpty() ? List.of(status) : null)
+            .includeNotes(true)
+            .build();
+
+        Query query = new Query(appointmentCriteria(resolvePsychologistId(psychologistEmailOrId), filter))
+            .with(Sort.by(Sort.Direction.ASC, "appointmentDateTime", "_id"));
 
-        List<GuestBooking> bookings;
+        return mongoTemplate.find(query, GuestBooking.class).stream()
+            .map(this::mapBookingToAppointmentDTO)
+            .collect(Collectors.toList());
+    }
 
-        if (startDate != null && endDate != null) {
-            LocalDateTime start = startDate.atStartOfDay();
-            LocalDateTime end = endDate.atTime(23, 59, 59);
-            bookings = guestBookingRepository
-                .findByPsychologistIdAndAppointmentDateTimeBetween(psychologistId, start, end);
-        } else {
-            bookings = guestBookingRepository.findByPsychologistId(psychologistId);
+    /**
+     * Get a keyset page of appointments ordered by appointment time.
+     * Filters run in MongoDB against the psychologist/status/appointment indexes, and long
+     * free-text fields are only loaded when the filter asks for notes.
+     */
+    public CursorPageDTO<AppointmentDTO> getAppointmentsPage(String psychologistEmailOrId, AppointmentFilter filter,
+                                                             String cursor, Integer limit) {
+        int pageSize = limit == null || limit <= 0 ? DEFAULT_PAGE_SIZE : Math.min(limit, MAX_PAGE_SIZE);
+
+        Criteria criteria = appointmentCriteria(resolvePsychologistId(psychologistEmailOrId), filter);
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        if (after != null) {
+            criteria = new Criteria().andOperator(criteria, after.after("appointmentDateTime", filter.isDescending()));
         }
 
-        if (status != null && !status.isEmpty()) {
-            bookings = bookings.stream()
-                .filter(b -> status.equalsIgnoreCase(b.getBookingStatus()))
-                .collect(Collectors.toList());
+        Query query = new Query(criteria)
+            .with(Sort.by(filter.isDescending() ? Sort.Direction.DESC : Sort.Direction.ASC, "appointmentDateTime", "_id"))
+            .limit(pageSize + 1);
+        query.fields().include(APPOINTMENT_SUMMARY_FIELDS);
+        if (filter.isIncludeNotes()) {
+            query.fields().include(APPOINTMENT_NOTE_FIELDS);
         }
 
-        return bookings.stream()
-            .map(this::mapBookingToAppointmentDTO)
-            .collect(Collectors.toList());
+        List<GuestBooking> bookings = mongoTemplate.find(query, GuestBooking.class);
+
+        boolean hasMore = bookings.size() > pageSize;
+        if (hasMore) {
+            bookings = bookings.subList(0, pageSize);
+        }
+
+        String nextCursor = null;
+        if (hasMore) {
+            GuestBooking last = bookings.get(bookings.size() - 1);
+            nextCursor = new KeysetCursor(last.getAppointmentDateTime(), last.getId()).encode();
+        }
+
+        return CursorPageDTO.<AppointmentDTO>builder()
+            .items(bookings.stream()
+                .map(this::mapBookingToAppointmentDTO)
+                .collect(Collectors.toList()))
+            .hasMore(hasMore)
+            .nextCursor(nextCursor)
+            .limit(pageSize)
+            .build();
+    }
+
+    /**
+     * Open a cursor over a psychologist's appointments in appointment order.
+     * Only summary fields are loaded unless the filter asks for notes; the caller must close the stream.
+     */
+    public Stream<GuestBooking> streamAppointments(String psychologistId, AppointmentFilter filter, int batchSize) {
+        Query query = new Query(appointmentCriteria(psychologistId, filter))
+            .with(Sort.by(filter.isDescending() ? Sort.Direction.DESC : Sort.Direction.ASC, "appointmentDateTime", "_id"))
+            .cursorBatchSize(batchSize);
+        query.fields().include(APPOINTMENT_SUMMARY_FIELDS);
+        if (filter.isIncludeNotes()) {
+            query.fields().include(APPOINTMENT_NOTE_FIELDS);
+        }
+        return mongoTemplate.stream(query, GuestBooking.class);
     }
 
     /**
@@ -195,12 +265,14 @@ public class PsychologistService {
         GuestBooking booking = guestBookingRepository.findById(appointmentId)
             .orElseThrow(() -> new RuntimeException("Appointment not found"));
 
+        String previousStatus = booking.getBookingStatus();
         booking.setBookingStatus(status.toLowerCase());
         if (reason != null && !reason.isEmpty()) {
             booking.setCancellationReason(reason);
         }
 
         GuestBooking updated = guestBookingRepository.save(booking);
+        eventPublisher.publishEvent(BookingChangedEvent.statusChanged(updated, previousStatus));
         log.info("Appointment {} status updated to: {}", appointmentId, status);
         return mapBookingToAppointmentDTO(updated);
     }
@@ -223,43 +295,63 @@ public class PsychologistService {
 
     // Helper methods
 
-    private DashboardDTO.DashboardStats calculateStats(String psychologistId) {
-        log.debug("Calculating statistics for psychologist: {}", psychologistId);
+    private String resolvePsychologistId(String psychologistEmailOrId) {
+        // The authenticated principal already carries the ID from the token claims
+        Optional<UserPrincipal> current = UserPrincipal.currentMatching(psychologistEmailOrId);
+        if (current.isPresent()) {
+            return current.get().getId();
+        }
+        return psychologistRepository.findByEmail(psychologistEmailOrId)
+            .orElseGet(() -> psychologistRepository.findById(psychologistEmailOrId)
+                .orElseThrow(() -> new RuntimeException("Psychologist not found")))
+            .getId();
+    }
 
-        LocalDateTime monthStart = LocalDate.now().withDayOfMonth(1).atStartOfDay();
-        LocalDateTime weekStart = LocalDate.now().with(DayOfWeek.MONDAY).atStartOfDay();
+    /**
+     * Equality filters first, then the appointment time range, matching the guest booking indexes
+     */
+    private Criteria appointmentCriteria(String psychologistId, AppointmentFilter filter) {
+        Criteria criteria = Criteria.where("psychologistId").is(psychologistId);
+
+        if (filter.getStatuses() != null && !filter.getStatuses().isEmpty()) {
+            Set<String> statuses = new LinkedHashSet<>();
+            filter.getStatuses().forEach(status -> statuses.addAll(storedForms(status)));
+            if (!statuses.isEmpty()) {
+                criteria.and("bookingStatus").in(statuses);
+            }
+        }
 
-        List<GuestBooking> allBookings = guestBookingRepository.findByPsychologistId(psychologistId);
+        if (filter.getModality() != null && !filter.getModality().isBlank()) {
+            criteria.and("modality").in(storedForms(filter.getModality()));
+        }
 
-        List<GuestBooking> thisMonth = allBookings.stream()
-            .filter(b -> b.getCreatedAt() != null && b.getCreatedAt().isAfter(monthStart))
-            .collect(Collectors.toList());
+        if (filter.getStartDate() != null || filter.getEndDate() != null) {
+            Criteria range = criteria.and("appointmentDateTime");
+            if (filter.getStartDate() != null) {
+                range.gte(filter.getStartDate().atStartOfDay());
+            }
+            if (filter.getEndDate() != null) {
+                range.lt(filter.getEndDate().plusDays(1).atStartOfDay());
+            }
+        }
+        return criteria;
+    }
 
-        List<GuestBooking> thisWeek = allBookings.stream()
-            .filter(b -> b.getCreatedAt() != null && b.getCreatedAt().isAfter(weekStart))
-            .collect(Collectors.toList());
+    /**
+     * The forms a status or modality parameter is stored in, whatever case it was given in:
+     * the booking flow stores upper case and the portal lower case
+     */
+    private static List<String> storedForms(String value) {
+        if (value == null || value.isBlank()) {
+            return List.of();
+        }
+        String trimmed = value.trim();
+        return List.of(trimmed.toLowerCase(Locale.ROOT), trimmed.toUpperCase(Locale.ROOT));
+    }
 
-        long unreadMessages = messageRepository.findByReceiverIdAndIsReadOrderByCreatedAtDesc(psychologistId, false).size();
-
-        return DashboardDTO.DashboardStats.builder()
-            .totalSessions(Long.valueOf(allBookings.size()))
-            .pendingBookings(allBookings.stream()
-                .filter(b -> "confirmed".equalsIgnoreCase(b.getBookingStatus()))
-                .count())
-            .completedThisWeek(thisWeek.stream()
-                .filter(b -> "completed".equalsIgnoreCase(b.getBookingStatus()))
-                .count())
-            .completedThisMonth(thisMonth.stream()
-                .filter(b -> "completed".equalsIgnoreCase(b.getBookingStatus()))
-                .count())
-            .cancelledThisMonth(thisMonth.stream()
-                .filter(b -> "cancelled".equalsIgnoreCase(b.getBookingStatus()))
-                .count())
-            .noShowsThisMonth(thisMonth.stream()
-                .filter(b -> "no_show".equalsIgnoreCase(b.getBookingStatus()))
-                .count())
-            .unreadMessages((int) unreadMessages)
-            .build();
+    private DashboardDTO.DashboardStats calculateStats(Psychologist psychologist) {
+        log.debug("Reading statistics for psychologist: {}", psychologist.getId());
+        return dashboardStatsService.getStats(psychologist);
     }
 
     private AppointmentDTO mapBookingToAppointmentDTO(GuestBooking booking) {
@@ -0,0 +1,180 @@
+package com.groundandgrow.service;
+
+import com.groundandgrow.model.Psychologist;
+import com.groundandgrow.model.RefreshToken;
+import com.groundandgrow.repository.RefreshTokenRepository;
+import com.groundandgrow.security.JwtTokenProvider;
+import com.groundandgrow.security.TokenRevocationList;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Issues, rotates and revokes refresh tokens.
+ * Each login starts a session; every refresh consumes the presented token and issues its successor
+ * in the same session. A consumed or revoked token presented again revokes the whole session,
+ * including its outstanding access tokens, except shortly after it was consumed: a concurrent refresh
+ * (e.g. from a second tab) then gets the same successor back. Successors are derived from the consumed
+ * token with an HMAC, so they can be handed out again without storing raw tokens.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RefreshTokenService {
+
+    private static final int TOKEN_BYTES = 32;
+    private static final String SUCCESSOR_ALGORITHM = "HmacSHA256";
+
+    private final MongoTemplate mongoTemplate;
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final JwtTokenProvider tokenProvider;
+    private final TokenRevocationList revocationList;
+
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    @Value("${jwt.refresh-expiration:1209600000}") // Default 14 days in milliseconds
+    private long refreshExpiration;
+
+    @Value("${jwt.refresh-reuse-grace-ms:10000}")
+    private long refreshReuseGraceMs;
+
+    @Value("${jwt.secret}")
+    private String jwtSecret;
+
+    /**
+     * Issue a new refresh token in a session and return the raw token (only its hash is stored)
+     */
+    public String issue(Psychologist psychologist, String sessionId) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        secureRandom.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        store(token, psychologist, sessionId);
+        return token;
+    }
+
+    /**
+     * Issue the successor of a consumed refresh token and return the raw token. Issuing it again
+     * (for a refresh within the reuse grace period) returns the same token.
+     */
+    public String issueSuccessor(String consumedToken, Psychologist psychologist, String sessionId) {
+        String token = successorOf(consumedToken);
+        store(token, psychologist, sessionId);
+        return token;
+    }
+
+    private void store(String token, Psychologist psychologist, String sessionId) {
+        LocalDateTime now = LocalDateTime.now();
+        Update update = new Update()
+                .setOnInsert("sessionId", sessionId)
+                .setOnInsert("psychologistId", psychologist.getId())
+                .setOnInsert("email", psychologist.getEmail())
+                .setOnInsert("createdAt", now)
+                .setOnInsert("expiresAt", now.plus(Duration.ofMillis(refreshExpiration)));
+        mongoTemplate.upsert(new Query(Criteria.where("tokenHash").is(hash(token))), update, RefreshToken.class);
+    }
+
+    /**
+     * Consume a refresh token and return its record; the caller issues the successor.
+     * Throws if the token is unknown, expired or was already used outside the grace period
+     * (which revokes its session).
+     */
+    public RefreshToken consume(String token) {
+        LocalDateTime now = LocalDateTime.now();
+        String tokenHash = hash(token);
+
+        Query query = new Query(Criteria.where("tokenHash").is(tokenHash)
+                .and("usedAt").is(null)
+                .and("revokedAt").is(null)
+                .and("expiresAt").gt(now));
+        RefreshToken consumed = mongoTemplate.findAndModify(query, new Update().set("usedAt", now),
+                FindAndModifyOptions.options().returnNew(true), RefreshToken.class);
+        if (consumed != null) {
+            return consumed;
+        }
+
+        RefreshToken existing = refreshTokenRepository.findByTokenHash(tokenHash).orElse(null);
+        if (existing == null || (existing.getUsedAt() == null && existing.getRevokedAt() == null)) {
+            throw new RuntimeException("Invalid refresh token");
+        }
+        if (isConcurrentRefresh(existing, token, now)) {
+            log.info("Refresh token of session {} presented again within the grace period", existing.getSessionId());
+            return existing;
+        }
+
+        log.warn("Refresh token reused for {}; revoking session {}", existing.getEmail(), existing.getSessionId());
+        revokeSession(existing.getSessionId(), "REFRESH_REUSE");
+        throw new RuntimeException("Invalid refresh token");
+    }
+
+    /**
+     * A token consumed moments ago whose successor has not been used yet, e.g. by a second tab
+     * refreshing at the same time
+     */
+    private boolean isConcurrentRefresh(RefreshToken existing, String token, LocalDateTime now) {
+        if (existing.getRevokedAt() != null || existing.getUsedAt() == null
+                || existing.getUsedAt().isBefore(now.minus(Duration.ofMillis(refreshReuseGraceMs)))) {
+            return false;
+        }
+        // The successor may not be stored yet while the first refresh is still in flight
+        return refreshTokenRepository.findByTokenHash(hash(successorOf(token)))
+                .map(successor -> successor.getUsedAt() == null && successor.getRevokedAt() == null)
+                .orElse(true);
+    }
+
+    /**
+     * Revoke the session a refresh token belongs to (logout); unknown tokens are ignored
+     */
+    public void revoke(String token) {
+        refreshTokenRepository.findByTokenHash(hash(token))
+                .ifPresent(refreshToken -> revokeSession(refreshToken.getSessionId(), "LOGOUT"));
+    }
+
+    /**
+     * Revoke every refresh token of a session and reject its access tokens until they expire
+     */
+    public void revokeSession(String sessionId, String reason) {
+        LocalDateTime now = LocalDateTime.now();
+        mongoTemplate.updateMulti(
+                new Query(Criteria.where("sessionId").is(sessionId).and("revokedAt").is(null)),
+                new Update().set("revokedAt", now),
+                RefreshToken.class);
+        revocationList.revoke(sessionId, now.plus(Duration.ofMillis(tokenProvider.getExpirationMs())), reason);
+    }
+
+    private String successorOf(String token) {
+        try {
+            Mac mac = Mac.getInstance(SUCCESSOR_ALGORITHM);
+            mac.init(new SecretKeySpec(jwtSecret.getBytes(StandardCharsets.UTF_8), SUCCESSOR_ALGORITHM));
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(mac.doFinal(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException | InvalidKeyException e) {
+            throw new IllegalStateException(SUCCESSOR_ALGORITHM + " not available", e);
+        }
+    }
+
+    private String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
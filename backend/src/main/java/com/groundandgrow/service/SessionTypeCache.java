@@ -0,0 +1,62 @@
+package com.groundandgrow.service;
+
+import com.groundandgrow.model.SessionType;
+import com.groundandgrow.repository.SessionTypeRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Small read-through cache of all session types, keyed by ID.
+ * There are only a handful of session types and they rarely change, so the whole
+ * collection is reloaded in one query once the cached copy is older than the TTL.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SessionTypeCache {
+
+    private final SessionTypeRepository sessionTypeRepository;
+
+    @Value("${app.session-types.cache-ttl-ms:300000}")
+    private long cacheTtlMs;
+
+    private volatile Map<String, SessionType> sessionTypes;
+    private volatile long loadedAt;
+
+    /**
+     * Get a session type by ID, or null if it does not exist
+     */
+    public SessionType get(String sessionTypeId) {
+        return sessionTypeId == null ? null : snapshot().get(sessionTypeId);
+    }
+
+    /**
+     * Drop the cached copy so the next lookup reloads it
+     */
+    public void invalidate() {
+        sessionTypes = null;
+    }
+
+    private Map<String, SessionType> snapshot() {
+        Map<String, SessionType> current = sessionTypes;
+        if (current == null || System.currentTimeMillis() - loadedAt > cacheTtlMs) {
+            synchronized (this) {
+                current = sessionTypes;
+                if (current == null || System.currentTimeMillis() - loadedAt > cacheTtlMs) {
+                    current = sessionTypeRepository.findAll().stream()
+                        .collect(Collectors.toUnmodifiableMap(SessionType::getId, Function.identity()));
+                    loadedAt = System.currentTimeMillis();
+                    sessionTypes = current;
+                    log.debug("Loaded {} session types", current.size());
+                }
+            }
+        }
+        return current;
+    }
+}
@@ -1,21 +1,36 @@
 package com.groundandgrow.service;
 
-import com.stripe.Stripe;
+import com.stripe.StripeClient;
 import com.stripe.exception.StripeException;
 import com.stripe.model.PaymentIntent;
+import com.stripe.model.Refund;
 import com.stripe.model.checkout.Session;
+import com.stripe.net.RequestOptions;
 import com.stripe.param.PaymentIntentCreateParams;
+import com.stripe.param.RefundCreateParams;
 import com.stripe.param.checkout.SessionCreateParams;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
- * Stripe payment service for processing payments
+ * Stripe payment service for processing payments.
+ * Uses its own Stripe client with explicit connect/read timeouts and bounded network retries
+ * (all POSTs carry idempotency keys, so retries are safe). The async methods run calls on a
+ * small bounded pool, a bulkhead that keeps a slow Stripe from tying up request threads; when
+ * the pool is full they fail at once with {@link PaymentProviderBusyException}.
  */
 @Slf4j
 @Service
@@ -33,12 +48,72 @@ public class StripeService {
     @Value("${stripe.cancel-url}")
     private String cancelUrl;
 
+    @Value("${stripe.api-base:https://api.stripe.com}")
+    private String apiBase; // Point at a local stand-in such as stripe-mock for testing
+
+    @Value("${stripe.connect-timeout-ms:3000}")
+    private int connectTimeoutMs;
+
+    @Value("${stripe.read-timeout-ms:10000}")
+    private int readTimeoutMs;
+
+    @Value("${stripe.max-network-retries:2}")
+    private int maxNetworkRetries;
+
+    @Value("${stripe.call-timeout-ms:30000}")
+    private long callTimeoutMs;
+
+    @Value("${stripe.threads:8}")
+    private int threads;
+
+    @Value("${stripe.queue-capacity:50}")
+    private int queueCapacity;
+
+    private StripeClient client;
+    private ThreadPoolExecutor executor;
+
+    /**
+     * Thrown (through the returned future) when too many Stripe calls are already in flight
+     */
+    public static class PaymentProviderBusyException extends RuntimeException {
+        public PaymentProviderBusyException() {
+            super("Payment provider is busy, try again shortly");
+        }
+    }
+
+    @FunctionalInterface
+    private interface StripeCall<T> {
+        T call() throws StripeException;
+    }
+
     @PostConstruct
     public void init() {
-        Stripe.apiKey = apiKey;
+        client = StripeClient.builder()
+            .setApiKey(apiKey)
+            .setApiBase(apiBase)
+            .setConnectTimeout(connectTimeoutMs)
+            .setReadTimeout(readTimeoutMs)
+            .setMaxNetworkRetries(maxNetworkRetries)
+            .build();
+
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> {
+                Thread thread = new Thread(runnable, "stripe-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+
         log.info("Stripe initialized with currency: {}", currency);
     }
 
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
     /**
      * Create a Payment Intent for direct payment processing
      */
@@ -55,7 +130,7 @@ public class StripeService {
             )
             .build();
 
-        PaymentIntent paymentIntent = PaymentIntent.create(params);
+        PaymentIntent paymentIntent = client.paymentIntents().create(params);
         log.info("Payment Intent created: {}", paymentIntent.getId());
         return paymentIntent;
     }
@@ -64,6 +139,14 @@ public class StripeService {
      * Create a Checkout Session for hosted payment page
      */
     public Session createCheckoutSession(Long amount, String bookingId, String customerEmail) throws StripeException {
+        return createCheckoutSession(amount, bookingId, customerEmail, null);
+    }
+
+    /**
+     * Create a Checkout Session; requests repeated with the same idempotency key return the original session
+     */
+    public Session createCheckoutSession(Long amount, String bookingId, String customerEmail,
+                                         String idempotencyKey) throws StripeException {
         SessionCreateParams params = SessionCreateParams.builder()
             .setMode(SessionCreateParams.Mode.PAYMENT)
             .setSuccessUrl(successUrl + "?session_id={CHECKOUT_SESSION_ID}")
@@ -89,7 +172,7 @@ public class StripeService {
             .putMetadata("booking_id", bookingId)
             .build();
 
-        Session session = Session.create(params);
+        Session session = client.checkout().sessions().create(params, requestOptions(idempotencyKey));
         log.info("Checkout Session created: {}", session.getId());
         return session;
     }
@@ -98,22 +181,21 @@ public class StripeService {
      * Retrieve a Payment Intent
      */
     public PaymentIntent retrievePaymentIntent(String paymentIntentId) throws StripeException {
-        return PaymentIntent.retrieve(paymentIntentId);
+        return client.paymentIntents().retrieve(paymentIntentId);
     }
 
     /**
      * Retrieve a Checkout Session
      */
     public Session retrieveCheckoutSession(String sessionId) throws StripeException {
-        return Session.retrieve(sessionId);
+        return client.checkout().sessions().retrieve(sessionId);
     }
 
     /**
      * Cancel a Payment Intent
      */
     public PaymentIntent cancelPaymentIntent(String paymentIntentId) throws StripeException {
-        PaymentIntent paymentIntent = PaymentIntent.retrieve(paymentIntentId);
-        PaymentIntent cancelledIntent = paymentIntent.cancel();
+        PaymentIntent cancelledIntent = client.paymentIntents().cancel(paymentIntentId);
         log.info("Payment Intent cancelled: {}", cancelledIntent.getId());
         return cancelledIntent;
     }
@@ -121,18 +203,63 @@ public class StripeService {
     /**
      * Create refund for a Payment Intent
      */
-    public com.stripe.model.Refund createRefund(String paymentIntentId, Long amount) throws StripeException {
-        Map<String, Object> params = new HashMap<>();
-        params.put("payment_intent", paymentIntentId);
+    public Refund createRefund(String paymentIntentId, Long amount) throws StripeException {
+        return createRefund(paymentIntentId, amount, null);
+    }
+
+    /**
+     * Create refund for a Payment Intent; requests repeated with the same idempotency key refund only once
+     */
+    public Refund createRefund(String paymentIntentId, Long amount, String idempotencyKey) throws StripeException {
+        RefundCreateParams.Builder params = RefundCreateParams.builder()
+            .setPaymentIntent(paymentIntentId);
         if (amount != null) {
-            params.put("amount", amount); // Partial refund
+            params.setAmount(amount); // Partial refund
         }
 
-        com.stripe.model.Refund refund = com.stripe.model.Refund.create(params);
+        Refund refund = client.refunds().create(params.build(), requestOptions(idempotencyKey));
         log.info("Refund created: {}", refund.getId());
         return refund;
     }
 
+    /**
+     * {@link #createCheckoutSession(Long, String, String, String)} on the Stripe pool, failing after the call timeout
+     */
+    public CompletableFuture<Session> createCheckoutSessionAsync(Long amount, String bookingId, String customerEmail,
+                                                                 String idempotencyKey) {
+        return submit(() -> createCheckoutSession(amount, bookingId, customerEmail, idempotencyKey));
+    }
+
+    /**
+     * {@link #createRefund(String, Long, String)} on the Stripe pool, failing after the call timeout
+     */
+    public CompletableFuture<Refund> createRefundAsync(String paymentIntentId, Long amount, String idempotencyKey) {
+        return submit(() -> createRefund(paymentIntentId, amount, idempotencyKey));
+    }
+
+    private <T> CompletableFuture<T> submit(StripeCall<T> call) {
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return call.call();
+                } catch (StripeException e) {
+                    throw new CompletionException(e);
+                }
+            }, executor).orTimeout(callTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            log.warn("Stripe pool saturated; rejecting call");
+            return CompletableFuture.failedFuture(new PaymentProviderBusyException());
+        }
+    }
+
+    private RequestOptions requestOptions(String idempotencyKey) {
+        RequestOptions.RequestOptionsBuilder builder = RequestOptions.builder();
+        if (idempotencyKey != null) {
+            builder.setIdempotencyKey(idempotencyKey);
+        }
+        return builder.build();
+    }
+
     /**
      * Convert dollars to cents for Stripe
      */
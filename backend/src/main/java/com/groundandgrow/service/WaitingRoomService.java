@@ -0,0 +1,246 @@
+package com.groundandgrow.service;
+
+import com.groundandgrow.dto.WaitingRoomTicketDTO;
+import com.groundandgrow.model.WaitingRoomState;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Admission control for booking creation during surges.
+ * Each arrival gets a signed ticket with a sequence number; tickets are admitted in sequence order
+ * at a fixed sustainable rate, so bookings (and the Stripe sessions they create) proceed at that
+ * rate however many people arrive at once, instead of all failing together. While there is no
+ * backlog a burst of arrivals is admitted straight away.
+ * An admitted ticket can be used for one booking within the claim window; admissions not claimed
+ * in time are given to the next ticket in line, so people who leave the queue do not use up capacity.
+ * The queue is shared by all nodes through {@link WaitingRoomStore} and tickets are signed with the
+ * cluster-wide secret, so a ticket keeps its place whichever node it is presented to, and across restarts.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class WaitingRoomService {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final int SIGNATURE_BYTES = 16;
+    private static final int MAX_ADVANCE_ATTEMPTS = 3;
+
+    private final WaitingRoomStore store;
+
+    @Value("${app.waiting-room.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.waiting-room.admit-per-second:5}")
+    private double admitPerSecond;
+
+    @Value("${app.waiting-room.burst:10}")
+    private int burst;
+
+    @Value("${app.waiting-room.ticket-ttl-ms:1800000}")
+    private long ticketTtlMs;
+
+    @Value("${app.waiting-room.claim-window-ms:60000}")
+    private long claimWindowMs;
+
+    @Value("${app.waiting-room.sync-ms:250}")
+    private long syncMs;
+
+    @Value("${app.waiting-room.secret:${jwt.secret}}")
+    private String secret;
+
+    private SecretKeySpec signingKey;
+
+    // Frontier last read from the store, reused by status polls for up to syncMs
+    private volatile double cachedFrontier;
+    private volatile long cachedAtMs;
+
+    @PostConstruct
+    public void init() {
+        signingKey = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM);
+        store.initialise(burst, System.currentTimeMillis());
+    }
+
+    /**
+     * Result of asking to create a booking
+     */
+    public static class Admission {
+        private final boolean admitted;
+        private final WaitingRoomTicketDTO ticket;
+
+        private Admission(boolean admitted, WaitingRoomTicketDTO ticket) {
+            this.admitted = admitted;
+            this.ticket = ticket;
+        }
+
+        public boolean isAdmitted() {
+            return admitted;
+        }
+
+        /**
+         * The caller's place in the queue (null when the waiting room is disabled)
+         */
+        public WaitingRoomTicketDTO getTicket() {
+            return ticket;
+        }
+    }
+
+    /**
+     * Join the queue
+     */
+    public WaitingRoomTicketDTO enter() {
+        long now = System.currentTimeMillis();
+        long sequence = store.nextSequence();
+        return describe(sign(sequence, now), sequence, advance(now));
+    }
+
+    /**
+     * Current position of a ticket, or null if the ticket is invalid or expired, was used,
+     * or was admitted but not used within the claim window
+     */
+    public WaitingRoomTicketDTO status(String ticket) {
+        long[] parsed = verify(ticket);
+        if (parsed == null) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        WaitingRoomTicketDTO current = describe(ticket, parsed[0], frontier(now));
+        return current.isAdmitted() && !store.isClaimable(parsed[0], now - claimWindowMs) ? null : current;
+    }
+
+    /**
+     * Admit a booking request carrying a ticket (or none). Requests without a usable ticket join
+     * the queue and are admitted at once only if there is no backlog. An admitted ticket is used up.
+     */
+    public Admission admit(String ticket) {
+        if (!enabled) {
+            return new Admission(true, null);
+        }
+
+        long now = System.currentTimeMillis();
+        long[] parsed = ticket != null ? verify(ticket) : null;
+        if (parsed != null) {
+            WaitingRoomTicketDTO current = describe(ticket, parsed[0], advance(now));
+            if (!current.isAdmitted()) {
+                return new Admission(false, current);
+            }
+            if (store.claim(parsed[0], now - claimWindowMs)) {
+                return new Admission(true, current);
+            }
+            // Already used, or not used in time; go to the back of the queue
+        }
+
+        long sequence = store.nextSequence();
+        WaitingRoomTicketDTO current = describe(sign(sequence, now), sequence, advance(now));
+        return new Admission(current.isAdmitted() && store.claim(sequence, now - claimWindowMs), current);
+    }
+
+    private WaitingRoomTicketDTO describe(String ticket, long sequence, double frontier) {
+        long position = Math.max(0, sequence - (long) Math.floor(frontier));
+        return WaitingRoomTicketDTO.builder()
+                .ticket(ticket)
+                .position(position)
+                .admitted(position == 0)
+                .estimatedWaitSeconds((long) Math.ceil(position / admitPerSecond))
+                .build();
+    }
+
+    /**
+     * The admission frontier for a status poll: the last one read on this node if recent enough, so polling
+     * does not write to the store on every request
+     */
+    private double frontier(long now) {
+        return now - cachedAtMs < syncMs ? cachedFrontier : advance(now);
+    }
+
+    /**
+     * Move the shared admission frontier forward at the admission rate, at most {@code burst} ahead of the
+     * last ticket. Tickets it reaches start their claim window; each lapsed one moves the frontier on by one
+     * more. Nodes race to move it with a conditional update; one that keeps losing uses what the winners wrote.
+     */
+    private double advance(long now) {
+        store.reclaimLapsed(now - claimWindowMs);
+
+        WaitingRoomState state = store.load();
+        double frontier = state.getAdmittedUpTo();
+        for (int attempt = 0; attempt < MAX_ADVANCE_ATTEMPTS; attempt++) {
+            double admittedUpTo = state.getAdmittedUpTo();
+            long lastAdvanceMs = state.getLastAdvanceMs();
+            if (now > lastAdvanceMs) {
+                admittedUpTo = Math.min(state.getIssued() + burst,
+                        admittedUpTo + (now - lastAdvanceMs) * admitPerSecond / 1000.0);
+                lastAdvanceMs = now;
+            }
+            long reachedUpTo = Math.max(state.getReachedUpTo(), Math.min(state.getIssued(), (long) Math.floor(admittedUpTo)));
+
+            // Recorded before the frontier moves, so a ticket is never admitted without a claimable admission
+            store.recordAdmissions(state.getReachedUpTo() + 1, reachedUpTo, now, ticketTtlMs + claimWindowMs);
+            if (store.advance(state, admittedUpTo, lastAdvanceMs, reachedUpTo)) {
+                frontier = admittedUpTo;
+                break;
+            }
+            state = store.load();
+            frontier = state.getAdmittedUpTo();
+        }
+
+        cachedFrontier = frontier;
+        cachedAtMs = now;
+        return frontier;
+    }
+
+    private String sign(long sequence, long issuedAt) {
+        String payload = sequence + "." + issuedAt;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(payload.getBytes(StandardCharsets.UTF_8))
+                + "." + Base64.getUrlEncoder().withoutPadding().encodeToString(signature(payload));
+    }
+
+    /**
+     * Sequence number and issue time of a ticket, or null if it is forged or expired
+     */
+    private long[] verify(String ticket) {
+        try {
+            int dot = ticket.indexOf('.');
+            if (dot < 0) {
+                return null;
+            }
+            String payload = new String(Base64.getUrlDecoder().decode(ticket.substring(0, dot)), StandardCharsets.UTF_8);
+            byte[] signature = Base64.getUrlDecoder().decode(ticket.substring(dot + 1));
+            if (!MessageDigest.isEqual(signature, signature(payload))) {
+                return null;
+            }
+
+            String[] parts = payload.split("\\.");
+            if (parts.length != 2) {
+                return null;
+            }
+            long sequence = Long.parseLong(parts[0]);
+            long issuedAt = Long.parseLong(parts[1]);
+            if (System.currentTimeMillis() - issuedAt > ticketTtlMs) {
+                return null;
+            }
+            return new long[] {sequence, issuedAt};
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private byte[] signature(String payload) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(signingKey);
+            return Arrays.copyOf(mac.doFinal(payload.getBytes(StandardCharsets.UTF_8)), SIGNATURE_BYTES);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not sign waiting room ticket", e);
+        }
+    }
+}
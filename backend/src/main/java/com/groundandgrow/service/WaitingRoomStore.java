@@ -0,0 +1,45 @@
+package com.groundandgrow.service;
+
+import com.groundandgrow.model.WaitingRoomState;
+
+/**
+ * Shared state behind {@link WaitingRoomService}, so every node hands out sequence numbers from one
+ * queue and admits them against one frontier
+ */
+public interface WaitingRoomStore {
+
+    /**
+     * Create the queue if it does not exist yet
+     */
+    void initialise(double admittedUpTo, long nowMs);
+
+    WaitingRoomState load();
+
+    /**
+     * Hand out the next sequence number
+     */
+    long nextSequence();
+
+    /**
+     * Move the frontier, unless another node moved it since {@code seen} was loaded
+     */
+    boolean advance(WaitingRoomState seen, double admittedUpTo, long lastAdvanceMs, long reachedUpTo);
+
+    /**
+     * Record that the frontier reached these sequences, starting their claim window (no-op for ones already recorded)
+     */
+    void recordAdmissions(long fromSequence, long toSequence, long admittedAtMs, long retainMs);
+
+    /**
+     * Mark open admissions made before the cutoff as lapsed and move the frontier on by one for each.
+     * Returns how many lapsed.
+     */
+    long reclaimLapsed(long admittedBeforeMs);
+
+    /**
+     * Use an open admission made at or after the cutoff; true if this call used it
+     */
+    boolean claim(long sequence, long admittedSinceMs);
+
+    boolean isClaimable(long sequence, long admittedSinceMs);
+}
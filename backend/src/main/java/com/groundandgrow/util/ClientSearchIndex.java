@@ -0,0 +1,280 @@
+package com.groundandgrow.util;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory autocomplete index over client names, emails and phone numbers.
+ * Prefix matches come from a sorted token map; substring matches (3+ characters)
+ * come from a trigram index and are verified against the tokens.
+ * Reads may run concurrently; writes take an exclusive lock.
+ */
+public class ClientSearchIndex {
+
+    private static final int EXACT_SCORE = 3;
+    private static final int PREFIX_SCORE = 2;
+    private static final int SUBSTRING_SCORE = 1;
+
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final NavigableMap<String, Set<String>> tokens = new TreeMap<>();
+    private final Map<String, Set<String>> trigrams = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Add or replace a client, keyed by email
+     */
+    public void put(Entry entry) {
+        lock.writeLock().lock();
+        try {
+            Entry previous = entries.put(entry.getEmail(), entry);
+            if (previous != null) {
+                unindex(previous);
+            }
+            index(entry);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove a client by email
+     */
+    public void remove(String email) {
+        lock.writeLock().lock();
+        try {
+            Entry previous = entries.remove(email);
+            if (previous != null) {
+                unindex(previous);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Find clients matching every term of the query, best matches first
+     */
+    public List<Match> search(String query, int limit) {
+        List<String> terms = terms(query);
+        if (terms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            Map<String, Integer> scores = null;
+            for (String term : terms) {
+                Map<String, Integer> termScores = matchTerm(term);
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    Map<String, Integer> combined = new HashMap<>();
+                    for (Map.Entry<String, Integer> match : scores.entrySet()) {
+                        Integer termScore = termScores.get(match.getKey());
+                        if (termScore != null) {
+                            combined.put(match.getKey(), match.getValue() + termScore);
+                        }
+                    }
+                    scores = combined;
+                }
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+
+            List<Match> matches = new ArrayList<>(scores.size());
+            scores.forEach((email, score) -> matches.add(new Match(entries.get(email), score)));
+            matches.sort(Comparator.comparingInt(Match::getScore).reversed()
+                .thenComparing(match -> sortName(match.getEntry())));
+            return matches.size() > limit ? new ArrayList<>(matches.subList(0, limit)) : matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Map<String, Integer> matchTerm(String term) {
+        Map<String, Integer> scores = new HashMap<>();
+
+        // Prefix matches over whole tokens
+        for (Map.Entry<String, Set<String>> token : tokens.subMap(term, true, term + Character.MAX_VALUE, true).entrySet()) {
+            int score = token.getKey().equals(term) ? EXACT_SCORE : PREFIX_SCORE;
+            for (String email : token.getValue()) {
+                scores.merge(email, score, Math::max);
+            }
+        }
+
+        // Substring matches inside tokens
+        if (term.length() >= 3) {
+            for (String email : trigramCandidates(term)) {
+                if (!scores.containsKey(email) && tokensOf(entries.get(email)).stream().anyMatch(t -> t.contains(term))) {
+                    scores.put(email, SUBSTRING_SCORE);
+                }
+            }
+        }
+        return scores;
+    }
+
+    /**
+     * Clients containing every trigram of the term, intersecting the smallest sets first
+     */
+    private Set<String> trigramCandidates(String term) {
+        List<Set<String>> postings = new ArrayList<>();
+        for (String trigram : trigramsOf(term)) {
+            Set<String> posting = trigrams.get(trigram);
+            if (posting == null) {
+                return Set.of();
+            }
+            postings.add(posting);
+        }
+        postings.sort(Comparator.comparingInt(Set::size));
+
+        Set<String> candidates = new HashSet<>(postings.get(0));
+        for (int i = 1; i < postings.size() && !candidates.isEmpty(); i++) {
+            candidates.retainAll(postings.get(i));
+        }
+        return candidates;
+    }
+
+    private void index(Entry entry) {
+        for (String token : tokensOf(entry)) {
+            tokens.computeIfAbsent(token, key -> new HashSet<>()).add(entry.getEmail());
+            for (String trigram : trigramsOf(token)) {
+                trigrams.computeIfAbsent(trigram, key -> new HashSet<>()).add(entry.getEmail());
+            }
+        }
+    }
+
+    private void unindex(Entry entry) {
+        for (String token : tokensOf(entry)) {
+            removePosting(tokens, token, entry.getEmail());
+            for (String trigram : trigramsOf(token)) {
+                removePosting(trigrams, trigram, entry.getEmail());
+            }
+        }
+    }
+
+    private void removePosting(Map<String, Set<String>> postings, String key, String email) {
+        Set<String> posting = postings.get(key);
+        if (posting != null) {
+            posting.remove(email);
+            if (posting.isEmpty()) {
+                postings.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Searchable tokens: name parts, full name, email and its parts, phone digits
+     */
+    static Set<String> tokensOf(Entry entry) {
+        Set<String> result = new LinkedHashSet<>();
+        String firstName = normalise(entry.getFirstName());
+        String lastName = normalise(entry.getLastName());
+
+        addWords(result, firstName);
+        addWords(result, lastName);
+        if (!firstName.isEmpty() && !lastName.isEmpty()) {
+            result.add(firstName + " " + lastName);
+        }
+
+        String email = normalise(entry.getEmail());
+        if (!email.isEmpty()) {
+            result.add(email);
+            for (String part : email.split("[@._+\\-]")) {
+                if (!part.isEmpty()) {
+                    result.add(part);
+                }
+            }
+        }
+
+        String phone = digits(entry.getPhone());
+        if (!phone.isEmpty()) {
+            result.add(phone);
+            // Australian numbers are often stored in international form but typed locally
+            if (phone.startsWith("61") && phone.length() > 2) {
+                result.add("0" + phone.substring(2));
+            }
+        }
+        return result;
+    }
+
+    static List<String> terms(String query) {
+        String normalised = normalise(query);
+        if (normalised.isEmpty()) {
+            return List.of();
+        }
+        // A query made only of phone characters is a single phone term
+        if (normalised.matches("[0-9+()\\-\\s]+")) {
+            String phone = digits(normalised);
+            return phone.isEmpty() ? List.of() : List.of(phone);
+        }
+        return List.of(normalised.split("\\s+"));
+    }
+
+    private static Set<String> trigramsOf(String token) {
+        Set<String> result = new HashSet<>();
+        for (int i = 0; i + 3 <= token.length(); i++) {
+            result.add(token.substring(i, i + 3));
+        }
+        return result;
+    }
+
+    private static void addWords(Set<String> result, String value) {
+        for (String word : value.split("[\\s\\-']+")) {
+            if (!word.isEmpty()) {
+                result.add(word);
+            }
+        }
+    }
+
+    private static String normalise(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String digits(String value) {
+        return value == null ? "" : value.replaceAll("\\D", "");
+    }
+
+    private static String sortName(Entry entry) {
+        return normalise(entry.getLastName()) + " " + normalise(entry.getFirstName());
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class Entry {
+        private String email;
+        private String firstName;
+        private String lastName;
+        private String phone;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class Match {
+        private Entry entry;
+        private int score;
+    }
+}
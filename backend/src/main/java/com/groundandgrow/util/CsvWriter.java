@@ -0,0 +1,57 @@
+package com.groundandgrow.util;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Minimal RFC 4180 CSV writer: values containing commas, quotes or line breaks are quoted,
+ * with embedded quotes doubled. Rows end with CRLF. Nothing is buffered beyond the target writer.
+ * Text that a spreadsheet would run as a formula is prefixed with an apostrophe.
+ */
+public class CsvWriter {
+
+    private final Writer writer;
+
+    public CsvWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    /**
+     * Write one row; null values are written as empty fields
+     */
+    public void writeRow(Object... values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            if (values[i] instanceof CharSequence) {
+                writer.write(escape(neutraliseFormula(values[i].toString())));
+            } else if (values[i] != null) {
+                writer.write(escape(values[i].toString()));
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    /**
+     * Prefix text starting with a formula trigger (=, +, -, @, tab or carriage return) with ',
+     * so spreadsheets show it as text instead of evaluating it. Numbers are written unchanged.
+     */
+    static String neutraliseFormula(String value) {
+        if (value.isEmpty()) {
+            return value;
+        }
+        char first = value.charAt(0);
+        boolean formula = first == '=' || first == '+' || first == '-' || first == '@' || first == '\t' || first == '\r';
+        return formula ? "'" + value : value;
+    }
+
+    static String escape(String value) {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        return quote ? '"' + value.replace("\"", "\"\"") + '"' : value;
+    }
+}
@@ -0,0 +1,79 @@
+package com.groundandgrow.util;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor over a (timestamp, _id) sort key.
+ * Encoded as URL-safe base64 so it can be passed straight back as a query parameter.
+ */
+@Data
+@AllArgsConstructor
+public class KeysetCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private LocalDateTime timestamp;
+    private String id;
+
+    /**
+     * A cursor parameter that is malformed or was tampered with; answered with 400 rather than 500
+     */
+    @ResponseStatus(value = HttpStatus.BAD_REQUEST, reason = "Invalid cursor")
+    public static class InvalidCursorException extends IllegalArgumentException {
+        public InvalidCursorException(Throwable cause) {
+            super("Invalid cursor", cause);
+        }
+    }
+
+    /**
+     * Encode this cursor for use in an API response
+     */
+    public String encode() {
+        String raw = timestamp + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a cursor from a request parameter; returns null for an empty cursor
+     */
+    public static KeysetCursor decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            return new KeysetCursor(
+                LocalDateTime.parse(raw.substring(0, separator)),
+                raw.substring(separator + 1));
+        } catch (RuntimeException e) {
+            throw new InvalidCursorException(e);
+        }
+    }
+
+    /**
+     * Criteria selecting documents strictly after this cursor in the given sort direction
+     */
+    public Criteria after(String timestampField, boolean descending) {
+        Object idValue = ObjectId.isValid(id) ? new ObjectId(id) : id;
+
+        if (descending) {
+            return new Criteria().orOperator(
+                Criteria.where(timestampField).lt(timestamp),
+                Criteria.where(timestampField).is(timestamp).and("_id").lt(idValue));
+        }
+        return new Criteria().orOperator(
+            Criteria.where(timestampField).gt(timestamp),
+            Criteria.where(timestampField).is(timestamp).and("_id").gt(idValue));
+    }
+}
@@ -0,0 +1,67 @@
+package com.groundandgrow.util;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Input stream that fails as soon as more than a given number of bytes has been read,
+ * so size limits are enforced while streaming instead of after buffering.
+ */
+public class LimitedInputStream extends FilterInputStream {
+
+    private final long limit;
+    private long count;
+    private boolean limitExceeded;
+
+    public LimitedInputStream(InputStream in, long limit) {
+        super(in);
+        this.limit = limit;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b >= 0) {
+            advance(1);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        int read = super.read(buffer, offset, length);
+        if (read > 0) {
+            advance(read);
+        }
+        return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = super.skip(n);
+        advance(skipped);
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public boolean isLimitExceeded() {
+        return limitExceeded;
+    }
+
+    private void advance(long bytes) throws IOException {
+        count += bytes;
+        if (count > limit) {
+            limitExceeded = true;
+            throw new IOException("Stream exceeds limit of " + limit + " bytes");
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.groundandgrow.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free token-bucket rate limiter over a fixed array of buckets.
+ * Keys are hashed onto the buckets, so memory stays constant however many keys (IPs, emails)
+ * are seen; keys that share a bucket share its limit. Each bucket is a single "theoretical arrival
+ * time" (the GCRA form of a token bucket) updated with compare-and-set.
+ */
+public class StripedRateLimiter {
+
+    private final AtomicLongArray buckets;
+    private final int mask;
+    private final long intervalMs;
+    private final long burstMs;
+    private final LongSupplier clock;
+
+    /**
+     * @param stripes         number of buckets, rounded up to a power of two
+     * @param burst           permits available to an idle key at once
+     * @param refillIntervalMs time to earn back one permit
+     */
+    public StripedRateLimiter(int stripes, int burst, long refillIntervalMs) {
+        this(stripes, burst, refillIntervalMs, System::currentTimeMillis);
+    }
+
+    public StripedRateLimiter(int stripes, int burst, long refillIntervalMs, LongSupplier clock) {
+        if (stripes <= 0 || burst <= 0 || refillIntervalMs <= 0) {
+            throw new IllegalArgumentException("stripes, burst and refillIntervalMs must be positive");
+        }
+        int size = Integer.highestOneBit(Math.min(stripes, 1 << 30));
+        if (size < stripes) {
+            size <<= 1;
+        }
+        this.buckets = new AtomicLongArray(size);
+        this.mask = size - 1;
+        this.intervalMs = refillIntervalMs;
+        this.burstMs = burst * refillIntervalMs;
+        this.clock = clock;
+    }
+
+    /**
+     * Take a permit for a key
+     *
+     * @return 0 if a permit was taken, otherwise milliseconds until one becomes available
+     */
+    public long tryAcquire(String key) {
+        int index = index(key);
+        while (true) {
+            long now = clock.getAsLong();
+            long arrival = buckets.get(index);
+            long next = Math.max(arrival, now) + intervalMs;
+            long waitMs = next - now - burstMs;
+            if (waitMs > 0) {
+                return waitMs;
+            }
+            if (buckets.compareAndSet(index, arrival, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Check a key without taking a permit
+     *
+     * @return 0 if a permit is available, otherwise milliseconds until one becomes available
+     */
+    public long waitTime(String key) {
+        long now = clock.getAsLong();
+        long next = Math.max(buckets.get(index(key)), now) + intervalMs;
+        return Math.max(0, next - now - burstMs);
+    }
+
+    private int index(String key) {
+        long h = key.hashCode() * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
@@ -0,0 +1,136 @@
+package com.groundandgrow.util;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Builds plain-text snippets around search terms. Matches are returned as offsets
+ * rather than markup, so clients can highlight without rendering message content as HTML.
+ */
+public final class TextHighlighter {
+
+    private static final String ELLIPSIS = "…";
+
+    private TextHighlighter() {
+    }
+
+    /**
+     * Positive search terms of a text query (quotes stripped, negated terms ignored)
+     */
+    public static List<String> terms(String query) {
+        Set<String> terms = new LinkedHashSet<>();
+        if (query == null) {
+            return List.of();
+        }
+        for (String word : query.toLowerCase(Locale.ROOT).split("\\s+")) {
+            if (word.startsWith("-")) {
+                continue;
+            }
+            String term = word.replaceAll("[^\\p{L}\\p{N}]", "");
+            if (!term.isEmpty()) {
+                terms.add(term);
+            }
+        }
+        return new ArrayList<>(terms);
+    }
+
+    /**
+     * Positions of words in the text starting with any of the terms, in order and non-overlapping
+     */
+    public static List<Highlight> find(String text, List<String> terms) {
+        List<Highlight> highlights = new ArrayList<>();
+        if (text == null || terms.isEmpty()) {
+            return highlights;
+        }
+
+        String lower = text.toLowerCase(Locale.ROOT);
+        int position = 0;
+        while (position < lower.length()) {
+            if (isWordStart(lower, position)) {
+                int length = longestMatch(lower, position, terms);
+                if (length > 0) {
+                    highlights.add(new Highlight(position, length));
+                    position += length;
+                    continue;
+                }
+            }
+            position++;
+        }
+        return highlights;
+    }
+
+    /**
+     * A window of at most maxLength characters around the first match, with highlights relative to it
+     */
+    public static Snippet snippet(String text, List<String> terms, int maxLength) {
+        if (text == null) {
+            return new Snippet("", List.of());
+        }
+
+        List<Highlight> highlights = find(text, terms);
+        if (text.length() <= maxLength) {
+            return new Snippet(text, highlights);
+        }
+
+        int start = highlights.isEmpty() ? 0 : Math.max(0, highlights.get(0).getStart() - maxLength / 3);
+        if (start > 0) {
+            int space = text.indexOf(' ', start);
+            if (space >= 0 && space < highlights.get(0).getStart()) {
+                start = space + 1;
+            }
+        }
+        int end = Math.min(text.length(), start + maxLength);
+
+        String prefix = start > 0 ? ELLIPSIS : "";
+        String suffix = end < text.length() ? ELLIPSIS : "";
+
+        List<Highlight> windowed = new ArrayList<>();
+        for (Highlight highlight : highlights) {
+            if (highlight.getStart() >= start && highlight.getStart() + highlight.getLength() <= end) {
+                windowed.add(new Highlight(highlight.getStart() - start + prefix.length(), highlight.getLength()));
+            }
+        }
+        return new Snippet(prefix + text.substring(start, end) + suffix, windowed);
+    }
+
+    private static boolean isWordStart(String text, int position) {
+        return Character.isLetterOrDigit(text.charAt(position))
+            && (position == 0 || !Character.isLetterOrDigit(text.charAt(position - 1)));
+    }
+
+    /**
+     * Length of the word at position if it starts with a term (so stems such as "session" match "sessions")
+     */
+    private static int longestMatch(String text, int position, List<String> terms) {
+        for (String term : terms) {
+            if (text.startsWith(term, position)) {
+                int end = position + term.length();
+                while (end < text.length() && Character.isLetterOrDigit(text.charAt(end))) {
+                    end++;
+                }
+                return end - position;
+            }
+        }
+        return 0;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class Snippet {
+        private String text;
+        private List<Highlight> highlights;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class Highlight {
+        private int start;
+        private int length;
+    }
+}
@@ -1,6 +1,7 @@
 package com.groundandgrow.security;
 
 import com.groundandgrow.model.Psychologist;
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import org.junit.jupiter.api.BeforeEach;
@@ -131,4 +132,42 @@ class JwtTokenProviderTest {
         // Then
         assertThat(isValid).isFalse();
     }
+
+    @Test
+    void testParseClaims_RepeatedTokenAndTamperedCopy() {
+        // Given
+        String token = tokenProvider.generateTokenFromEmail("test@example.com");
+        char replaced = token.charAt(token.length() - 2) == 'A' ? 'B' : 'A';
+        String tampered = token.substring(0, token.length() - 2) + replaced + token.charAt(token.length() - 1);
+
+        // When
+        Claims first = tokenProvider.parseClaims(token);
+        Claims second = tokenProvider.parseClaims(token);
+
+        // Then
+        assertThat(first.getSubject()).isEqualTo("test@example.com");
+        assertThat(second.getSubject()).isEqualTo("test@example.com");
+        assertThat(tokenProvider.parseClaims(tampered)).isNull();
+    }
+
+    @Test
+    void testGenerateToken_CarriesIdAndRoleClaims() {
+        // Given
+        Psychologist psychologist = Psychologist.builder()
+                .id("test-id")
+                .email("test@example.com")
+                .password("password")
+                .role(Psychologist.Role.ADMIN)
+                .build();
+        Authentication authentication = mock(Authentication.class);
+        when(authentication.getPrincipal()).thenReturn(UserPrincipal.create(psychologist));
+
+        // When
+        Claims claims = tokenProvider.parseClaims(tokenProvider.generateToken(authentication));
+
+        // Then
+        assertThat(claims.getSubject()).isEqualTo("test@example.com");
+        assertThat(claims.get(JwtTokenProvider.CLAIM_PSYCHOLOGIST_ID, String.class)).isEqualTo("test-id");
+        assertThat(claims.get(JwtTokenProvider.CLAIM_ROLE, String.class)).isEqualTo("ADMIN");
+    }
 }
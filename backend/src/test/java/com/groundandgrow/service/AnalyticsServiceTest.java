@@ -0,0 +1,187 @@
+package com.groundandgrow.service;
+
+import com.groundandgrow.model.DailyAnalyticsRollup;
+import com.groundandgrow.model.GuestBooking;
+import com.groundandgrow.repository.AvailabilityRepository;
+import com.groundandgrow.repository.DailyAnalyticsRollupRepository;
+import com.groundandgrow.repository.PsychologistRepository;
+import com.groundandgrow.repository.TimeOffRepository;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class AnalyticsServiceTest {
+
+    private static final LocalDateTime APPOINTMENT = LocalDateTime.of(2026, 10, 20, 10, 0);
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private DailyAnalyticsRollupRepository dailyAnalyticsRollupRepository;
+
+    @Mock
+    private PsychologistRepository psychologistRepository;
+
+    @Mock
+    private AvailabilityRepository availabilityRepository;
+
+    @Mock
+    private TimeOffRepository timeOffRepository;
+
+    @Mock
+    private SessionTypeCache sessionTypeCache;
+
+    @Mock
+    private TaskExecutor taskExecutor;
+
+    @InjectMocks
+    private AnalyticsService analyticsService;
+
+    @Test
+    void testOnBookingChanged_CreatedConfirmedUnpaid() {
+        // Given
+        GuestBooking booking = booking("CONFIRMED", "pending", APPOINTMENT);
+
+        // When
+        analyticsService.onBookingChanged(BookingChangedEvent.created(booking));
+
+        // Then
+        List<Captured> upserts = captureUpserts(1);
+        assertThat(upserts.get(0).id).isEqualTo("psych-1:2026-10-20");
+        assertThat(upserts.get(0).inc)
+            .containsEntry("revenueCents", 0L)
+            .containsEntry("sessions", 1L)
+            .containsEntry("bookedMinutes", 50L)
+            .containsEntry("bySessionType.session-1.sessions", 1L)
+            .containsEntry("revision", 1);
+    }
+
+    @Test
+    void testOnBookingChanged_PaymentCompleted() {
+        // Given
+        GuestBooking booking = booking("CONFIRMED", "completed", APPOINTMENT);
+
+        // When
+        analyticsService.onBookingChanged(BookingChangedEvent.statusChanged(booking, "CONFIRMED", "pending"));
+
+        // Then
+        List<Captured> upserts = captureUpserts(1);
+        assertThat(upserts.get(0).inc)
+            .containsEntry("revenueCents", 15000L)
+            .containsEntry("sessions", 0L)
+            .containsEntry("bookedMinutes", 0L);
+    }
+
+    @Test
+    void testOnBookingChanged_CancelledAndRefunded() {
+        // Given
+        GuestBooking booking = booking("cancelled", "refunded", APPOINTMENT);
+
+        // When
+        analyticsService.onBookingChanged(BookingChangedEvent.statusChanged(booking, "CONFIRMED", "completed"));
+
+        // Then
+        List<Captured> upserts = captureUpserts(1);
+        assertThat(upserts.get(0).inc)
+            .containsEntry("revenueCents", -15000L)
+            .containsEntry("sessions", -1L)
+            .containsEntry("bookedMinutes", -50L);
+    }
+
+    @Test
+    void testOnBookingChanged_CompletedKeepsFigures() {
+        // Given
+        GuestBooking booking = booking("completed", "completed", APPOINTMENT);
+
+        // When
+        analyticsService.onBookingChanged(BookingChangedEvent.statusChanged(booking, "CONFIRMED", "completed"));
+
+        // Then
+        verify(mongoTemplate, never()).upsert(any(Query.class), any(Update.class), eq(DailyAnalyticsRollup.class));
+    }
+
+    @Test
+    void testOnBookingChanged_RescheduledMovesFiguresBetweenDays() {
+        // Given
+        GuestBooking booking = booking("CONFIRMED", "completed", APPOINTMENT.plusDays(2));
+
+        // When
+        analyticsService.onBookingChanged(BookingChangedEvent.rescheduled(booking, APPOINTMENT));
+
+        // Then
+        List<Captured> upserts = captureUpserts(2);
+        assertThat(upserts.get(0).id).isEqualTo("psych-1:2026-10-20");
+        assertThat(upserts.get(0).inc)
+            .containsEntry("revenueCents", -15000L)
+            .containsEntry("sessions", -1L)
+            .containsEntry("bookedMinutes", -50L);
+        assertThat(upserts.get(1).id).isEqualTo("psych-1:2026-10-22");
+        assertThat(upserts.get(1).inc)
+            .containsEntry("revenueCents", 15000L)
+            .containsEntry("sessions", 1L)
+            .containsEntry("bookedMinutes", 50L);
+    }
+
+    @Test
+    void testOnBookingChanged_DeletedRemovesFigures() {
+        // Given
+        GuestBooking booking = booking("CONFIRMED", "pending", APPOINTMENT);
+
+        // When
+        analyticsService.onBookingChanged(BookingChangedEvent.deleted(booking));
+
+        // Then
+        List<Captured> upserts = captureUpserts(1);
+        assertThat(upserts.get(0).inc)
+            .containsEntry("sessions", -1L)
+            .containsEntry("bookedMinutes", -50L);
+    }
+
+    private GuestBooking booking(String bookingStatus, String paymentStatus, LocalDateTime appointment) {
+        GuestBooking booking = new GuestBooking();
+        booking.setId("booking-1");
+        booking.setPsychologistId("psych-1");
+        booking.setSessionTypeId("session-1");
+        booking.setDurationMinutes(50);
+        booking.setAmount(150.0);
+        booking.setBookingStatus(bookingStatus);
+        booking.setPaymentStatus(paymentStatus);
+        booking.setAppointmentDateTime(appointment);
+        return booking;
+    }
+
+    private List<Captured> captureUpserts(int expected) {
+        ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(expected)).upsert(queries.capture(), updates.capture(), eq(DailyAnalyticsRollup.class));
+
+        return IntStream.range(0, expected)
+            .mapToObj(i -> new Captured(queries.getAllValues().get(i).getQueryObject().getString("_id"),
+                updates.getAllValues().get(i).getUpdateObject().get("$inc", Document.class)))
+            .toList();
+    }
+
+    private record Captured(String id, Document inc) {
+    }
+}
@@ -0,0 +1,43 @@
+package com.groundandgrow.service;
+
+import com.groundandgrow.model.ClientDirectoryEntry;
+import com.groundandgrow.util.ClientSearchIndex;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ClientSearchServiceTest {
+
+    @Test
+    void testUpdateDuringLoad_IsNotOverwrittenByLoadedCopy() {
+        // Given - a booking write lands while the index streams the older directory entry
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        ClientSearchService clientSearchService = new ClientSearchService(mongoTemplate);
+        ClientDirectoryEntry stored = ClientDirectoryEntry.builder()
+                .email("jane@example.com")
+                .firstName("Jane")
+                .lastName("Smith")
+                .phone("0412345678")
+                .build();
+        when(mongoTemplate.stream(any(Query.class), eq(ClientDirectoryEntry.class))).thenAnswer(invocation -> {
+            clientSearchService.update("psych-1", "jane@example.com", "Jane", "Brown", "0412345678");
+            return Stream.of(stored);
+        });
+
+        // When
+        List<ClientSearchIndex.Match> matches = clientSearchService.search("psych-1", "jane", 10);
+
+        // Then
+        assertThat(matches).hasSize(1);
+        assertThat(matches.get(0).getEntry().getLastName()).isEqualTo("Brown");
+    }
+}
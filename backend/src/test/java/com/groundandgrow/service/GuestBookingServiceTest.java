@@ -0,0 +1,223 @@
+package com.groundandgrow.service;
+
+import com.groundandgrow.dto.CancellationResponse;
+import com.groundandgrow.dto.CheckoutSessionResponse;
+import com.groundandgrow.dto.GuestBookingDTO;
+import com.groundandgrow.dto.GuestBookingRequest;
+import com.groundandgrow.model.GuestBooking;
+import com.groundandgrow.model.Psychologist;
+import com.groundandgrow.model.SessionType;
+import com.groundandgrow.repository.GuestBookingRepository;
+import com.groundandgrow.repository.PsychologistRepository;
+import com.groundandgrow.repository.SessionTypeRepository;
+import com.mongodb.client.result.UpdateResult;
+import com.stripe.model.Refund;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class GuestBookingServiceTest {
+
+    @Mock
+    private GuestBookingRepository guestBookingRepository;
+
+    @Mock
+    private PsychologistRepository psychologistRepository;
+
+    @Mock
+    private SessionTypeRepository sessionTypeRepository;
+
+    @Mock
+    private StripeService stripeService;
+
+    @Mock
+    private EmailService emailService;
+
+    @Mock
+    private SmsService smsService;
+
+    @Mock
+    private AvailabilityService availabilityService;
+
+    @Mock
+    private NotificationSchedulerService notificationSchedulerService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private ConfirmationTokenGuard confirmationTokenGuard;
+
+    @Mock
+    private IdempotencyService idempotencyService;
+
+    @Mock
+    private TaskExecutor taskExecutor;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private GuestBookingService guestBookingService;
+
+    @Test
+    void testGetBookingsByEmail_MixedCaseEmail() {
+        // Given - bookings are stored with normalised emails
+        GuestBooking booking = new GuestBooking();
+        booking.setId("booking-1");
+        booking.setEmail("jane.smith@example.com");
+        when(guestBookingRepository.findByEmail("jane.smith@example.com")).thenReturn(List.of(booking));
+
+        // When
+        List<GuestBookingDTO> bookings = guestBookingService.getBookingsByEmail(" Jane.Smith@Example.COM ");
+
+        // Then
+        assertThat(bookings).extracting(GuestBookingDTO::getId).containsExactly("booking-1");
+    }
+
+    @Test
+    void testCancelBooking_RefundTimeoutLeavesRefundPendingAndRetryRefunds() {
+        // Given - a confirmed, paid booking outside the notice period; the first refund call times out
+        ReflectionTestUtils.setField(guestBookingService, "cancellationHoursNotice", 24);
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).when(taskExecutor).execute(any(Runnable.class));
+
+        GuestBooking booking = new GuestBooking();
+        booking.setId("booking-1");
+        booking.setBookingStatus("CONFIRMED");
+        booking.setPaymentStatus("COMPLETED");
+        booking.setStripePaymentIntentId("pi_1");
+        booking.setAmount(150.0);
+        booking.setAppointmentDateTime(LocalDateTime.now().plusDays(3));
+        when(confirmationTokenGuard.mightExist("token-1")).thenReturn(true);
+        when(guestBookingRepository.findByConfirmationToken("token-1")).thenReturn(Optional.of(booking));
+        when(stripeService.convertToCents(150.0)).thenReturn(15000L);
+        when(stripeService.createRefundAsync("pi_1", 15000L, "refund-booking-1"))
+            .thenReturn(CompletableFuture.failedFuture(new TimeoutException()))
+            .thenReturn(CompletableFuture.completedFuture(new Refund()));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(GuestBooking.class)))
+            .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+        // The retry's claim succeeds: no other attempt is in flight
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(GuestBooking.class)))
+            .thenReturn(booking);
+
+        // When
+        CancellationResponse first = guestBookingService.cancelBooking("token-1").join();
+
+        // Then - cancelled, with the refund recorded as pending
+        assertThat(first.isCancelled()).isTrue();
+        assertThat(first.isRefundProcessed()).isFalse();
+        assertThat(booking.getBookingStatus()).isEqualTo("CANCELLED");
+        assertThat(booking.getPaymentStatus()).isEqualTo("REFUND_PENDING");
+
+        // When - the guest cancels again
+        CancellationResponse retry = guestBookingService.cancelBooking("token-1").join();
+
+        // Then - the refund is retried under the same key instead of being rejected
+        assertThat(retry.isRefundProcessed()).isTrue();
+        assertThat(retry.getRefundAmount()).isEqualTo(150.0);
+        assertThat(booking.getPaymentStatus()).isEqualTo("REFUNDED");
+        verify(stripeService, times(2)).createRefundAsync("pi_1", 15000L, "refund-booking-1");
+    }
+
+    @Test
+    void testReconcilePendingRefunds_GivesUpAfterLastAttempt() {
+        // Given - a pending refund on its last attempt, which Stripe rejects
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).when(taskExecutor).execute(any(Runnable.class));
+
+        GuestBooking booking = new GuestBooking();
+        booking.setId("booking-1");
+        booking.setBookingStatus("CANCELLED");
+        booking.setPaymentStatus("REFUND_PENDING");
+        booking.setStripePaymentIntentId("pi_1");
+        booking.setAmount(150.0);
+        booking.setRefundAttempts(8);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(GuestBooking.class)))
+            .thenReturn(booking)
+            .thenReturn(null);
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(GuestBooking.class)))
+            .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+        when(stripeService.convertToCents(150.0)).thenReturn(15000L);
+        when(stripeService.createRefundAsync("pi_1", 15000L, "refund-booking-1"))
+            .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("charge disputed")));
+
+        // When
+        guestBookingService.reconcilePendingRefunds();
+
+        // Then - the booking is left for staff instead of being retried forever
+        assertThat(booking.getPaymentStatus()).isEqualTo("REFUND_FAILED");
+        verify(eventPublisher).publishEvent(any(BookingChangedEvent.class));
+        verify(stripeService, times(1)).createRefundAsync("pi_1", 15000L, "refund-booking-1");
+    }
+
+    @Test
+    void testCreateBooking_StripeTimeoutKeepsBookingAwaitingPayment() {
+        // Given - a valid request whose checkout call gets no answer from Stripe
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).when(taskExecutor).execute(any(Runnable.class));
+
+        GuestBookingRequest request = new GuestBookingRequest();
+        request.setFirstName("Jane");
+        request.setLastName("Smith");
+        request.setEmail("jane.smith@example.com");
+        request.setPsychologistId("psych-1");
+        request.setSessionTypeId("type-1");
+        request.setAppointmentDateTime(LocalDateTime.now().plusDays(3));
+        SessionType sessionType = new SessionType();
+        sessionType.setDurationMinutes(50);
+        sessionType.setPrice(BigDecimal.valueOf(150));
+        when(psychologistRepository.findById("psych-1")).thenReturn(Optional.of(new Psychologist()));
+        when(sessionTypeRepository.findById("type-1")).thenReturn(Optional.of(sessionType));
+        when(availabilityService.isSlotAvailable(eq("psych-1"), any(LocalDateTime.class), eq(50))).thenReturn(true);
+        when(guestBookingRepository.save(any(GuestBooking.class))).thenAnswer(invocation -> {
+            GuestBooking saved = invocation.getArgument(0);
+            saved.setId("booking-1");
+            return saved;
+        });
+        when(stripeService.convertToCents(150.0)).thenReturn(15000L);
+        when(stripeService.createCheckoutSessionAsync(15000L, "booking-1", "jane.smith@example.com", "checkout-booking-1"))
+            .thenReturn(CompletableFuture.failedFuture(new TimeoutException()));
+
+        // When
+        CompletableFuture<CheckoutSessionResponse> result = guestBookingService.createBooking(request, null);
+
+        // Then - the request fails, but the booking is kept for the webhook or a retry to settle
+        assertThatThrownBy(result::join).hasCauseInstanceOf(GuestBookingService.CheckoutPendingException.class);
+        verify(mongoTemplate, never()).remove(any(Query.class), eq(GuestBooking.class));
+        verify(guestBookingRepository, never()).delete(any(GuestBooking.class));
+    }
+}
@@ -0,0 +1,75 @@
+package com.groundandgrow.service;
+
+import com.groundandgrow.dto.AppointmentFilter;
+import com.groundandgrow.model.GuestBooking;
+import com.groundandgrow.model.Psychologist;
+import com.groundandgrow.repository.GuestBookingRepository;
+import com.groundandgrow.repository.PsychologistRepository;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PsychologistServiceTest {
+
+    @Mock
+    private PsychologistRepository psychologistRepository;
+
+    @Mock
+    private GuestBookingRepository guestBookingRepository;
+
+    @Mock
+    private DashboardStatsService dashboardStatsService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private PsychologistService psychologistService;
+
+    @Test
+    void testGetAppointmentsPage_MixedCaseStatusMatchesStoredForms() {
+        // Given
+        Psychologist psychologist = new Psychologist();
+        psychologist.setId("psych-1");
+        when(psychologistRepository.findByEmail("psych@example.com")).thenReturn(Optional.of(psychologist));
+        when(mongoTemplate.find(any(Query.class), eq(GuestBooking.class))).thenReturn(List.of());
+
+        AppointmentFilter filter = AppointmentFilter.builder()
+            .statuses(List.of("Confirmed", " No_Show "))
+            .modality("Online")
+            .build();
+
+        // When
+        psychologistService.getAppointmentsPage("psych@example.com", filter, null, null);
+
+        // Then
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(query.capture(), eq(GuestBooking.class));
+        Document criteria = query.getValue().getQueryObject();
+        assertThat((Collection<Object>) criteria.get("bookingStatus", Document.class).get("$in"))
+            .containsExactly("confirmed", "CONFIRMED", "no_show", "NO_SHOW");
+        assertThat((Collection<Object>) criteria.get("modality", Document.class).get("$in"))
+            .containsExactly("online", "ONLINE");
+    }
+}
@@ -0,0 +1,132 @@
+package com.groundandgrow.service;
+
+import com.groundandgrow.model.Psychologist;
+import com.groundandgrow.model.RefreshToken;
+import com.groundandgrow.repository.RefreshTokenRepository;
+import com.groundandgrow.security.JwtTokenProvider;
+import com.groundandgrow.security.TokenRevocationList;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RefreshTokenServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Mock
+    private JwtTokenProvider tokenProvider;
+
+    @Mock
+    private TokenRevocationList revocationList;
+
+    @InjectMocks
+    private RefreshTokenService refreshTokenService;
+
+    private final Psychologist psychologist = Psychologist.builder().id("psych-1").email("psych@example.com").build();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(refreshTokenService, "refreshExpiration", 1209600000L);
+        ReflectionTestUtils.setField(refreshTokenService, "refreshReuseGraceMs", 10000L);
+        ReflectionTestUtils.setField(refreshTokenService, "jwtSecret", "test-secret-key-that-is-at-least-256-bits-long-for-hs256");
+    }
+
+    @Test
+    void testIssueSuccessor_SameTokenEveryTime() {
+        // When
+        String first = refreshTokenService.issueSuccessor("consumed-token", psychologist, "session-1");
+        String second = refreshTokenService.issueSuccessor("consumed-token", psychologist, "session-1");
+
+        // Then
+        assertThat(second).isEqualTo(first).isNotEqualTo("consumed-token");
+        assertThat(refreshTokenService.issueSuccessor("other-token", psychologist, "session-1")).isNotEqualTo(first);
+    }
+
+    @Test
+    void testConsume_ConcurrentRefreshWithinGracePeriod() {
+        // Given
+        RefreshToken used = token("session-1", LocalDateTime.now().minusSeconds(2));
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(RefreshToken.class)))
+            .thenReturn(null);
+        when(refreshTokenRepository.findByTokenHash(anyString()))
+            .thenReturn(Optional.of(used))
+            .thenReturn(Optional.empty()); // Successor not stored yet
+
+        // When
+        RefreshToken consumed = refreshTokenService.consume("consumed-token");
+
+        // Then
+        assertThat(consumed).isSameAs(used);
+        verify(revocationList, never()).revoke(anyString(), any(), anyString());
+    }
+
+    @Test
+    void testConsume_ReuseAfterGracePeriodRevokesSession() {
+        // Given
+        RefreshToken used = token("session-1", LocalDateTime.now().minusMinutes(5));
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(RefreshToken.class)))
+            .thenReturn(null);
+        when(refreshTokenRepository.findByTokenHash(anyString())).thenReturn(Optional.of(used));
+
+        // When / Then
+        assertThatThrownBy(() -> refreshTokenService.consume("consumed-token"))
+            .hasMessage("Invalid refresh token");
+        verify(revocationList).revoke(eq("session-1"), any(), eq("REFRESH_REUSE"));
+    }
+
+    @Test
+    void testConsume_ReuseAfterSuccessorWasUsedRevokesSession() {
+        // Given
+        RefreshToken used = token("session-1", LocalDateTime.now().minusSeconds(2));
+        RefreshToken usedSuccessor = token("session-1", LocalDateTime.now().minusSeconds(1));
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(RefreshToken.class)))
+            .thenReturn(null);
+        when(refreshTokenRepository.findByTokenHash(anyString()))
+            .thenReturn(Optional.of(used))
+            .thenReturn(Optional.of(usedSuccessor));
+
+        // When / Then
+        assertThatThrownBy(() -> refreshTokenService.consume("consumed-token"))
+            .hasMessage("Invalid refresh token");
+        ArgumentCaptor<String> hashes = ArgumentCaptor.forClass(String.class);
+        verify(refreshTokenRepository, times(2)).findByTokenHash(hashes.capture());
+        assertThat(hashes.getAllValues().get(1)).isNotEqualTo(hashes.getAllValues().get(0));
+        verify(revocationList).revoke(eq("session-1"), any(), eq("REFRESH_REUSE"));
+    }
+
+    private RefreshToken token(String sessionId, LocalDateTime usedAt) {
+        return RefreshToken.builder()
+            .sessionId(sessionId)
+            .psychologistId("psych-1")
+            .email("psych@example.com")
+            .usedAt(usedAt)
+            .build();
+    }
+}
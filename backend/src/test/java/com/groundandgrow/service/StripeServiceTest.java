@@ -0,0 +1,95 @@
+package com.groundandgrow.service;
+
+import com.stripe.exception.ApiConnectionException;
+import com.stripe.model.Refund;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs the Stripe client against a local stand-in server
+ */
+class StripeServiceTest {
+
+    private HttpServer server;
+    private StripeService stripeService;
+    private final AtomicReference<String> idempotencyKey = new AtomicReference<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/v1/refunds", exchange -> {
+            idempotencyKey.set(exchange.getRequestHeaders().getFirst("Idempotency-Key"));
+            byte[] body = "{\"id\":\"re_test\",\"object\":\"refund\",\"amount\":5000,\"status\":\"succeeded\"}"
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.createContext("/v1/checkout/sessions", exchange -> {
+            try {
+                Thread.sleep(2000); // Never answers within the read timeout
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.close();
+        });
+        server.start();
+
+        stripeService = new StripeService();
+        ReflectionTestUtils.setField(stripeService, "apiKey", "sk_test_local");
+        ReflectionTestUtils.setField(stripeService, "currency", "AUD");
+        ReflectionTestUtils.setField(stripeService, "successUrl", "http://localhost/success");
+        ReflectionTestUtils.setField(stripeService, "cancelUrl", "http://localhost/cancel");
+        ReflectionTestUtils.setField(stripeService, "apiBase", "http://127.0.0.1:" + server.getAddress().getPort());
+        ReflectionTestUtils.setField(stripeService, "connectTimeoutMs", 1000);
+        ReflectionTestUtils.setField(stripeService, "readTimeoutMs", 300);
+        ReflectionTestUtils.setField(stripeService, "maxNetworkRetries", 0);
+        ReflectionTestUtils.setField(stripeService, "callTimeoutMs", 5000L);
+        ReflectionTestUtils.setField(stripeService, "threads", 2);
+        ReflectionTestUtils.setField(stripeService, "queueCapacity", 2);
+        stripeService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        stripeService.shutdown();
+        server.stop(0);
+    }
+
+    @Test
+    void testCreateRefundAsync_SendsIdempotencyKey() throws Exception {
+        // When
+        Refund refund = stripeService.createRefundAsync("pi_test", 5000L, "refund-b1").get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertThat(refund.getId()).isEqualTo("re_test");
+        assertThat(idempotencyKey.get()).isEqualTo("refund-b1");
+    }
+
+    @Test
+    void testCreateCheckoutSessionAsync_FailsOnReadTimeout() {
+        // When
+        CompletableFuture<?> session = stripeService.createCheckoutSessionAsync(5000L, "b1", "guest@example.com", "checkout-b1");
+
+        // Then
+        assertThatThrownBy(() -> session.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(ApiConnectionException.class);
+    }
+}
@@ -0,0 +1,155 @@
+package com.groundandgrow.service;
+
+import com.groundandgrow.dto.WaitingRoomTicketDTO;
+import com.groundandgrow.model.WaitingRoomState;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WaitingRoomServiceTest {
+
+    private final InMemoryStore store = new InMemoryStore();
+
+    private WaitingRoomService waitingRoom(int burst, long claimWindowMs) {
+        WaitingRoomService service = new WaitingRoomService(store);
+        ReflectionTestUtils.setField(service, "enabled", true);
+        ReflectionTestUtils.setField(service, "admitPerSecond", 0.001);
+        ReflectionTestUtils.setField(service, "burst", burst);
+        ReflectionTestUtils.setField(service, "ticketTtlMs", 1800000L);
+        ReflectionTestUtils.setField(service, "claimWindowMs", claimWindowMs);
+        ReflectionTestUtils.setField(service, "syncMs", 0L);
+        ReflectionTestUtils.setField(service, "secret", "test-secret");
+        service.init();
+        return service;
+    }
+
+    @Test
+    void testAdmit_TicketIsUsedOnce() {
+        // Given
+        WaitingRoomService service = waitingRoom(1, 60000);
+        WaitingRoomTicketDTO ticket = service.enter();
+
+        // When
+        WaitingRoomService.Admission first = service.admit(ticket.getTicket());
+        WaitingRoomService.Admission second = service.admit(ticket.getTicket());
+
+        // Then
+        assertThat(first.isAdmitted()).isTrue();
+        assertThat(second.isAdmitted()).isFalse();
+        assertThat(second.getTicket().getTicket()).isNotEqualTo(ticket.getTicket());
+        assertThat(service.status(ticket.getTicket())).isNull();
+    }
+
+    @Test
+    void testAdmit_UnclaimedAdmissionPassesToNextInLine() throws InterruptedException {
+        // Given
+        WaitingRoomService service = waitingRoom(1, 20);
+        WaitingRoomTicketDTO abandoned = service.enter();
+        WaitingRoomTicketDTO waiting = service.enter();
+        assertThat(abandoned.isAdmitted()).isTrue();
+        assertThat(waiting.isAdmitted()).isFalse();
+
+        // When
+        Thread.sleep(50);
+
+        // Then
+        assertThat(service.admit(abandoned.getTicket()).isAdmitted()).isFalse();
+        assertThat(service.admit(waiting.getTicket()).isAdmitted()).isTrue();
+    }
+
+    @Test
+    void testAdmit_TicketKeepsItsPlaceOnAnotherNode() {
+        // Given - two nodes sharing the queue; the ticket is issued by the first while the burst is used up
+        WaitingRoomService first = waitingRoom(1, 60000);
+        WaitingRoomService second = waitingRoom(1, 60000);
+        WaitingRoomTicketDTO ahead = first.enter();
+        WaitingRoomTicketDTO behind = first.enter();
+
+        // When
+        WaitingRoomTicketDTO status = second.status(behind.getTicket());
+        WaitingRoomService.Admission admission = second.admit(ahead.getTicket());
+
+        // Then - the other node knows both tickets and their order
+        assertThat(status.getPosition()).isEqualTo(1);
+        assertThat(admission.isAdmitted()).isTrue();
+        assertThat(first.admit(ahead.getTicket()).isAdmitted()).isFalse();
+    }
+
+    /**
+     * Store with the same semantics as the MongoDB one, shared by the services of a test like nodes of a cluster
+     */
+    private static final class InMemoryStore implements WaitingRoomStore {
+
+        private WaitingRoomState state;
+        private final Map<Long, long[]> admissions = new HashMap<>(); // Sequence -> {admitted at, claimed, lapsed}
+
+        @Override
+        public synchronized void initialise(double admittedUpTo, long nowMs) {
+            if (state == null) {
+                state = new WaitingRoomState("booking", 0, admittedUpTo, nowMs, 0);
+            }
+        }
+
+        @Override
+        public synchronized WaitingRoomState load() {
+            return new WaitingRoomState(state.getId(), state.getIssued(), state.getAdmittedUpTo(),
+                state.getLastAdvanceMs(), state.getReachedUpTo());
+        }
+
+        @Override
+        public synchronized long nextSequence() {
+            state.setIssued(state.getIssued() + 1);
+            return state.getIssued();
+        }
+
+        @Override
+        public synchronized boolean advance(WaitingRoomState seen, double admittedUpTo, long lastAdvanceMs, long reachedUpTo) {
+            if (state.getLastAdvanceMs() != seen.getLastAdvanceMs() || state.getReachedUpTo() != seen.getReachedUpTo()) {
+                return false;
+            }
+            state.setAdmittedUpTo(state.getAdmittedUpTo() + admittedUpTo - seen.getAdmittedUpTo());
+            state.setLastAdvanceMs(lastAdvanceMs);
+            state.setReachedUpTo(reachedUpTo);
+            return true;
+        }
+
+        @Override
+        public synchronized void recordAdmissions(long fromSequence, long toSequence, long admittedAtMs, long retainMs) {
+            for (long sequence = fromSequence; sequence <= toSequence; sequence++) {
+                admissions.putIfAbsent(sequence, new long[] {admittedAtMs, 0, 0});
+            }
+        }
+
+        @Override
+        public synchronized long reclaimLapsed(long admittedBeforeMs) {
+            long lapsed = 0;
+            for (long[] admission : admissions.values()) {
+                if (admission[1] == 0 && admission[2] == 0 && admission[0] < admittedBeforeMs) {
+                    admission[2] = 1;
+                    lapsed++;
+                }
+            }
+            state.setAdmittedUpTo(state.getAdmittedUpTo() + lapsed);
+            return lapsed;
+        }
+
+        @Override
+        public synchronized boolean claim(long sequence, long admittedSinceMs) {
+            if (!isClaimable(sequence, admittedSinceMs)) {
+                return false;
+            }
+            admissions.get(sequence)[1] = 1;
+            return true;
+        }
+
+        @Override
+        public synchronized boolean isClaimable(long sequence, long admittedSinceMs) {
+            long[] admission = admissions.get(sequence);
+            return admission != null && admission[1] == 0 && admission[2] == 0 && admission[0] >= admittedSinceMs;
+        }
+    }
+}
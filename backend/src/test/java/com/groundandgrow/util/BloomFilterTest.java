@@ -0,0 +1,30 @@
+package com.groundandgrow.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BloomFilterTest {
+
+    @Test
+    void testAddedValuesAreAlwaysFound() {
+        BloomFilter filter = new BloomFilter(1000, 0.01);
+        IntStream.range(0, 1000).forEach(i -> filter.add("session-" + i));
+
+        assertThat(IntStream.range(0, 1000).allMatch(i -> filter.mightContain("session-" + i))).isTrue();
+    }
+
+    @Test
+    void testFalsePositiveRateStaysNearConfiguredRate() {
+        BloomFilter filter = new BloomFilter(1000, 0.01);
+        IntStream.range(0, 1000).forEach(i -> filter.add("session-" + i));
+
+        long falsePositives = IntStream.range(0, 10000)
+                .filter(i -> filter.mightContain("other-" + i))
+                .count();
+
+        assertThat(falsePositives).isLessThan(300);
+    }
+}
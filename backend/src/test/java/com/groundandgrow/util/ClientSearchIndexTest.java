@@ -0,0 +1,57 @@
+package com.groundandgrow.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ClientSearchIndexTest {
+
+    private ClientSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ClientSearchIndex();
+        index.put(new ClientSearchIndex.Entry("jane.doe@example.com", "Jane", "Doe", "+61412345678"));
+        index.put(new ClientSearchIndex.Entry("john.smith@example.com", "John", "Smith", "0400111222"));
+        index.put(new ClientSearchIndex.Entry("janet.jones@example.com", "Janet", "Jones", null));
+    }
+
+    @Test
+    void testSearch_PrefixRanksExactTokenFirst() {
+        List<String> emails = emails(index.search("jane", 10));
+
+        assertThat(emails).containsExactly("jane.doe@example.com", "janet.jones@example.com");
+    }
+
+    @Test
+    void testSearch_SubstringAndMultipleTerms() {
+        assertThat(emails(index.search("mith", 10))).containsExactly("john.smith@example.com");
+        assertThat(emails(index.search("jan jon", 10))).containsExactly("janet.jones@example.com");
+    }
+
+    @Test
+    void testSearch_PhoneInLocalForm() {
+        assertThat(emails(index.search("0412 345", 10))).containsExactly("jane.doe@example.com");
+    }
+
+    @Test
+    void testPutAndRemove_UpdatesIndex() {
+        index.put(new ClientSearchIndex.Entry("jane.doe@example.com", "Jane", "Roe", null));
+        assertThat(index.search("0412", 10)).isEmpty();
+        assertThat(emails(index.search("roe", 10))).containsExactly("jane.doe@example.com");
+
+        index.remove("jane.doe@example.com");
+        assertThat(index.search("roe", 10)).isEmpty();
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    private List<String> emails(List<ClientSearchIndex.Match> matches) {
+        return matches.stream()
+                .map(match -> match.getEntry().getEmail())
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,42 @@
+package com.groundandgrow.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CsvWriterTest {
+
+    @Test
+    void testWriteRow_PlainAndNullValues() throws IOException {
+        StringWriter out = new StringWriter();
+        CsvWriter csv = new CsvWriter(out);
+
+        csv.writeRow("id", 42, null, 12.5);
+
+        assertThat(out.toString()).isEqualTo("id,42,,12.5\r\n");
+    }
+
+    @Test
+    void testWriteRow_QuotesSpecialCharacters() throws IOException {
+        StringWriter out = new StringWriter();
+        CsvWriter csv = new CsvWriter(out);
+
+        csv.writeRow("Smith, Jane", "said \"hi\"", "line\nbreak");
+
+        assertThat(out.toString()).isEqualTo("\"Smith, Jane\",\"said \"\"hi\"\"\",\"line\nbreak\"\r\n");
+    }
+
+    @Test
+    void testWriteRow_NeutralisesFormulas() throws IOException {
+        StringWriter out = new StringWriter();
+        CsvWriter csv = new CsvWriter(out);
+
+        csv.writeRow("=HYPERLINK(\"http://x\")", "+61 400 000 000", "-2+3", "@SUM(A1)", "\tcmd", -12.5, "a=b");
+
+        assertThat(out.toString())
+            .isEqualTo("\"'=HYPERLINK(\"\"http://x\"\")\",'+61 400 000 000,'-2+3,'@SUM(A1),'\tcmd,-12.5,a=b\r\n");
+    }
+}
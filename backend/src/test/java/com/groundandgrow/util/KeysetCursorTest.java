@@ -0,0 +1,39 @@
+package com.groundandgrow.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class KeysetCursorTest {
+
+    @Test
+    void testEncodeDecode_RoundTrip() {
+        // Given
+        LocalDateTime timestamp = LocalDateTime.of(2025, 10, 4, 9, 30, 15, 123_000_000);
+        KeysetCursor cursor = new KeysetCursor(timestamp, "65f1c2a9e4b0a1b2c3d4e5f6");
+
+        // When
+        KeysetCursor decoded = KeysetCursor.decode(cursor.encode());
+
+        // Then
+        assertThat(decoded.getTimestamp()).isEqualTo(timestamp);
+        assertThat(decoded.getId()).isEqualTo("65f1c2a9e4b0a1b2c3d4e5f6");
+    }
+
+    @Test
+    void testDecode_EmptyCursor() {
+        assertThat(KeysetCursor.decode(null)).isNull();
+        assertThat(KeysetCursor.decode("")).isNull();
+    }
+
+    @Test
+    void testDecode_InvalidCursor() {
+        assertThatThrownBy(() -> KeysetCursor.decode("not-a-cursor"))
+                .isInstanceOf(KeysetCursor.InvalidCursorException.class);
+        assertThatThrownBy(() -> KeysetCursor.decode("%%%"))
+                .isInstanceOf(KeysetCursor.InvalidCursorException.class);
+    }
+}
@@ -0,0 +1,49 @@
+package com.groundandgrow.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StripedRateLimiterTest {
+
+    @Test
+    void testBurstThenOnePermitPerInterval() {
+        AtomicLong now = new AtomicLong(1_000_000);
+        StripedRateLimiter limiter = new StripedRateLimiter(1024, 3, 1000, now::get);
+
+        assertThat(limiter.tryAcquire("10.0.0.1")).isZero();
+        assertThat(limiter.tryAcquire("10.0.0.1")).isZero();
+        assertThat(limiter.tryAcquire("10.0.0.1")).isZero();
+        assertThat(limiter.tryAcquire("10.0.0.1")).isEqualTo(1000);
+
+        now.addAndGet(400);
+        assertThat(limiter.tryAcquire("10.0.0.1")).isEqualTo(600);
+
+        now.addAndGet(600);
+        assertThat(limiter.tryAcquire("10.0.0.1")).isZero();
+        assertThat(limiter.tryAcquire("10.0.0.1")).isPositive();
+    }
+
+    @Test
+    void testKeysAreLimitedIndependently() {
+        AtomicLong now = new AtomicLong(1_000_000);
+        StripedRateLimiter limiter = new StripedRateLimiter(1024, 1, 60000, now::get);
+
+        assertThat(limiter.tryAcquire("alice@example.com")).isZero();
+        assertThat(limiter.tryAcquire("alice@example.com")).isPositive();
+        assertThat(limiter.tryAcquire("bob@example.com")).isZero();
+    }
+
+    @Test
+    void testWaitTimeDoesNotTakePermits() {
+        AtomicLong now = new AtomicLong(1_000_000);
+        StripedRateLimiter limiter = new StripedRateLimiter(1024, 1, 60000, now::get);
+
+        assertThat(limiter.waitTime("alice@example.com")).isZero();
+        assertThat(limiter.waitTime("alice@example.com")).isZero();
+        assertThat(limiter.tryAcquire("alice@example.com")).isZero();
+        assertThat(limiter.waitTime("alice@example.com")).isEqualTo(60000);
+    }
+}
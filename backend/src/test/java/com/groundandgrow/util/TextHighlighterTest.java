@@ -0,0 +1,37 @@
+package com.groundandgrow.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TextHighlighterTest {
+
+    @Test
+    void testTerms_IgnoresNegatedAndQuotes() {
+        assertThat(TextHighlighter.terms("\"Anxiety\" session -cancel")).containsExactly("anxiety", "session");
+    }
+
+    @Test
+    void testFind_MatchesWordPrefixes() {
+        List<TextHighlighter.Highlight> highlights = TextHighlighter.find(
+                "Sessions on anxiety; pre-session notes", List.of("session"));
+
+        assertThat(highlights).containsExactly(
+                new TextHighlighter.Highlight(0, 8),
+                new TextHighlighter.Highlight(25, 7));
+    }
+
+    @Test
+    void testSnippet_WindowsAroundFirstMatch() {
+        String text = "a ".repeat(100) + "worksheet attached " + "b ".repeat(100);
+
+        TextHighlighter.Snippet snippet = TextHighlighter.snippet(text, List.of("worksheet"), 60);
+
+        assertThat(snippet.getText()).startsWith("…").endsWith("…");
+        TextHighlighter.Highlight highlight = snippet.getHighlights().get(0);
+        assertThat(snippet.getText().substring(highlight.getStart(), highlight.getStart() + highlight.getLength()))
+                .isEqualTo("worksheet");
+    }
+}
@@ -3,6 +3,7 @@ import { Link, useNavigate } from 'react-router-dom'
 import { useSelector, useDispatch } from 'react-redux'
 import { RootState } from '../../store/store'
 import { logout } from '../../store/slices/authSlice'
+import { authService } from '../../services/authService'
 import { Button } from './Button'
 
 interface NavbarProps {
@@ -15,6 +16,8 @@ export const Navbar: React.FC<NavbarProps> = ({ type }) => {
   const { isAuthenticated, user } = useSelector((state: RootState) => state.auth)
 
   const handleLogout = () => {
+    // Revoke the session server-side; local state is cleared regardless
+    authService.logout().catch(() => undefined)
     dispatch(logout())
     navigate('/psychologist/login')
   }
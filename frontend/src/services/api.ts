@@ -23,13 +23,57 @@ api.interceptors.request.use(
   }
 )
 
+// Refresh tokens are single use, so concurrent 401s share one refresh call
+let refreshing: Promise<string> | null = null
+
+// Tabs share the stored refresh token, so refreshes are also serialised across tabs where Web Locks exist
+const withRefreshLock = <T,>(task: () => Promise<T>): Promise<T> =>
+  'locks' in navigator ? navigator.locks.request('auth-refresh', task) : task()
+
+const refreshAccessToken = (): Promise<string> => {
+  if (!refreshing) {
+    const staleRefreshToken = localStorage.getItem('refreshToken')
+    refreshing = withRefreshLock(() => {
+      const refreshToken = localStorage.getItem('refreshToken')
+      const authToken = localStorage.getItem('authToken')
+      if (refreshToken && authToken && refreshToken !== staleRefreshToken) {
+        // Another tab refreshed while this one waited for the lock
+        return Promise.resolve(authToken)
+      }
+      return refreshToken
+        ? axios.post(`${API_BASE_URL}/auth/refresh`, { refreshToken }).then((response) => {
+            localStorage.setItem('authToken', response.data.token)
+            localStorage.setItem('refreshToken', response.data.refreshToken)
+            return response.data.token as string
+          })
+        : Promise.reject(new Error('No refresh token'))
+    }).finally(() => {
+      refreshing = null
+    })
+  }
+  return refreshing
+}
+
 // Response interceptor for handling errors
 api.interceptors.response.use(
   (response) => response,
-  (error) => {
+  async (error) => {
+    const original = error.config
+    if (error.response?.status === 401 && original && !original._retry && !original.url?.startsWith('/auth/')) {
+      // Access tokens are short-lived; renew once and retry
+      original._retry = true
+      try {
+        const token = await refreshAccessToken()
+        original.headers.Authorization = `Bearer ${token}`
+        return api(original)
+      } catch {
+        // Fall through to logout
+      }
+    }
     if (error.response?.status === 401) {
       // Handle unauthorized access
       localStorage.removeItem('authToken')
+      localStorage.removeItem('refreshToken')
       window.location.href = '/login'
     }
     return Promise.reject(error)
@@ -6,12 +6,19 @@ export const authService = {
     const response = await api.post<LoginResponse>('/auth/login', { email, password })
     if (response.data.token) {
       localStorage.setItem('authToken', response.data.token)
+      localStorage.setItem('refreshToken', response.data.refreshToken)
     }
     return response.data
   },
 
-  logout: (): void => {
-    localStorage.removeItem('authToken')
+  logout: async (): Promise<void> => {
+    const refreshToken = localStorage.getItem('refreshToken')
+    try {
+      await api.post('/auth/logout', refreshToken ? { refreshToken } : undefined)
+    } finally {
+      localStorage.removeItem('authToken')
+      localStorage.removeItem('refreshToken')
+    }
   },
 
   getCurrentUser: async (): Promise<User> => {
@@ -20,9 +27,12 @@ export const authService = {
   },
 
   refreshToken: async (): Promise<LoginResponse> => {
-    const response = await api.post<LoginResponse>('/auth/refresh')
+    const response = await api.post<LoginResponse>('/auth/refresh', {
+      refreshToken: localStorage.getItem('refreshToken')
+    })
     if (response.data.token) {
       localStorage.setItem('authToken', response.data.token)
+      localStorage.setItem('refreshToken', response.data.refreshToken)
     }
     return response.data
   },
@@ -38,6 +38,7 @@ const authSlice = createSlice({
       state.isAuthenticated = false
       state.error = null
       localStorage.removeItem('authToken')
+      localStorage.removeItem('refreshToken')
     },
     setLoading: (state, action: PayloadAction<boolean>) => {
       state.loading = action.payload
@@ -11,6 +11,8 @@ export interface LoginResponse {
   firstName: string
   lastName: string
   role: string
+  refreshToken: string
+  expiresIn: number
 }
 
 export interface RegisterRequest {
@@ -51,7 +51,7 @@ export interface GuestBooking {
   stripePaymentIntentId?: string
   stripeCheckoutSessionId?: string
   amount: number
-  paymentStatus: 'PENDING' | 'COMPLETED' | 'FAILED' | 'REFUNDED'
+  paymentStatus: 'PENDING' | 'COMPLETED' | 'FAILED' | 'REFUND_PENDING' | 'REFUND_FAILED' | 'REFUNDED'
   bookingStatus: 'PENDING_PAYMENT' | 'CONFIRMED' | 'CANCELLED' | 'COMPLETED' | 'NO_SHOW'
   confirmationToken: string
   emailConfirmed: boolean